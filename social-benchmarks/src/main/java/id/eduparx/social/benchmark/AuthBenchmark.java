@@ -0,0 +1,86 @@
+package id.eduparx.social.benchmark;
+
+import id.eduparx.social.model.User;
+import id.eduparx.social.security.JwtTokenProvider;
+import id.eduparx.social.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path autentikasi per request: issue/verify JWT (HS512) dan UserPrincipal.create
+ * principalCreateLegacy = versi lama yang membuat authority baru setiap kali
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+    private User user;
+
+    @Setup
+    public void setUp() throws Exception {
+        tokenProvider = new JwtTokenProvider();
+        setField("jwtSecret", "NpoiASND87zx998qy982384NnvdhknNosS020394lfiddfyooPoyyfdg189234umivNnduoeiIUEOWosLSlSMIOIQuynIUSNYDf623nUNSUDYF00IUNDYFnj");
+        setField("jwtExpirationInMs", 86_400_000);
+        Method init = JwtTokenProvider.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(tokenProvider);
+        token = tokenProvider.generateTokenFromUserId(42L);
+
+        user = new User("budi", "budi@eduparx.id", "$2a$10$7EqJtq98hPqEX7fNZaFWoO5oGQ2y1WhTnQh9n3p0Jm0a2bYgQe6Vy");
+        user.setId(42L);
+        user.setRole(User.Role.MODERATOR);
+        user.setIsActive(true);
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return tokenProvider.generateTokenFromUserId(42L);
+    }
+
+    @Benchmark
+    public Long verifyToken() {
+        return tokenProvider.getUserIdFromValidToken(token);
+    }
+
+    @Benchmark
+    public UserPrincipal principalCreate() {
+        return UserPrincipal.create(user);
+    }
+
+    @Benchmark
+    public UserPrincipal principalCreateLegacy() {
+        List<GrantedAuthority> authorities = Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getIsActive(), user.getRole(), authorities);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtTokenProvider.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, tokenProvider, value);
+    }
+}
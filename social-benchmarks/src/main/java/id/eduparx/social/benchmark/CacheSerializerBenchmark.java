@@ -0,0 +1,82 @@
+package id.eduparx.social.benchmark;
+
+import id.eduparx.social.cache.CompactBinaryRedisSerializer;
+import id.eduparx.social.cache.UserDtoListCodec;
+import id.eduparx.social.dto.UserDto;
+import id.eduparx.social.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perbandingan serializer value cache users::allUsers:
+ * JSON (GenericJackson2JsonRedisSerializer, default RedisConfig) vs biner vs biner + deflate
+ * Ukuran payload per format dicetak saat setup
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+    @Param({"10", "1000"})
+    public int users;
+
+    @Param({"json", "binary", "binary-deflate"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private List<UserDto> value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = switch (format) {
+            case "json" -> json;
+            case "binary" -> new CompactBinaryRedisSerializer(List.of(new UserDtoListCodec()), json, -1);
+            case "binary-deflate" -> new CompactBinaryRedisSerializer(List.of(new UserDtoListCodec()), json, 1024);
+            default -> throw new IllegalArgumentException(format);
+        };
+        value = sampleUsers(users);
+        encoded = serializer.serialize(value);
+        System.out.printf("%n[%s, %d users] payload = %d bytes%n", format, users, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    static List<UserDto> sampleUsers(int count) {
+        List<UserDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserDto user = new UserDto((long) i, "user" + i, "user" + i + "@eduparx.id",
+                    "Halo, saya user nomor " + i + " dan suka menulis tentang Java dan Spring", User.Role.USER);
+            user.setProfileImageUrl("/uploads/profile_" + i + ".png");
+            result.add(user);
+        }
+        return result;
+    }
+}
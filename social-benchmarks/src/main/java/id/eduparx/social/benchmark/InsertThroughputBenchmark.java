@@ -0,0 +1,123 @@
+package id.eduparx.social.benchmark;
+
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.model.PooledSequenceGenerator;
+import id.eduparx.social.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput bulk insert posts dan comments lewat Hibernate (satu transaction per invocation)
+ * per-row: batch_size 1 dan allocation size 1, satu round trip per insert seperti IDENTITY
+ * batched: sequence pooled (allocation 50) + JDBC batch 50 dengan order_inserts
+ *
+ * Default H2 in-memory (mode PostgreSQL), tanpa latency jaringan sehingga selisihnya
+ * lebih kecil dari aslinya. Untuk PostgreSQL:
+ * -Djdbc.url=jdbc:postgresql://localhost:5432/social_bench?reWriteBatchedInserts=true
+ * -Djdbc.user=app -Djdbc.password=123 (schema dibuat ulang, jangan pakai database aplikasi)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertThroughputBenchmark {
+
+    @Param({"per-row", "batched"})
+    public String mode;
+
+    @Param({"200"})
+    public int rows;
+
+    private SessionFactory sessionFactory;
+    private User author;
+    private Post post;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        boolean batched = "batched".equals(mode);
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, System.getProperty("jdbc.url",
+                        "jdbc:h2:mem:inserts;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, System.getProperty("jdbc.user", "sa"))
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, System.getProperty("jdbc.password", ""))
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, batched ? 50 : 1)
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, batched ? 50 : 1)
+                .applySetting(AvailableSettings.ORDER_INSERTS, batched)
+                .applySetting(AvailableSettings.ORDER_UPDATES, batched)
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                .applySetting(AvailableSettings.LOG_SESSION_METRICS, false)
+                // Entity listener User di-resolve lewat Spring seperti di aplikasi
+                .applySetting(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(new DefaultListableBeanFactory()))
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Post.class)
+                .addAnnotatedClass(Comment.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            author = new User("bench_author", "bench@eduparx.id", "secret-password");
+            session.persist(author);
+            post = new Post("Post untuk bulk comment", "Konten post benchmark", author);
+            post.setStatus(Post.PostStatus.PUBLISHED);
+            session.persist(post);
+        });
+        sessionFactory.getStatistics().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Statistics stats = sessionFactory.getStatistics();
+        System.out.printf("%n[%s] %d entity inserts, %d JDBC statements prepared%n",
+                mode, stats.getEntityInsertCount(), stats.getPrepareStatementCount());
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void createPosts() {
+        sessionFactory.inTransaction(session -> {
+            User ref = session.getReference(User.class, author.getId());
+            for (int i = 0; i < rows; i++) {
+                long n = ++sequence;
+                session.persist(new Post("Bulk post nomor " + n, "Konten bulk post " + n, ref));
+            }
+        });
+    }
+
+    @Benchmark
+    public void createComments() {
+        sessionFactory.inTransaction(session -> {
+            User authorRef = session.getReference(User.class, author.getId());
+            Post postRef = session.getReference(Post.class, post.getId());
+            for (int i = 0; i < rows; i++) {
+                session.persist(new Comment("Bulk comment nomor " + (++sequence), authorRef, postRef));
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package id.eduparx.social.benchmark;
+
+import id.eduparx.social.dto.UserDto;
+import id.eduparx.social.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping entity User ke UserDto (endpoint /api/users dan cache users::allUsers)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDtoBenchmark {
+
+    private User user;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            User entity = new User("user" + i, "user" + i + "@eduparx.id", "secret");
+            entity.setId((long) i);
+            entity.setBio("Halo, saya user nomor " + i);
+            entity.setProfileImageUrl("/uploads/profile_" + i + ".png");
+            users.add(entity);
+        }
+        user = users.get(0);
+    }
+
+    @Benchmark
+    public UserDto fromEntity() {
+        return UserDto.fromEntity(user);
+    }
+
+    @Benchmark
+    public List<UserDto> fromEntityList100() {
+        return users.stream().map(UserDto::fromEntity).toList();
+    }
+}
@@ -0,0 +1,206 @@
+package id.eduparx.social.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Load test closed-loop untuk membandingkan mode platform thread vs virtual thread
+ * pada endpoint feed, post detail dan create comment (throughput dan latency p50/p99)
+ *
+ * Jalankan aplikasi dua kali (Java 21), sekali tanpa profile dan sekali dengan
+ * --spring.profiles.active=virtual-threads, lalu untuk masing-masing:
+ *
+ *   java -Dlabel=platform -Dconcurrency=400 -Dusername=... -Dpassword=... -Dpost-id=1 -Dslug=... \
+ *        -Dout=thread-mode-results.csv \
+ *        -cp target/benchmarks.jar id.eduparx.social.benchmark.load.EndpointLoadBenchmark
+ *
+ * Concurrency di atas ukuran thread pool Tomcat (default 200) memperlihatkan antrian
+ * di mode platform; di mode virtual batasnya pindah ke pool JDBC
+ */
+public class EndpointLoadBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl = System.getProperty("base-url", "http://localhost:8088");
+    private final String label = System.getProperty("label", "run");
+    private final int concurrency = Integer.getInteger("concurrency", 200);
+    private final Duration warmup = Duration.parse("PT" + System.getProperty("warmup", "10s"));
+    private final Duration duration = Duration.parse("PT" + System.getProperty("duration", "30s"));
+    private final String scenarios = System.getProperty("scenarios", "feed,post-detail,comment-create");
+
+    public static void main(String[] args) throws Exception {
+        new EndpointLoadBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        String token = login();
+        String postId = System.getProperty("post-id", "1");
+        String slug = System.getProperty("slug");
+        AtomicInteger sequence = new AtomicInteger();
+
+        List<Result> results = new ArrayList<>();
+        for (String scenario : scenarios.split(",")) {
+            Supplier<HttpRequest> request = switch (scenario.trim()) {
+                case "feed" -> () -> get("/api/posts/feed?size=20");
+                case "post-detail" -> () -> get("/api/posts/slug/" + required(slug, "slug"));
+                case "comment-create" -> () -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/comments/post/" + postId))
+                        .header("Authorization", "Bearer " + required(token, "username/password"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"content\":\"load test comment " + sequence.incrementAndGet() + "\"}"))
+                        .build();
+                default -> throw new IllegalArgumentException("Scenario tidak dikenal: " + scenario);
+            };
+            measure(request, warmup);
+            Result result = measure(request, duration).named(scenario.trim());
+            results.add(result);
+            System.out.println(result.format(label, concurrency));
+        }
+
+        String out = System.getProperty("out");
+        if (out != null) {
+            Path path = Path.of(out);
+            boolean header = Files.notExists(path);
+            StringBuilder csv = new StringBuilder();
+            if (header) {
+                csv.append("label,scenario,concurrency,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms\n");
+            }
+            results.forEach(result -> csv.append(result.csv(label, concurrency)).append('\n'));
+            Files.writeString(path, csv, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Setiap worker mengirim request berikutnya segera setelah response diterima
+     */
+    private Result measure(Supplier<HttpRequest> request, Duration period) throws InterruptedException {
+        long deadline = System.nanoTime() + period.toNanos();
+        long[][] latencies = new long[concurrency][];
+        int[] errors = new int[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                int worker = i;
+                workers.execute(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(request.get(), HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (IOException ex) {
+                            ok = false;
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        if (!ok) {
+                            errors[worker]++;
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[worker] = Arrays.copyOf(samples, count);
+                    done.countDown();
+                });
+            }
+            done.await();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(null, all, Arrays.stream(errors).sum(), period);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private String login() throws IOException, InterruptedException {
+        String username = System.getProperty("username");
+        if (username == null) {
+            return null;
+        }
+        String body = MAPPER.writeValueAsString(Map.of(
+                "usernameOrEmail", username,
+                "password", System.getProperty("password", "")));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode json = MAPPER.readTree(response.body());
+        if (!json.hasNonNull("accessToken")) {
+            throw new IllegalStateException("Login gagal: " + response.body());
+        }
+        return json.get("accessToken").asText();
+    }
+
+    private static String required(String value, String property) {
+        if (value == null) {
+            throw new IllegalStateException("Property -D" + property + " wajib untuk scenario ini");
+        }
+        return value;
+    }
+
+    private record Result(String scenario, long[] sortedLatencies, int errors, Duration period) {
+
+        Result named(String name) {
+            return new Result(name, sortedLatencies, errors, period);
+        }
+
+        double throughput() {
+            return sortedLatencies.length / (period.toMillis() / 1000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        String format(String label, int concurrency) {
+            return String.format("%-10s %-15s c=%-5d %8d req %6d err %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms",
+                    label, scenario, concurrency, sortedLatencies.length, errors, throughput(),
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(1.0));
+        }
+
+        String csv(String label, int concurrency) {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f",
+                    label, scenario, concurrency, sortedLatencies.length, errors, throughput(),
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+}
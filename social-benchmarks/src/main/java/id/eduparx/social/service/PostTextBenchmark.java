@@ -0,0 +1,96 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excerpt (strip HTML) dan slug post: implementasi regex lama vs implementasi sekarang
+ * Di package service karena PostService.generateExcerpt package-private
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostTextBenchmark {
+
+    // short: post pendek tanpa banyak markup, long: artikel HTML ~20KB
+    @Param({"short", "long"})
+    public String content;
+
+    private String html;
+    private String title;
+
+    @Setup
+    public void setUp() {
+        if ("short".equals(content)) {
+            html = "<p>Belajar Spring Boot untuk pemula: membuat REST API sederhana dengan JPA dan PostgreSQL.</p>";
+            title = "Belajar Spring Boot: REST API dengan JPA";
+        } else {
+            StringBuilder article = new StringBuilder();
+            for (int i = 0; article.length() < 20_000; i++) {
+                article.append("<h2>Bagian ").append(i).append("</h2>")
+                        .append("<p>Paragraf ke-").append(i)
+                        .append(" membahas <b>cache dua level</b>, <a href=\"/posts/").append(i)
+                        .append("\">keyset pagination</a> dan batch insert di Hibernate.</p>\n");
+            }
+            html = article.toString();
+            title = "Panduan Lengkap (2025): Optimasi Performa Spring Boot, JPA & Redis — Bagian Pertama!";
+        }
+    }
+
+    @Benchmark
+    public String excerptRegex() {
+        return legacyExcerpt(html);
+    }
+
+    @Benchmark
+    public String excerpt() {
+        return PostService.generateExcerpt(html);
+    }
+
+    @Benchmark
+    public String slugRegex() {
+        return legacySlug(title);
+    }
+
+    @Benchmark
+    public String slug() {
+        Post post = new Post();
+        post.setTitle(title);
+        return post.getSlug();
+    }
+
+    static String legacyExcerpt(String content) {
+        String cleanContent = content.replaceAll("<[^>]*>", "");
+        if (cleanContent.length() <= 200) {
+            return cleanContent;
+        }
+        String excerpt = cleanContent.substring(0, 200);
+        int lastSpace = excerpt.lastIndexOf(' ');
+        if (lastSpace > 150) {
+            excerpt = excerpt.substring(0, lastSpace);
+        }
+        return excerpt + "...";
+    }
+
+    static String legacySlug(String title) {
+        return title.toLowerCase()
+                .replaceAll("[^a-z0-9\\s]", "")
+                .replaceAll("\\s+", "-")
+                .trim();
+    }
+}
@@ -0,0 +1,208 @@
+package id.eduparx.social.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache lokal berukuran terbatas dengan TTL per entry, dipakai bersama oleh semua near-cache/index in-process
+ * Entry dibagi ke beberapa segment (access-order LinkedHashMap, lock sendiri-sendiri) supaya read di hot path
+ * tidak antre di satu lock global; LRU berlaku per segment (kira-kira LRU untuk seluruh cache).
+ *
+ * Stamp (generation) menjaga hasil load yang dimulai sebelum invalidasi tidak disimpan:
+ * ambil {@link #stamp()} sebelum load, simpan dengan {@link #putIfUnchanged}
+ */
+public class BoundedTtlCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Segment tidak dipecah lebih kecil dari ini, cache kecil cukup satu-dua segment
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final long ttlMillis;
+    private final Segment<K, V>[] segments;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param ttl TTL default per entry, null/nol = tidak expire (hanya LRU)
+     */
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl != null ? ttl.toMillis() : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        int bounded = Math.max(1, maxSize);
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, bounded / MIN_SEGMENT_SIZE)));
+        this.ttlMillis = ttlMillis;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Sisa pembagian dibagikan ke segment awal, total kapasitas tetap maxSize
+            segments[i] = new Segment<>(bounded / count + (i < bounded % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return value yang belum expired, atau null
+     */
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentOf(key);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            Node<V> node = segment.entries.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expiresAt <= now) {
+                segment.entries.remove(key);
+                return null;
+            }
+            return node.value;
+        }
+    }
+
+    /**
+     * Ambil value, atau load lewat loader dan simpan hasilnya (null tidak disimpan)
+     * Hasil load tidak disimpan jika ada invalidasi selama loader berjalan
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = stamp();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            putIfUnchanged(key, loaded, stamp);
+        }
+        return loaded;
+    }
+
+    /**
+     * Generation saat ini, berubah setiap kali ada invalidasi
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * @param ttlMillis TTL khusus entry ini, nol/negatif = tidak expire
+     */
+    public void put(K key, V value, long ttlMillis) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.entries.put(key, new Node<>(value, expiresAt(ttlMillis)));
+        }
+    }
+
+    /**
+     * Simpan hanya jika tidak ada invalidasi sejak stamp diambil
+     * @return false jika value tidak disimpan
+     */
+    public boolean putIfUnchanged(K key, V value, long stamp) {
+        return putIfUnchanged(key, value, stamp, ttlMillis);
+    }
+
+    public boolean putIfUnchanged(K key, V value, long stamp, long ttlMillis) {
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            // Invalidasi menaikkan generation sebelum menghapus, jadi cek di bawah lock segment cukup
+            if (generation.get() != stamp) {
+                return false;
+            }
+            segment.entries.put(key, new Node<>(value, expiresAt(ttlMillis)));
+            return true;
+        }
+    }
+
+    /**
+     * Naikkan generation tanpa membuang entry (value diubah in-place oleh pemanggil):
+     * load yang sedang berjalan tidak akan menimpa perubahan itu
+     */
+    public void markChanged() {
+        generation.incrementAndGet();
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        Segment<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(Predicate<? super K> condition) {
+        generation.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.keySet().removeIf(condition);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Iterasi value yang masih tersimpan (termasuk yang sudah expired tapi belum dibuang), per segment
+     */
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Node<V> node : segment.entries.values()) {
+                    action.accept(node.value);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentOf(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static long expiresAt(long ttlMillis) {
+        return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+
+    private record Node<V>(V value, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Node<V>> entries;
+
+        Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+    }
+}
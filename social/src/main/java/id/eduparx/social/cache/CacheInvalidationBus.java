@@ -0,0 +1,76 @@
+package id.eduparx.social.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Broadcast invalidasi L1 antar node lewat Redis pub/sub
+ * Pesan dari node sendiri diabaikan (L1 lokal sudah di-update langsung)
+ */
+class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String channel;
+    private BiConsumer<String, String> handler = (cache, key) -> { };
+
+    CacheInvalidationBus(RedisTemplate<String, Object> redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Handler (cacheName, key); key null berarti clear seluruh cache
+     */
+    void onInvalidation(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(cacheName, null);
+    }
+
+    private void publish(String cacheName, String key) {
+        Map<String, String> payload = new HashMap<>();
+        payload.put("origin", nodeId);
+        payload.put("cache", cacheName);
+        payload.put("key", key);
+        try {
+            redisTemplate.convertAndSend(channel, payload);
+        } catch (RuntimeException ex) {
+            // L1 node lain tetap konsisten paling lambat setelah TTL L1
+            log.warn("Gagal publish invalidasi cache {}::{}: {}", cacheName, key, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof Map<?, ?> payload) || nodeId.equals(payload.get("origin"))) {
+            return;
+        }
+        Object cacheName = payload.get("cache");
+        Object key = payload.get("key");
+        if (cacheName != null) {
+            handler.accept(cacheName.toString(), key != null ? key.toString() : null);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package id.eduparx.social.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Codec biner untuk satu tipe value cache (schema ditulis eksplisit per field,
+ * tanpa nama class di setiap value seperti JSON)
+ * id() disimpan di header value, jangan diubah setelah dipakai di production.
+ * Naikkan version() setiap layout field berubah; value versi lama dianggap cache miss
+ */
+public interface CacheValueCodec<T> {
+
+    int id();
+
+    int version();
+
+    boolean canEncode(Object value);
+
+    void write(T value, DataOutputStream out) throws IOException;
+
+    T read(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,137 @@
+package id.eduparx.social.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serializer biner untuk value cache Redis
+ * Format: [MAGIC][flags][codec id][codec version][payload], payload di-deflate
+ * jika lebih besar dari compressionThreshold. Tipe tanpa codec (dan value JSON lama
+ * yang masih ada di Redis) ditangani oleh fallback serializer (JSON)
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    private static final int FLAG_COMPRESSED = 1;
+
+    private final List<CacheValueCodec<?>> codecs;
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold ukuran payload (byte) minimal untuk di-compress, negatif = tanpa kompresi
+     */
+    public CompactBinaryRedisSerializer(List<CacheValueCodec<?>> codecs,
+                                        RedisSerializer<Object> fallback,
+                                        int compressionThreshold) {
+        this.codecs = List.copyOf(codecs);
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CacheValueCodec<Object> codec = (CacheValueCodec<Object>) findCodec(value);
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(4096);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(payload, 8192));
+            codec.write(value, out);
+            out.flush();
+
+            boolean compress = compressionThreshold >= 0 && payload.size() > compressionThreshold;
+            ByteArrayOutputStream result = new ByteArrayOutputStream(payload.size() / (compress ? 3 : 1) + 8);
+            DataOutputStream header = new DataOutputStream(result);
+            header.writeByte(MAGIC);
+            header.writeByte(compress ? FLAG_COMPRESSED : 0);
+            BinaryIO.writeVarInt(header, codec.id());
+            BinaryIO.writeVarInt(header, codec.version());
+            if (compress) {
+                // Deflater eksplisit tidak di-end() oleh close(): lepas memory native zlib di sini
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (DeflaterOutputStream compressed = new DeflaterOutputStream(result, deflater)) {
+                    payload.writeTo(compressed);
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                payload.writeTo(result);
+            }
+            return result.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Gagal serialize value cache " + value.getClass().getName(), ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+            header.readByte();
+            int flags = header.readUnsignedByte();
+            int codecId = BinaryIO.readVarInt(header);
+            int version = BinaryIO.readVarInt(header);
+
+            CacheValueCodec<?> codec = findCodec(codecId);
+            if (codec == null || codec.version() != version) {
+                // Schema berubah: anggap cache miss, value akan di-load ulang
+                return null;
+            }
+            if ((flags & FLAG_COMPRESSED) == 0) {
+                return codec.read(header);
+            }
+            Inflater inflater = new Inflater();
+            try (DataInputStream payload = new DataInputStream(
+                    new BufferedInputStream(new InflaterInputStream(header, inflater), 8192))) {
+                return codec.read(payload);
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException | RuntimeException ex) {
+            throw new SerializationException("Gagal deserialize value cache biner", ex);
+        }
+    }
+
+    private CacheValueCodec<?> findCodec(Object value) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.canEncode(value)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private CacheValueCodec<?> findCodec(int codecId) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.id() == codecId) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
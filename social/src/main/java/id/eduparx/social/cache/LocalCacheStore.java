@@ -0,0 +1,64 @@
+package id.eduparx.social.cache;
+
+/**
+ * Store in-process (L1) untuk satu cache: {@link BoundedTtlCache} dengan TTL per entry
+ * Key disimpan dalam bentuk String supaya bisa di-invalidate dari pesan pub/sub
+ */
+class LocalCacheStore {
+
+    private final long ttlMillis;
+    private final BoundedTtlCache<String, Entry> entries;
+
+    LocalCacheStore(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new BoundedTtlCache<>(maxSize, ttlMillis);
+    }
+
+    /**
+     * @return entry yang belum expired, atau null
+     */
+    Entry get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    void put(String key, Object value) {
+        put(key, value, 0);
+    }
+
+    /**
+     * @param remoteExpiresAt waktu expire entry di L2 (epoch millis), 0 = tidak diketahui;
+     *                        entry L1 tidak pernah hidup lebih lama dari entry L2
+     */
+    void put(String key, Object value, long remoteExpiresAt) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        if (remoteExpiresAt > 0) {
+            expiresAt = Math.min(expiresAt, remoteExpiresAt);
+        }
+        if (expiresAt <= now) {
+            // Entry L2 sudah (hampir) expired, jangan sampai TTL <= 0 dibaca sebagai "tidak expire"
+            entries.invalidate(key);
+            return;
+        }
+        entries.put(key, new Entry(value, now, expiresAt, remoteExpiresAt), expiresAt - now);
+    }
+
+    void evict(String key) {
+        entries.invalidate(key);
+    }
+
+    void clear() {
+        entries.invalidateAll();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    record Entry(Object value, long createdAt, long expiresAt, long remoteExpiresAt) {
+    }
+}
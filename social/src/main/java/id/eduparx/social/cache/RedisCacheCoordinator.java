@@ -0,0 +1,77 @@
+package id.eduparx.social.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operasi Redis di luar API Cache untuk satu RedisCache:
+ * lock load per key (SET NX PX) dan sisa TTL entry di L2
+ */
+class RedisCacheCoordinator {
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCache cache;
+    private final RedisCacheConfiguration configuration;
+
+    RedisCacheCoordinator(RedisTemplate<String, Object> redisTemplate, RedisCache cache) {
+        this.redisTemplate = redisTemplate;
+        this.cache = cache;
+        this.configuration = cache.getCacheConfiguration();
+    }
+
+    /**
+     * @return token lock, atau null jika lock sedang dipegang node lain
+     */
+    String tryLock(Object key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(key), token, ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    /**
+     * Lepas lock hanya jika masih milik token ini (lock yang sudah expire bisa dipegang node lain)
+     */
+    void unlock(Object key, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(key)), token);
+    }
+
+    /**
+     * @return waktu expire entry di L2 (epoch millis), 0 jika tidak diketahui atau tanpa TTL
+     */
+    long remoteExpiresAt(Object key) {
+        Long remaining = redisTemplate.getExpire(redisKey(key), TimeUnit.MILLISECONDS);
+        return remaining != null && remaining > 0 ? System.currentTimeMillis() + remaining : 0;
+    }
+
+    /**
+     * Waktu expire entry yang baru ditulis ke L2 menurut konfigurasi TTL cache
+     */
+    long expiresAtAfterPut(Object key, Object value) {
+        Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+        return ttl != null && !ttl.isZero() && !ttl.isNegative() ? System.currentTimeMillis() + ttl.toMillis() : 0;
+    }
+
+    private String redisKey(Object key) {
+        String convertedKey = key instanceof String value
+                ? value
+                : configuration.getConversionService().convert(key, String.class);
+        return configuration.usePrefix()
+                ? configuration.getKeyPrefixFor(cache.getName()) + convertedKey
+                : convertedKey;
+    }
+
+    private String lockKey(Object key) {
+        return redisKey(key) + "::lock";
+    }
+}
@@ -0,0 +1,22 @@
+package id.eduparx.social.cache;
+
+import java.time.Duration;
+
+/**
+ * Pengaturan perlindungan stampede untuk satu cache
+ *
+ * @param lockEnabled        pakai lock Redis supaya hanya satu node yang me-load key yang sama
+ * @param lockTtl            umur maksimum lock (jika node pemegang lock mati)
+ * @param lockWait           lama node lain menunggu value muncul di L2 sebelum load sendiri
+ * @param earlyRefresh       reload key di background sebelum expire (probabilistic early refresh)
+ * @param earlyRefreshBeta   > 1 refresh lebih awal, < 1 lebih dekat ke waktu expire
+ */
+record StampedeSettings(boolean lockEnabled,
+                        Duration lockTtl,
+                        Duration lockWait,
+                        boolean earlyRefresh,
+                        double earlyRefreshBeta) {
+
+    static final StampedeSettings DISABLED =
+            new StampedeSettings(false, Duration.ZERO, Duration.ZERO, false, 1.0);
+}
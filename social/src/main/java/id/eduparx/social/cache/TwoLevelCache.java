@@ -0,0 +1,432 @@
+package id.eduparx.social.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache dua level: L1 in-process (LocalCacheStore) di depan L2 Redis
+ * Read: L1 -> L2 -> loader. Write/evict diterapkan ke L1 dan L2,
+ * lalu di-broadcast supaya L1 di node lain ikut dibuang
+ *
+ * get(key, loader) (@Cacheable sync = true) dilindungi dari stampede:
+ * - single-flight: satu loader per key per node, request lain menunggu hasilnya
+ * - lock Redis (opsional): satu loader per key di semua node, node lain menunggu value di L2
+ * - early refresh: key yang sering dibaca di-reload di background sebelum expire
+ *   (probabilistic, makin dekat waktu expire dan makin lama loader makin besar peluangnya)
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final long LOCK_POLL_MILLIS = 50;
+    // Perkiraan durasi loader sebelum node ini pernah menjalankan loader sendiri
+    private static final double INITIAL_LOAD_MILLIS = 100;
+
+    private final String name;
+    private final LocalCacheStore local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final RedisCacheCoordinator coordinator;
+    private final StampedeSettings stampede;
+    private final Executor refreshExecutor;
+
+    // Load yang sedang berjalan per key (single-flight), termasuk early refresh
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Rata-rata durasi loader (ms), dipakai untuk menghitung peluang early refresh
+    private volatile double loadMillis = INITIAL_LOAD_MILLIS;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter lockWaits;
+    private final Counter earlyRefreshes;
+    private final Counter failedRefreshes;
+    private final Timer loadSuccessTimer;
+    private final Timer loadErrorTimer;
+
+    TwoLevelCache(String name, LocalCacheStore local, Cache remote,
+                  CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        this(name, local, remote, invalidationBus, meterRegistry, null, StampedeSettings.DISABLED, null);
+    }
+
+    /**
+     * @param coordinator     operasi lock/TTL Redis, null jika L2 bukan RedisCache
+     * @param refreshExecutor executor early refresh, null = early refresh nonaktif
+     */
+    TwoLevelCache(String name, LocalCacheStore local, Cache remote,
+                  CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                  RedisCacheCoordinator coordinator, StampedeSettings stampede, Executor refreshExecutor) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.coordinator = coordinator;
+        this.stampede = stampede;
+        this.refreshExecutor = refreshExecutor;
+        this.l1Hits = counter(meterRegistry, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, "l2", "miss");
+        this.loads = loadCounter(meterRegistry, "loader");
+        this.coalescedLoads = loadCounter(meterRegistry, "coalesced");
+        this.lockWaits = loadCounter(meterRegistry, "lock-wait");
+        this.earlyRefreshes = loadCounter(meterRegistry, "early-refresh");
+        this.failedRefreshes = loadCounter(meterRegistry, "early-refresh-failed");
+        this.loadSuccessTimer = loadTimer(meterRegistry, "success");
+        this.loadErrorTimer = loadTimer(meterRegistry, "error");
+
+        Gauge.builder("social.cache.hit.ratio", this, cache -> ratio(cache.l1Hits, cache.l1Misses))
+                .tag("cache", name).tag("level", "l1")
+                .register(meterRegistry);
+        Gauge.builder("social.cache.hit.ratio", this, cache -> ratio(cache.l2Hits, cache.l2Misses))
+                .tag("cache", name).tag("level", "l2")
+                .register(meterRegistry);
+        Gauge.builder("social.cache.l1.size", this, TwoLevelCache::localSize)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        LocalCacheStore.Entry entry = local.get(localKey);
+        if (entry != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(entry.value());
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            l2Hits.increment();
+            local.put(localKey, wrapper.get());
+        } else {
+            l2Misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        LocalCacheStore.Entry entry = local.get(localKey);
+        if (entry != null) {
+            l1Hits.increment();
+            refreshEarlyIfDue(key, localKey, entry.value(), entry.remoteExpiresAt(), valueLoader);
+            return (T) entry.value();
+        }
+        l1Misses.increment();
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, flight);
+        if (running != null) {
+            coalescedLoads.increment();
+            return (T) await(running, key, valueLoader);
+        }
+        try {
+            Object value = loadThroughRemote(key, localKey, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    /**
+     * Dipanggil hanya oleh pemegang single-flight: L2 -> (lock Redis) -> loader
+     */
+    private Object loadThroughRemote(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            l2Hits.increment();
+            long remoteExpiresAt = stampede.earlyRefresh() ? remoteExpiresAt(key) : 0;
+            local.put(localKey, wrapper.get(), remoteExpiresAt);
+            refreshEarlyIfDue(key, localKey, wrapper.get(), remoteExpiresAt, valueLoader);
+            return wrapper.get();
+        }
+        l2Misses.increment();
+
+        if (!stampede.lockEnabled() || coordinator == null) {
+            return loadAndStore(key, valueLoader);
+        }
+        String token;
+        try {
+            token = coordinator.tryLock(key, stampede.lockTtl());
+        } catch (RuntimeException ex) {
+            log.warn("Gagal mengambil lock load {}::{}, load tanpa lock: {}", name, key, ex.getMessage());
+            return loadAndStore(key, valueLoader);
+        }
+        if (token == null) {
+            // Node lain sedang load key ini: tunggu hasilnya muncul di L2
+            lockWaits.increment();
+            wrapper = awaitRemote(key);
+            if (wrapper != null) {
+                local.put(localKey, wrapper.get());
+                return wrapper.get();
+            }
+            return loadAndStore(key, valueLoader);
+        }
+        try {
+            // Node lain bisa saja selesai load di antara miss L2 dan lock
+            wrapper = remote.get(key);
+            if (wrapper != null) {
+                local.put(localKey, wrapper.get());
+                return wrapper.get();
+            }
+            return loadAndStore(key, valueLoader);
+        } finally {
+            releaseLock(key, token);
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            loadErrorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long elapsed = System.nanoTime() - start;
+        loads.increment();
+        loadSuccessTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        recordLoadTime(elapsed / 1_000_000.0);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Probabilistic early refresh (XFetch): refresh jika
+     * now - loadMillis * beta * ln(random) >= waktu expire L2
+     */
+    private void refreshEarlyIfDue(Object key, String localKey, Object current,
+                                   long remoteExpiresAt, Callable<?> valueLoader) {
+        if (!stampede.earlyRefresh() || refreshExecutor == null || remoteExpiresAt <= 0) {
+            return;
+        }
+        double gap = loadMillis * stampede.earlyRefreshBeta() * -Math.log(ThreadLocalRandom.current().nextDouble());
+        if (System.currentTimeMillis() + gap < remoteExpiresAt) {
+            return;
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, localKey, current, valueLoader, flight));
+        } catch (RejectedExecutionException ex) {
+            // Antrian refresh penuh: value lama tetap dipakai sampai expire
+            inFlight.remove(localKey, flight);
+            flight.complete(current);
+        }
+    }
+
+    private void refresh(Object key, String localKey, Object current,
+                         Callable<?> valueLoader, CompletableFuture<Object> flight) {
+        Object value = current;
+        String token = null;
+        try {
+            if (stampede.lockEnabled() && coordinator != null) {
+                token = coordinator.tryLock(key, stampede.lockTtl());
+                if (token == null) {
+                    // Node lain sedang refresh key yang sama
+                    return;
+                }
+            }
+            value = loadAndStore(key, valueLoader);
+            earlyRefreshes.increment();
+        } catch (RuntimeException ex) {
+            failedRefreshes.increment();
+            log.warn("Early refresh {}::{} gagal: {}", name, key, ex.getMessage());
+        } finally {
+            if (token != null) {
+                releaseLock(key, token);
+            }
+            inFlight.remove(localKey, flight);
+            // Request yang menunggu tetap mendapat value (lama jika refresh gagal)
+            flight.complete(value);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running, Object key, Callable<?> valueLoader) {
+        try {
+            return running.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    private ValueWrapper awaitRemote(Object key) {
+        long deadline = System.currentTimeMillis() + stampede.lockWait().toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null) {
+                return wrapper;
+            }
+        }
+        return null;
+    }
+
+    private void releaseLock(Object key, String token) {
+        try {
+            coordinator.unlock(key, token);
+        } catch (RuntimeException ex) {
+            // Lock akan expire sendiri setelah lockTtl
+            log.warn("Gagal melepas lock load {}::{}: {}", name, key, ex.getMessage());
+        }
+    }
+
+    private long remoteExpiresAt(Object key) {
+        if (coordinator == null) {
+            return 0;
+        }
+        try {
+            return coordinator.remoteExpiresAt(key);
+        } catch (RuntimeException ex) {
+            return 0;
+        }
+    }
+
+    private void recordLoadTime(double millis) {
+        loadMillis = loadMillis * 0.8 + millis * 0.2;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        remote.put(key, value);
+        if (value != null) {
+            local.put(localKey, value, expiresAtAfterPut(key, value));
+        }
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        remote.evict(key);
+        local.evict(localKey);
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.clear();
+        invalidationBus.publishClear(name);
+    }
+
+    /**
+     * Invalidasi L1 saja (dipanggil dari pesan pub/sub node lain)
+     */
+    void evictLocal(String localKey) {
+        local.evict(localKey);
+    }
+
+    void clearLocal() {
+        local.clear();
+    }
+
+    int localSize() {
+        return local.size();
+    }
+
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private long expiresAtAfterPut(Object key, Object value) {
+        return coordinator != null && stampede.earlyRefresh() ? coordinator.expiresAtAfterPut(key, value) : 0;
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("social.cache.gets")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Durasi loader (query ke database) saat L1 dan L2 miss, dengan histogram untuk percentile
+     */
+    private Timer loadTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("social.cache.load.duration")
+                .description("Durasi load value cache dari sumber data")
+                .tag("cache", name)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter loadCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("social.cache.loads")
+                .tag("cache", name)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,129 @@
+package id.eduparx.social.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CacheManager komposit: L1 in-process per cache di depan CacheManager Redis (L2)
+ * Ukuran dan TTL L1 bisa diatur per cache:
+ * app.cache.l1.{cacheName}.max-size / app.cache.l1.{cacheName}.ttl,
+ * dengan default app.cache.l1.default.max-size / app.cache.l1.default.ttl
+ * Perlindungan stampede diatur dengan pola yang sama di app.cache.stampede.{cacheName|default}.*
+ */
+public class TwoLevelCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheManager remoteCacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                RedisTemplate<String, Object> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                MeterRegistry meterRegistry,
+                                Environment environment) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.invalidationBus = new CacheInvalidationBus(redisTemplate,
+                environment.getProperty("app.cache.invalidation-channel", "social:cache:invalidate"));
+        this.invalidationBus.onInvalidation(this::invalidateLocal);
+        listenerContainer.addMessageListener(invalidationBus, new ChannelTopic(invalidationBus.getChannel()));
+        this.refreshExecutor = createRefreshExecutor(
+                environment.getProperty("app.cache.refresh.threads", Integer.class, 2),
+                environment.getProperty("app.cache.refresh.queue-size", Integer.class, 100));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(cacheName,
+                createLocalStore(cacheName), remote, invalidationBus, meterRegistry,
+                remote instanceof RedisCache redisCache ? new RedisCacheCoordinator(redisTemplate, redisCache) : null,
+                stampedeSettings(cacheName), refreshExecutor));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private LocalCacheStore createLocalStore(String cacheName) {
+        int defaultSize = environment.getProperty("app.cache.l1.default.max-size", Integer.class, 1000);
+        Duration defaultTtl = environment.getProperty("app.cache.l1.default.ttl", Duration.class, Duration.ofSeconds(60));
+        int maxSize = environment.getProperty("app.cache.l1." + cacheName + ".max-size", Integer.class, defaultSize);
+        Duration ttl = environment.getProperty("app.cache.l1." + cacheName + ".ttl", Duration.class, defaultTtl);
+        return new LocalCacheStore(maxSize, ttl.toMillis());
+    }
+
+    private StampedeSettings stampedeSettings(String cacheName) {
+        return new StampedeSettings(
+                stampedeProperty(cacheName, "lock-enabled", Boolean.class, false),
+                stampedeProperty(cacheName, "lock-ttl", Duration.class, Duration.ofSeconds(30)),
+                stampedeProperty(cacheName, "lock-wait", Duration.class, Duration.ofSeconds(5)),
+                stampedeProperty(cacheName, "early-refresh", Boolean.class, true),
+                stampedeProperty(cacheName, "early-refresh-beta", Double.class, 1.0));
+    }
+
+    private <T> T stampedeProperty(String cacheName, String property, Class<T> type, T fallback) {
+        T defaultValue = environment.getProperty("app.cache.stampede.default." + property, type, fallback);
+        return environment.getProperty("app.cache.stampede." + cacheName + "." + property, type, defaultValue);
+    }
+
+    private static ThreadPoolExecutor createRefreshExecutor(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void invalidateLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
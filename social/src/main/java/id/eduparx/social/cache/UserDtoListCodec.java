@@ -0,0 +1,74 @@
+package id.eduparx.social.cache;
+
+import id.eduparx.social.dto.UserDto;
+import id.eduparx.social.model.User;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec untuk List<UserDto> (value cache users::allUsers)
+ * Layout v1 per user: id, username, email, bio, profileImageUrl, role (ordinal + 1, 0 = null)
+ */
+public class UserDtoListCodec implements CacheValueCodec<List<UserDto>> {
+
+    // Urutan enum Role bagian dari format: tambah role baru di akhir, atau naikkan version()
+    private static final User.Role[] ROLES = User.Role.values();
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        for (Object element : list) {
+            if (element == null || element.getClass() != UserDto.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void write(List<UserDto> users, DataOutputStream out) throws IOException {
+        BinaryIO.writeVarInt(out, users.size());
+        for (UserDto user : users) {
+            BinaryIO.writeNullableLong(out, user.getId());
+            BinaryIO.writeString(out, user.getUsername());
+            BinaryIO.writeString(out, user.getEmail());
+            BinaryIO.writeString(out, user.getBio());
+            BinaryIO.writeString(out, user.getProfileImageUrl());
+            BinaryIO.writeVarInt(out, user.getRole() != null ? user.getRole().ordinal() + 1 : 0);
+        }
+    }
+
+    @Override
+    public List<UserDto> read(DataInputStream in) throws IOException {
+        int size = BinaryIO.readVarInt(in);
+        List<UserDto> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserDto user = new UserDto();
+            user.setId(BinaryIO.readNullableLong(in));
+            user.setUsername(BinaryIO.readString(in));
+            user.setEmail(BinaryIO.readString(in));
+            user.setBio(BinaryIO.readString(in));
+            user.setProfileImageUrl(BinaryIO.readString(in));
+            int role = BinaryIO.readVarInt(in);
+            user.setRole(role != 0 ? ROLES[role - 1] : null);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -1,6 +1,7 @@
 package id.eduparx.social.config;
 
 import id.eduparx.social.exception.FileStorageException;
+import id.eduparx.social.exception.InvalidCursorException;
 import id.eduparx.social.exception.InvalidFileException;
 import id.eduparx.social.exception.ResourceNotFoundException;
 
@@ -49,6 +50,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
     
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursorException(
+            InvalidCursorException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Cursor");
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+    
     @ExceptionHandler(FileStorageException.class)
     public ResponseEntity<Map<String, Object>> handleFileStorageException(
             FileStorageException ex) {
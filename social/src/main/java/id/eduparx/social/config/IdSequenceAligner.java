@@ -0,0 +1,104 @@
+package id.eduparx.social.config;
+
+import id.eduparx.social.model.PooledSequence;
+import id.eduparx.social.model.PooledSequenceGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Menyelaraskan sequence {@link PooledSequence} dengan data yang sudah ada (PostgreSQL)
+ * Tabel lama memakai kolom IDENTITY, jadi sequence baru yang dibuat ddl-auto
+ * dimajukan melewati MAX(id), dan INCREMENT BY disamakan dengan allocation size
+ * yang dikonfigurasi. Berjalan setelah EntityManagerFactory (schema update) siap
+ * dan sebelum aplikasi menerima request
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int allocationSize;
+    private final boolean enabled;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + ":"
+                                     + PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE + "}") int allocationSize,
+                             @Value("${app.id-sequence.align-on-startup:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.allocationSize = allocationSize;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void align() {
+        if (!enabled || !isPostgres()) {
+            return;
+        }
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            for (Field field : type.getDeclaredFields()) {
+                PooledSequence sequence = field.getAnnotation(PooledSequence.class);
+                if (sequence != null) {
+                    alignSequence(sequence.value(), tableName(type), columnName(field));
+                }
+            }
+        }
+    }
+
+    private void alignSequence(String sequence, String table, String column) {
+        Long increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = ? AND schemaname = current_schema()",
+                Long.class, sequence);
+        if (increment != null && increment != allocationSize) {
+            // Pooled optimizer: satu nextval = blok (nilai - increment, nilai], blok lama tetap tidak overlap
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + allocationSize);
+            log.info("Sequence {} INCREMENT BY {} -> {}", sequence, increment, allocationSize);
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+        // Hanya maju, tidak pernah mundur (node lain mungkin sedang mengambil nextval)
+        if (maxId != null && lastValue != null && maxId > lastValue) {
+            jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, maxId);
+            log.info("Sequence {} dimajukan ke MAX({}.{}) = {}", sequence, table, column, maxId);
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException ex) {
+            log.warn("Tidak bisa membaca metadata database, sequence tidak diselaraskan: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private static String tableName(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        return table != null && !table.name().isEmpty() ? table.name() : type.getSimpleName();
+    }
+
+    private static String columnName(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        return column != null && !column.name().isEmpty() ? column.name() : field.getName();
+    }
+}
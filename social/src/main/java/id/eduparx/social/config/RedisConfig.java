@@ -1,20 +1,31 @@
 package id.eduparx.social.config;
 
+import id.eduparx.social.cache.CompactBinaryRedisSerializer;
+import id.eduparx.social.cache.TwoLevelCacheManager;
+import id.eduparx.social.cache.UserDtoListCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
@@ -49,10 +60,23 @@ public class RedisConfig {
         return template;
     }
 
+    // container pub/sub untuk invalidasi near-cache antar node
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
     // Spring menggunakan Redis sebagai cache provider
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisTemplate<String, Object> redisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     MeterRegistry meterRegistry,
+                                     Environment environment) {
         // Konfigurasi default cache
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10)) // Cache expire setelah 10 menit
@@ -64,8 +88,41 @@ public class RedisConfig {
                     RedisSerializationContext.SerializationPair.fromSerializer(
                         new GenericJackson2JsonRedisSerializer()));
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
+        // Serializer value per cache: app.cache.serializer.<cacheName>=json|binary
+        Map<String, String> serializerModes = Binder.get(environment)
+                .bind("app.cache.serializer", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        RedisCacheConfiguration binaryConfig = defaultConfig.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(
+                    compactBinarySerializer(environment)));
+
+        Map<String, RedisCacheConfiguration> perCacheConfig = new HashMap<>();
+        serializerModes.forEach((cacheName, mode) -> {
+            if (!"default".equals(cacheName) && "binary".equalsIgnoreCase(mode)) {
+                perCacheConfig.put(cacheName, binaryConfig);
+            }
+        });
+        boolean binaryByDefault = "binary".equalsIgnoreCase(serializerModes.get("default"));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(binaryByDefault ? binaryConfig : defaultConfig)
+                .withInitialCacheConfigurations(perCacheConfig)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // L1 in-process di depan Redis (L2), invalidasi L1 antar node lewat pub/sub
+        return new TwoLevelCacheManager(redisCacheManager, redisTemplate,
+                redisMessageListenerContainer, meterRegistry, environment);
+    }
+
+    // serializer biner (codec per tipe), tipe lain fallback ke JSON
+
+    private CompactBinaryRedisSerializer compactBinarySerializer(Environment environment) {
+        boolean compression = environment.getProperty("app.cache.compression.enabled", Boolean.class, true);
+        int threshold = environment.getProperty("app.cache.compression.threshold-bytes", Integer.class, 1024);
+        return new CompactBinaryRedisSerializer(
+                List.of(new UserDtoListCodec()),
+                new GenericJackson2JsonRedisSerializer(),
+                compression ? threshold : -1);
     }
 }
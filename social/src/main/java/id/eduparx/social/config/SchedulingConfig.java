@@ -0,0 +1,24 @@
+package id.eduparx.social.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+
+/**
+ * Konfigurasi scheduler untuk background jobs
+ * (flush view count, rebuild index, reconcile counter, dll)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Sumber waktu untuk komponen berbasis window (trending), diganti Clock tetap di test
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
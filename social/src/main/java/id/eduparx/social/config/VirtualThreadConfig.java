@@ -0,0 +1,41 @@
+package id.eduparx.social.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Mode virtual thread (profile "virtual-threads" / spring.threads.virtual.enabled=true)
+ * Spring Boot lalu menjalankan request Tomcat, @Async (applicationTaskExecutor) dan
+ * @Scheduled di virtual thread. Hanya aktif di Java 21+, di Java 17 setting diabaikan
+ * dan aplikasi tetap memakai platform thread pool
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private final Environment environment;
+
+    public VirtualThreadConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Request, @Async dan @Scheduled berjalan di virtual thread (Java {})", JavaVersion.getJavaVersion());
+        } else if (requested) {
+            log.warn("spring.threads.virtual.enabled=true diabaikan: butuh Java 21+, runtime Java {}",
+                    JavaVersion.getJavaVersion());
+        } else {
+            log.info("Request berjalan di platform thread pool Tomcat");
+        }
+    }
+}
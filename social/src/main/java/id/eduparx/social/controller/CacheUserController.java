@@ -29,10 +29,8 @@ public class CacheUserController {
 
     @GetMapping("/users")
     public ResponseEntity<List<UserDto>> getAllUsers() {
-        long startTime = System.currentTimeMillis();
+        // Latency tercatat di http.server.requests dan social.cache.*, tidak perlu timing manual
         List<UserDto> users = cacheUserService.getAllUsers();
-        long duration = System.currentTimeMillis() - startTime;
-        System.out.println("Response Time = " + duration + "ms");
         return ResponseEntity.ok(users);
     }
 
@@ -1,6 +1,10 @@
 package id.eduparx.social.controller;
 
+import id.eduparx.social.dto.BulkModerationResult;
+import id.eduparx.social.dto.CommentDto;
 import id.eduparx.social.dto.CommentRequest;
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.LeaderboardEntry;
 import id.eduparx.social.model.Comment;
 import id.eduparx.social.security.UserPrincipal;
 import id.eduparx.social.service.CommentService;
@@ -21,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller untuk Comment Management
@@ -31,6 +36,8 @@ import java.util.Map;
 @Tag(name = "Comments", description = "API untuk management comments (CRUD, moderation)")
 public class CommentController {
 
+    private static final int MAX_LIKED_LOOKUP = 100;
+
     @Autowired
     private CommentService commentService;
 
@@ -39,9 +46,24 @@ public class CommentController {
      */
     @GetMapping("/post/{postId}")
     @Operation(summary = "Get Comments by Post", description = "Ambil semua comments yang approved untuk post tertentu")
-    public ResponseEntity<List<Comment>> getCommentsByPost(@PathVariable Long postId) {
+    public ResponseEntity<List<CommentDto>> getCommentsByPost(@PathVariable Long postId) {
         List<Comment> comments = commentService.getCommentsByPost(postId);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.stream().map(CommentDto::fromEntity).toList());
+    }
+
+    /**
+     * Get comments by post ID dengan cursor pagination (approved only)
+     */
+    @GetMapping("/post/{postId}/cursor")
+    @Operation(summary = "Get Comments by Post (Cursor)", description = "Ambil comments approved untuk post dengan cursor pagination")
+    public ResponseEntity<CursorPage<CommentDto>> getCommentsByPostCursor(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        int pageSize = Math.max(1, Math.min(size, 100));
+        CursorPage<Comment> comments = commentService.getCommentsByPost(postId, cursor, pageSize);
+        return ResponseEntity.ok(comments.map(CommentDto::fromEntity));
     }
 
     /**
@@ -51,12 +73,12 @@ public class CommentController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Create Comment", description = "Buat comment baru untuk post (perlu authentication)")
-    public ResponseEntity<Comment> createComment(@PathVariable Long postId,
+    public ResponseEntity<CommentDto> createComment(@PathVariable Long postId,
                                                 @Valid @RequestBody CommentRequest request,
                                                 Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Comment comment = commentService.createComment(postId, request, userPrincipal.getId());
-        return ResponseEntity.ok(comment);
+        return ResponseEntity.ok(CommentDto.fromEntity(comment));
     }
 
     /**
@@ -66,12 +88,12 @@ public class CommentController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Update Comment", description = "Update comment (hanya owner)")
-    public ResponseEntity<Comment> updateComment(@PathVariable Long id,
+    public ResponseEntity<CommentDto> updateComment(@PathVariable Long id,
                                                 @Valid @RequestBody CommentRequest request,
                                                 Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Comment comment = commentService.updateComment(id, request, userPrincipal.getId());
-        return ResponseEntity.ok(comment);
+        return ResponseEntity.ok(CommentDto.fromEntity(comment));
     }
 
     /**
@@ -96,14 +118,14 @@ public class CommentController {
      */
     @GetMapping("/author/{authorId}")
     @Operation(summary = "Get Comments by Author", description = "Ambil semua comments dari author tertentu")
-    public ResponseEntity<Page<Comment>> getCommentsByAuthor(
+    public ResponseEntity<Page<CommentDto>> getCommentsByAuthor(
             @PathVariable Long authorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Comment> comments = commentService.getCommentsByAuthor(authorId, pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.map(CommentDto::fromEntity));
     }
 
     /**
@@ -111,14 +133,14 @@ public class CommentController {
      */
     @GetMapping("/search")
     @Operation(summary = "Search Comments", description = "Cari comments berdasarkan keyword di content")
-    public ResponseEntity<Page<Comment>> searchComments(
+    public ResponseEntity<Page<CommentDto>> searchComments(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Comment> comments = commentService.searchComments(keyword, pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.map(CommentDto::fromEntity));
     }
 
     /**
@@ -126,13 +148,13 @@ public class CommentController {
      */
     @GetMapping("/recent")
     @Operation(summary = "Get Recent Comments", description = "Ambil comments terbaru dalam beberapa hari terakhir")
-    public ResponseEntity<List<Comment>> getRecentComments(
+    public ResponseEntity<List<CommentDto>> getRecentComments(
             @RequestParam(defaultValue = "7") int days,
             @RequestParam(defaultValue = "10") int limit) {
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Comment> comments = commentService.getRecentComments(days, pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.stream().map(CommentDto::fromEntity).toList());
     }
 
     /**
@@ -140,12 +162,12 @@ public class CommentController {
      */
     @GetMapping("/popular")
     @Operation(summary = "Get Popular Comments", description = "Ambil comments populer berdasarkan like count")
-    public ResponseEntity<List<Comment>> getPopularComments(
+    public ResponseEntity<List<CommentDto>> getPopularComments(
             @RequestParam(defaultValue = "10") int limit) {
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Comment> comments = commentService.getPopularComments(pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.stream().map(CommentDto::fromEntity).toList());
     }
 
     /**
@@ -154,16 +176,36 @@ public class CommentController {
     @PostMapping("/{id}/like")
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Like Comment", description = "Like atau unlike comment")
-    public ResponseEntity<Map<String, String>> likeComment(@PathVariable Long id,
-                                                          @RequestParam boolean isLike) {
-        commentService.toggleLike(id, isLike);
+    @Operation(summary = "Like Comment", description = "Like atau unlike comment (idempotent, ulangi request tidak mengubah like count)")
+    public ResponseEntity<Map<String, Object>> likeComment(@PathVariable Long id,
+                                                       @RequestParam boolean isLike,
+                                                       Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        boolean changed = commentService.toggleLike(id, userPrincipal.getId(), isLike);
         
-        Map<String, String> response = new HashMap<>();
+        Map<String, Object> response = new HashMap<>();
         response.put("message", isLike ? "Comment liked" : "Comment unliked");
+        response.put("liked", isLike);
+        response.put("changed", changed);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ID comments (dari satu halaman) yang sudah di-like current user
+     */
+    @GetMapping("/liked")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Liked Comments", description = "Cek sekaligus comment mana saja yang sudah di-like current user (maks 100 ID)")
+    public ResponseEntity<Set<Long>> getLikedComments(@RequestParam List<Long> ids,
+                                                    Authentication authentication) {
+        if (ids.size() > MAX_LIKED_LOOKUP) {
+            ids = ids.subList(0, MAX_LIKED_LOOKUP);
+        }
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(commentService.findLikedCommentIds(userPrincipal.getId(), ids));
+    }
+
     /**
      * Get my comments (current user)
      */
@@ -171,7 +213,7 @@ public class CommentController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Get My Comments", description = "Ambil comments milik user yang login")
-    public ResponseEntity<Page<Comment>> getMyComments(
+    public ResponseEntity<Page<CommentDto>> getMyComments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -179,7 +221,7 @@ public class CommentController {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Comment> comments = commentService.getCommentsByAuthor(userPrincipal.getId(), pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.map(CommentDto::fromEntity));
     }
 
     // ==================== ADMIN/MODERATOR ENDPOINTS ====================
@@ -191,9 +233,9 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Get Pending Comments", description = "Ambil comments yang pending moderation (Admin/Moderator)")
-    public ResponseEntity<List<Comment>> getPendingComments() {
+    public ResponseEntity<List<CommentDto>> getPendingComments() {
         List<Comment> comments = commentService.getPendingComments();
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.stream().map(CommentDto::fromEntity).toList());
     }
 
     /**
@@ -203,14 +245,14 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Get Comments by Status", description = "Ambil comments berdasarkan status (Admin/Moderator)")
-    public ResponseEntity<Page<Comment>> getCommentsByStatus(
+    public ResponseEntity<Page<CommentDto>> getCommentsByStatus(
             @PathVariable Comment.CommentStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Comment> comments = commentService.getCommentsByStatus(status, pageable);
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok(comments.map(CommentDto::fromEntity));
     }
 
     /**
@@ -220,11 +262,11 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Approve Comment", description = "Approve comment (Admin/Moderator)")
-    public ResponseEntity<Comment> approveComment(@PathVariable Long id,
+    public ResponseEntity<CommentDto> approveComment(@PathVariable Long id,
                                                  Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Comment comment = commentService.approveComment(id, userPrincipal.getId());
-        return ResponseEntity.ok(comment);
+        return ResponseEntity.ok(CommentDto.fromEntity(comment));
     }
 
     /**
@@ -234,11 +276,11 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Reject Comment", description = "Reject comment (Admin/Moderator)")
-    public ResponseEntity<Comment> rejectComment(@PathVariable Long id,
+    public ResponseEntity<CommentDto> rejectComment(@PathVariable Long id,
                                                 Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Comment comment = commentService.rejectComment(id, userPrincipal.getId());
-        return ResponseEntity.ok(comment);
+        return ResponseEntity.ok(CommentDto.fromEntity(comment));
     }
 
     /**
@@ -248,15 +290,16 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Bulk Approve Comments", description = "Approve multiple comments sekaligus")
-    public ResponseEntity<Map<String, String>> bulkApproveComments(
+    public ResponseEntity<Map<String, Object>> bulkApproveComments(
             @RequestBody List<Long> commentIds,
             Authentication authentication) {
         
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        commentService.bulkApproveComments(commentIds, userPrincipal.getId());
+        BulkModerationResult result = commentService.bulkApproveComments(commentIds, userPrincipal.getId());
         
-        Map<String, String> response = new HashMap<>();
-        response.put("message", commentIds.size() + " comments berhasil di-approve");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", result.requested() + " comments berhasil di-approve");
+        response.put("report", result);
         return ResponseEntity.ok(response);
     }
 
@@ -267,15 +310,16 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Bulk Reject Comments", description = "Reject multiple comments sekaligus")
-    public ResponseEntity<Map<String, String>> bulkRejectComments(
+    public ResponseEntity<Map<String, Object>> bulkRejectComments(
             @RequestBody List<Long> commentIds,
             Authentication authentication) {
         
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        commentService.bulkRejectComments(commentIds, userPrincipal.getId());
+        BulkModerationResult result = commentService.bulkRejectComments(commentIds, userPrincipal.getId());
         
-        Map<String, String> response = new HashMap<>();
-        response.put("message", commentIds.size() + " comments berhasil di-reject");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", result.requested() + " comments berhasil di-reject");
+        response.put("report", result);
         return ResponseEntity.ok(response);
     }
 
@@ -286,11 +330,10 @@ public class CommentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Get Top Commenters", description = "Ambil users dengan comment terbanyak")
-    public ResponseEntity<List<Object[]>> getTopCommenters(
+    public ResponseEntity<List<LeaderboardEntry>> getTopCommenters(
             @RequestParam(defaultValue = "10") int limit) {
         
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Object[]> topCommenters = commentService.getTopCommenters(pageable);
+        List<LeaderboardEntry> topCommenters = commentService.getTopCommenters(limit);
         return ResponseEntity.ok(topCommenters);
     }
 
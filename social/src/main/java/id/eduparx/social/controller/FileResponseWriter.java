@@ -0,0 +1,208 @@
+package id.eduparx.social.controller;
+
+import id.eduparx.social.dto.FileMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Menulis isi file ke response: full (200), satu range atau multi-range (206, multipart/byteranges)
+ * Byte dikirim zero-copy: sendfile Tomcat untuk file besar, FileChannel.transferTo untuk sisanya
+ */
+@Component
+class FileResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final long sendfileMinSize;
+    private final Counter bytesRead;
+
+    FileResponseWriter(@Value("${app.files.sendfile-min-size:48KB}") DataSize sendfileMinSize,
+                       MeterRegistry meterRegistry) {
+        this.sendfileMinSize = sendfileMinSize.toBytes();
+        this.bytesRead = Counter.builder("social.files.storage.bytes")
+                .description("Byte file yang ditulis, di-dedup atau dihapus dari storage")
+                .baseUnit("bytes")
+                .tag("operation", "read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tulis file (header ETag/Last-Modified/Cache-Control sudah di-set oleh caller)
+     */
+    void write(FileMetadata file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(file.fileName(), StandardCharsets.UTF_8).build().toString());
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(file, request)) {
+            writeFull(file, request, response);
+            return;
+        }
+
+        List<long[]> ranges;
+        try {
+            ranges = resolveRanges(HttpRange.parseRanges(rangeHeader), file.size());
+        } catch (IllegalArgumentException ex) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (ranges.isEmpty()) {
+            // Range yang tumpang tindih/lebih besar dari file: abaikan, kirim full
+            writeFull(file, request, response);
+        } else if (ranges.size() == 1) {
+            writeSingleRange(file, ranges.get(0), request, response);
+        } else {
+            writeMultipleRanges(file, ranges, response);
+        }
+    }
+
+    private void writeFull(FileMetadata file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(file.size());
+        send(file, 0, file.size(), request, response);
+    }
+
+    private void writeSingleRange(FileMetadata file, long[] range, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        long length = range[1] - range[0] + 1;
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType(file.contentType());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, file.size()));
+        response.setContentLengthLong(length);
+        send(file, range[0], length, request, response);
+    }
+
+    private void writeMultipleRanges(FileMetadata file, List<long[]> ranges, HttpServletResponse response)
+            throws IOException {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + file.contentType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, file.size()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transfer(channel, range[0], range[1] - range[0] + 1, target);
+            }
+        }
+        out.write(end);
+    }
+
+    /**
+     * Kirim [start, start + length): sendfile jika didukung connector, selain itu transferTo
+     */
+    private void send(FileMetadata file, long start, long length, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        bytesRead.increment(length);
+        if (length >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel channel, long start, long length, WritableByteChannel target)
+            throws IOException {
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    /**
+     * If-Range: range hanya dipakai jika representasi belum berubah (strong ETag atau tanggal sama persis)
+     */
+    private static boolean ifRangeMatches(FileMetadata file, HttpServletRequest request) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !file.etag().startsWith("W/") && file.etag().equals(ifRange);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == file.lastModified() / 1000 * 1000;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Range di luar ukuran file dilewati (RFC 9110: 416 hanya jika tidak ada yang bisa dipenuhi)
+     * @return pasangan [start, end] inklusif; kosong jika total range melebihi ukuran file
+     * @throws IllegalArgumentException jika tidak ada range yang bisa dipenuhi
+     */
+    private static List<long[]> resolveRanges(List<HttpRange> httpRanges, long size) {
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(size);
+            long end = httpRange.getRangeEnd(size);
+            if (start >= size || end < start) {
+                continue;
+            }
+            ranges.add(new long[] {start, end});
+            total += end - start + 1;
+        }
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("Tidak ada range yang bisa dipenuhi");
+        }
+        return total > size ? List.of() : ranges;
+    }
+
+    private static String contentRange(long[] range, long size) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + size;
+    }
+}
@@ -1,23 +1,28 @@
 package id.eduparx.social.controller;
 
+import id.eduparx.social.dto.FileMetadata;
 import id.eduparx.social.dto.FileUploadResponse;
 import id.eduparx.social.dto.UserDto;
 import id.eduparx.social.security.UserPrincipal;
 import id.eduparx.social.service.FileStorageService;
+import id.eduparx.social.service.ImageDerivativeService;
 import id.eduparx.social.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
 
 /**
  * Controller untuk file upload, download, dan delete.
@@ -26,13 +31,23 @@ import java.io.IOException;
 @RequestMapping("/api/files")
 public class FileUploadController {
 
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+    // Redirect ?size= ke derivative: target bisa berubah (derivative baru, file dihapus)
+    private static final Duration SIZED_REDIRECT_MAX_AGE = Duration.ofMinutes(5);
+
     private final FileStorageService fileStorageService;
+    private final FileResponseWriter fileResponseWriter;
+    private final ImageDerivativeService imageDerivativeService;
     @Autowired
     private UserService userService;
 
     // ✅ Constructor injection tanpa Lombok
-    public FileUploadController(FileStorageService fileStorageService, UserService userService) {
+    public FileUploadController(FileStorageService fileStorageService, UserService userService,
+                                FileResponseWriter fileResponseWriter,
+                                ImageDerivativeService imageDerivativeService) {
         this.fileStorageService = fileStorageService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.fileResponseWriter = fileResponseWriter;
         this.userService = userService;
     }
 
@@ -45,7 +60,9 @@ public class FileUploadController {
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        String fileName = fileStorageService.storeFile(file);
+        String fileName = fileStorageService.storeFile(file, currentUser.getId());
+        // Gambar: thumbnail/small/medium dibuat di background
+        imageDerivativeService.submit(fileName);
 
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/api/files/download/")
@@ -72,7 +89,9 @@ public class FileUploadController {
             @RequestParam("file") MultipartFile file,
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        String fileName = fileStorageService.storeFile(file);
+        String fileName = fileStorageService.storeFile(file, currentUser.getId());
+        // Avatar dirender kecil: client cukup minta ?size=64 setelah derivative selesai dibuat
+        imageDerivativeService.submit(fileName);
 
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/api/files/download/")
@@ -87,50 +106,66 @@ public class FileUploadController {
     /**
      * Download file
      * Endpoint: GET /api/files/download/{fileName}
+     * Mendukung conditional GET (ETag/Last-Modified -> 304) dan Range (206)
+     * size (px, opsional): redirect 302 ke URL derivative terkecil yang sisi terpanjangnya >= size
+     * (URL hashed milik derivative, immutable), atau kirim file asli dengan no-cache jika belum ada
+     * derivative yang cocok: URL dengan ?size= tidak selalu berisi byte yang sama
      */
     @GetMapping("/download/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(
+    public void downloadFile(
             @PathVariable String fileName,
-            HttpServletRequest request) {
-
-        // Load file as Resource
-        Resource resource = fileStorageService.loadFileAsResource(fileName);
-
-        if (resource == null) {
-            return ResponseEntity.notFound().build();
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        boolean sized = size != null && size > 0;
+        if (sized) {
+            Optional<String> derivative = imageDerivativeService.findBestFit(fileName, size);
+            if (derivative.isPresent()) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL,
+                        CacheControl.maxAge(SIZED_REDIRECT_MAX_AGE).cachePublic().getHeaderValue());
+                response.sendRedirect(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/files/download/")
+                        .path(derivative.get())
+                        .toUriString());
+                return;
+            }
         }
 
-        // Try to determine file's content type
-        String contentType;
-        try {
-            contentType = request.getServletContext()
-                    .getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            contentType = null;
+        // Metadata (path, ukuran, MIME type, ETag) dari cache index
+        Optional<FileMetadata> metadata = fileStorageService.findFileMetadata(fileName);
+        if (metadata.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
-
-        // Fallback to default content type if type could not be determined
-        if (contentType == null) {
-            contentType = "application/octet-stream";
+        FileMetadata file = metadata.get();
+
+        // Nama content-addressed tidak pernah berubah isinya: boleh di-cache selamanya,
+        // kecuali file asli yang dikirim sebagai pengganti derivative yang belum ada
+        CacheControl cacheControl = file.immutable() && !sized
+                ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+
+        // Set ETag + Last-Modified, dan status 304 jika client sudah punya versi ini
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        fileResponseWriter.write(file, request, response);
     }
 
     /**
      * Delete file
      * Endpoint: DELETE /api/files/{fileName}
+     * Hanya melepas referensi upload milik current user; 404 jika user tidak punya referensi ke file ini
      */
     @DeleteMapping("/{fileName:.+}")
     public ResponseEntity<String> deleteFile(
             @PathVariable String fileName,
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        boolean deleted = fileStorageService.deleteFile(fileName);
+        boolean deleted = fileStorageService.deleteFile(fileName, currentUser.getId());
 
         if (deleted) {
             return ResponseEntity.ok("File deleted successfully: " + fileName);
@@ -1,26 +1,45 @@
 package id.eduparx.social.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.PostDetailDto;
+import id.eduparx.social.dto.PostImportError;
+import id.eduparx.social.dto.PostImportResult;
 import id.eduparx.social.dto.PostRequest;
+import id.eduparx.social.dto.PostSummaryDto;
+import id.eduparx.social.dto.PostWithCommentsDto;
 import id.eduparx.social.model.Post;
+import id.eduparx.social.query.QueryBudget;
 import id.eduparx.social.security.UserPrincipal;
+import id.eduparx.social.service.PostImportService;
 import id.eduparx.social.service.PostService;
+import id.eduparx.social.service.TimelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller untuk Post Management
@@ -31,15 +50,27 @@ import java.util.Map;
 @Tag(name = "Posts", description = "API untuk management posts (CRUD, search, trending)")
 public class PostController {
 
+    private static final int MAX_LIKED_LOOKUP = 100;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Get all published posts dengan pagination
      */
     @GetMapping
     @Operation(summary = "Get Published Posts", description = "Ambil semua posts yang published dengan pagination")
-    public ResponseEntity<Page<Post>> getPublishedPosts(
+    public ResponseEntity<Page<PostSummaryDto>> getPublishedPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "publishedAt") String sortBy,
@@ -49,18 +80,68 @@ public class PostController {
             Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
         
-        Page<Post> posts = postService.getPublishedPosts(pageable);
+        Page<PostSummaryDto> posts = postService.getPublishedPosts(pageable);
+        return ResponseEntity.ok(posts);
+    }
+
+    /**
+     * Get published posts dengan cursor pagination (tanpa total count)
+     */
+    @GetMapping("/feed")
+    @QueryBudget(2)
+    @Operation(summary = "Get Published Feed", description = "Ambil posts published dengan cursor pagination, kirim nextCursor untuk halaman berikutnya")
+    public ResponseEntity<CursorPage<PostSummaryDto>> getPublishedFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        int pageSize = Math.max(1, Math.min(size, 100));
+        CursorPage<PostSummaryDto> posts = postService.getPublishedFeed(cursor, pageSize);
+        return ResponseEntity.ok(posts);
+    }
+
+    /**
+     * Get published posts (cursor) beserta beberapa approved comments terbaru per post
+     */
+    @GetMapping("/feed/with-comments")
+    @QueryBudget(3)
+    @Operation(summary = "Get Published Feed with Comments", description = "Ambil posts published (cursor pagination) beserta top-N comments terbaru per post")
+    public ResponseEntity<CursorPage<PostWithCommentsDto>> getPublishedFeedWithComments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "3") int comments) {
+        
+        int pageSize = Math.max(1, Math.min(size, 100));
+        int commentsPerPost = Math.max(0, Math.min(comments, 20));
+        CursorPage<PostWithCommentsDto> posts =
+            postService.getPublishedPostsWithTopComments(cursor, pageSize, commentsPerPost);
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Home timeline current user: post dari user yang di-follow (cursor pagination)
+     */
+    @GetMapping("/timeline")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Get Home Timeline", description = "Post terbaru dari user yang di-follow, kirim nextCursor untuk halaman berikutnya")
+    public ResponseEntity<CursorPage<PostSummaryDto>> getTimeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        int pageSize = Math.max(1, Math.min(size, 100));
+        return ResponseEntity.ok(timelineService.getTimeline(userPrincipal.getId(), cursor, pageSize));
+    }
+
     /**
      * Get post by ID
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get Post by ID", description = "Ambil post berdasarkan ID (increment view count)")
-    public ResponseEntity<Post> getPostById(@PathVariable Long id) {
+    public ResponseEntity<PostDetailDto> getPostById(@PathVariable Long id) {
         Post post = postService.getPostById(id);
-        return ResponseEntity.ok(post);
+        return ResponseEntity.ok(PostDetailDto.fromEntity(post));
     }
 
     /**
@@ -68,8 +149,8 @@ public class PostController {
      */
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Get Post by Slug", description = "Ambil post berdasarkan slug untuk SEO friendly URLs")
-    public ResponseEntity<Post> getPostBySlug(@PathVariable String slug) {
-        Post post = postService.getPostBySlug(slug);
+    public ResponseEntity<PostDetailDto> getPostBySlug(@PathVariable String slug) {
+        PostDetailDto post = postService.getPostBySlug(slug);
         return ResponseEntity.ok(post);
     }
 
@@ -80,11 +161,71 @@ public class PostController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Create Post", description = "Buat post baru (perlu authentication)")
-    public ResponseEntity<Post> createPost(@Valid @RequestBody PostRequest request, 
+    public ResponseEntity<PostDetailDto> createPost(@Valid @RequestBody PostRequest request, 
                                           Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Post post = postService.createPost(request, userPrincipal.getId());
-        return ResponseEntity.ok(post);
+        return ResponseEntity.ok(PostDetailDto.fromEntity(post));
+    }
+
+    /**
+     * Bulk import posts dari NDJSON (Admin only)
+     * Body dibaca per baris; response NDJSON berisi error per record, progress per chunk dan summary
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Import Posts (NDJSON)", description = "Import banyak post sekaligus, satu PostRequest (+ authorUsername, publishedAt) per baris")
+    public void importPosts(HttpServletRequest request,
+                            HttpServletResponse response,
+                            Authentication authentication) throws IOException {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        NdjsonImportListener listener = new NdjsonImportListener(out);
+        try {
+            PostImportResult result = postImportService.importPosts(request.getInputStream(), userPrincipal.getId(), listener);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("type", "summary");
+            summary.put("report", result);
+            listener.write(summary);
+        } catch (UncheckedIOException ex) {
+            // Client berhenti membaca response
+            throw ex.getCause();
+        }
+        out.flush();
+    }
+
+    /**
+     * Export semua published posts beserta top-N comments sebagai NDJSON (Admin only)
+     * Posts di-stream dari database per chunk, memory konstan berapapun jumlah post
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Export Posts (NDJSON)", description = "Export semua posts published, satu post + top-N comments terbaru per baris")
+    public void exportPosts(@RequestParam(defaultValue = "3") int comments,
+                            HttpServletResponse response) throws IOException {
+        int commentsPerPost = Math.max(0, Math.min(comments, 20));
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        try {
+            postService.forEachPublishedPostWithTopComments(commentsPerPost, EXPORT_CHUNK_SIZE, post -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(post));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            // Client berhenti membaca response
+            throw ex.getCause();
+        }
+        out.flush();
     }
 
     /**
@@ -94,12 +235,12 @@ public class PostController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Update Post", description = "Update post yang sudah ada (hanya owner atau admin)")
-    public ResponseEntity<Post> updatePost(@PathVariable Long id,
+    public ResponseEntity<PostDetailDto> updatePost(@PathVariable Long id,
                                           @Valid @RequestBody PostRequest request,
                                           Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Post post = postService.updatePost(id, request, userPrincipal.getId());
-        return ResponseEntity.ok(post);
+        return ResponseEntity.ok(PostDetailDto.fromEntity(post));
     }
 
     /**
@@ -124,14 +265,14 @@ public class PostController {
      */
     @GetMapping("/search")
     @Operation(summary = "Search Posts", description = "Cari posts berdasarkan keyword di title atau content")
-    public ResponseEntity<Page<Post>> searchPosts(
+    public ResponseEntity<Page<PostSummaryDto>> searchPosts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "publishedAt"));
         Page<Post> posts = postService.searchPosts(keyword, pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.map(PostSummaryDto::fromEntity));
     }
 
     /**
@@ -139,9 +280,9 @@ public class PostController {
      */
     @GetMapping("/featured")
     @Operation(summary = "Get Featured Posts", description = "Ambil posts yang difeatured")
-    public ResponseEntity<List<Post>> getFeaturedPosts() {
+    public ResponseEntity<List<PostSummaryDto>> getFeaturedPosts() {
         List<Post> posts = postService.getFeaturedPosts();
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.stream().map(PostSummaryDto::fromEntity).toList());
     }
 
     /**
@@ -149,12 +290,12 @@ public class PostController {
      */
     @GetMapping("/popular")
     @Operation(summary = "Get Popular Posts", description = "Ambil posts populer berdasarkan view count")
-    public ResponseEntity<List<Post>> getPopularPosts(
+    public ResponseEntity<List<PostSummaryDto>> getPopularPosts(
             @RequestParam(defaultValue = "10") int limit) {
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Post> posts = postService.getPopularPosts(pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.stream().map(PostSummaryDto::fromEntity).toList());
     }
 
     /**
@@ -162,12 +303,12 @@ public class PostController {
      */
     @GetMapping("/trending")
     @Operation(summary = "Get Trending Posts", description = "Ambil posts trending (like + comment count dalam 7 hari terakhir)")
-    public ResponseEntity<List<Post>> getTrendingPosts(
+    public ResponseEntity<List<PostSummaryDto>> getTrendingPosts(
             @RequestParam(defaultValue = "10") int limit) {
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Post> posts = postService.getTrendingPosts(pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.stream().map(PostSummaryDto::fromEntity).toList());
     }
 
     /**
@@ -175,14 +316,14 @@ public class PostController {
      */
     @GetMapping("/author/{authorId}")
     @Operation(summary = "Get Posts by Author", description = "Ambil semua posts dari author tertentu")
-    public ResponseEntity<Page<Post>> getPostsByAuthor(
+    public ResponseEntity<Page<PostSummaryDto>> getPostsByAuthor(
             @PathVariable Long authorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Post> posts = postService.getPostsByAuthor(authorId, pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.map(PostSummaryDto::fromEntity));
     }
 
     /**
@@ -190,14 +331,14 @@ public class PostController {
      */
     @GetMapping("/author/{authorId}/published")
     @Operation(summary = "Get Published Posts by Author", description = "Ambil posts published dari author tertentu")
-    public ResponseEntity<Page<Post>> getPublishedPostsByAuthor(
+    public ResponseEntity<Page<PostSummaryDto>> getPublishedPostsByAuthor(
             @PathVariable Long authorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "publishedAt"));
         Page<Post> posts = postService.getPublishedPostsByAuthor(authorId, pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.map(PostSummaryDto::fromEntity));
     }
 
     /**
@@ -205,13 +346,13 @@ public class PostController {
      */
     @GetMapping("/{id}/related")
     @Operation(summary = "Get Related Posts", description = "Ambil posts terkait dari author yang sama")
-    public ResponseEntity<List<Post>> getRelatedPosts(
+    public ResponseEntity<List<PostSummaryDto>> getRelatedPosts(
             @PathVariable Long id,
             @RequestParam(defaultValue = "5") int limit) {
         
         Pageable pageable = PageRequest.of(0, limit);
         List<Post> posts = postService.getRelatedPosts(id, pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.stream().map(PostSummaryDto::fromEntity).toList());
     }
 
     /**
@@ -220,16 +361,36 @@ public class PostController {
     @PostMapping("/{id}/like")
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Like Post", description = "Like atau unlike post")
-    public ResponseEntity<Map<String, String>> likePost(@PathVariable Long id,
-                                                       @RequestParam boolean isLike) {
-        postService.toggleLike(id, isLike);
+    @Operation(summary = "Like Post", description = "Like atau unlike post (idempotent, ulangi request tidak mengubah like count)")
+    public ResponseEntity<Map<String, Object>> likePost(@PathVariable Long id,
+                                                       @RequestParam boolean isLike,
+                                                       Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        boolean changed = postService.toggleLike(id, userPrincipal.getId(), isLike);
         
-        Map<String, String> response = new HashMap<>();
+        Map<String, Object> response = new HashMap<>();
         response.put("message", isLike ? "Post liked" : "Post unliked");
+        response.put("liked", isLike);
+        response.put("changed", changed);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ID posts (dari satu halaman) yang sudah di-like current user
+     */
+    @GetMapping("/liked")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Liked Posts", description = "Cek sekaligus post mana saja yang sudah di-like current user (maks 100 ID)")
+    public ResponseEntity<Set<Long>> getLikedPosts(@RequestParam List<Long> ids,
+                                                    Authentication authentication) {
+        if (ids.size() > MAX_LIKED_LOOKUP) {
+            ids = ids.subList(0, MAX_LIKED_LOOKUP);
+        }
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(postService.findLikedPostIds(userPrincipal.getId(), ids));
+    }
+
     /**
      * Publish draft post
      */
@@ -237,11 +398,11 @@ public class PostController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Publish Post", description = "Publish draft post")
-    public ResponseEntity<Post> publishPost(@PathVariable Long id,
+    public ResponseEntity<PostDetailDto> publishPost(@PathVariable Long id,
                                            Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Post post = postService.publishPost(id, userPrincipal.getId());
-        return ResponseEntity.ok(post);
+        return ResponseEntity.ok(PostDetailDto.fromEntity(post));
     }
 
     /**
@@ -251,7 +412,7 @@ public class PostController {
     @PreAuthorize("hasRole('USER')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Get Draft Posts", description = "Ambil draft posts milik user yang login")
-    public ResponseEntity<Page<Post>> getDraftPosts(
+    public ResponseEntity<Page<PostSummaryDto>> getDraftPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -259,6 +420,51 @@ public class PostController {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "updatedAt"));
         Page<Post> posts = postService.getDraftPostsByAuthor(userPrincipal.getId(), pageable);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok(posts.map(PostSummaryDto::fromEntity));
+    }
+
+    /**
+     * Tulis event import sebagai NDJSON, di-flush per chunk supaya client melihat progress
+     */
+    private final class NdjsonImportListener implements PostImportService.Listener {
+
+        private final OutputStream out;
+
+        NdjsonImportListener(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onError(PostImportError error) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "error");
+            event.put("line", error.line());
+            event.put("message", error.message());
+            write(event);
+        }
+
+        @Override
+        public void onProgress(long processed, long imported, long failed) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "progress");
+            event.put("processed", processed);
+            event.put("imported", imported);
+            event.put("failed", failed);
+            write(event);
+            try {
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        void write(Map<String, Object> event) {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package id.eduparx.social.controller;
+
+import id.eduparx.social.service.SearchIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * REST Controller untuk administrasi full-text search index
+ */
+@RestController
+@RequestMapping("/api/admin/search")
+@Tag(name = "Search Admin", description = "API untuk rebuild dan monitoring search index (Admin)")
+public class SearchAdminController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    /**
+     * Rebuild search index dari database
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Rebuild Search Index", description = "Bangun ulang search index posts dan comments dari database")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        boolean started = searchIndexService.rebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        if (!started) {
+            response.put("message", "Rebuild search index sedang berjalan");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("message", "Search index berhasil di-rebuild");
+        response.put("stats", searchIndexService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Statistik search index
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Search Index Stats", description = "Ambil statistik search index")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(searchIndexService.getStats());
+    }
+}
@@ -1,10 +1,13 @@
 package id.eduparx.social.controller;
 
+import id.eduparx.social.dto.LeaderboardEntry;
 import id.eduparx.social.dto.UserDto;
 import id.eduparx.social.dto.UserDtoRequest;
 import id.eduparx.social.model.User;
 import id.eduparx.social.repository.UserRepository;
 import id.eduparx.social.security.UserPrincipal;
+import id.eduparx.social.service.FollowService;
+import id.eduparx.social.service.LeaderboardService;
 import id.eduparx.social.service.UserServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -42,6 +45,12 @@ public class UserController {
      @Autowired
     private UserServiceImpl userService;
 
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     @GetMapping
     public ResponseEntity<List<UserDto>> getMethodName() {
         List<UserDto> users = userService.getAll();
@@ -207,19 +216,11 @@ public class UserController {
      */
     @GetMapping("/top-authors")
     @Operation(summary = "Get Top Authors", description = "Ambil users dengan post terbanyak")
-    public ResponseEntity<List<User>> getTopAuthors(
+    public ResponseEntity<List<LeaderboardEntry>> getTopAuthors(
             @RequestParam(defaultValue = "10") int limit) {
         
-        Pageable pageable = PageRequest.of(0, limit);
-        List<User> users = userRepository.findTopUsersByPostCount(pageable);
-        
-        // Hide sensitive data
-        users.forEach(user -> {
-            user.setPassword(null);
-            user.setEmail(null);
-        });
-        
-        return ResponseEntity.ok(users);
+        // Dari leaderboard (published posts), hanya field publik author
+        return ResponseEntity.ok(leaderboardService.getTop(LeaderboardService.Board.AUTHORS, limit));
     }
 
     /**
@@ -272,6 +273,51 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Follow user (idempotent)
+     */
+    @PostMapping("/{id}/follow")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Follow User", description = "Follow user, post-nya muncul di home timeline")
+    public ResponseEntity<Map<String, Object>> followUser(@PathVariable Long id, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Map<String, Object> response = new HashMap<>();
+        if (id.equals(userPrincipal.getId())) {
+            response.put("message", "Tidak bisa follow diri sendiri");
+            return ResponseEntity.badRequest().body(response);
+        }
+        boolean changed = followService.follow(userPrincipal.getId(), id);
+        response.put("message", "User followed");
+        response.put("changed", changed);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Unfollow user (idempotent)
+     */
+    @DeleteMapping("/{id}/follow")
+    @PreAuthorize("hasRole('USER')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Unfollow User", description = "Berhenti follow user")
+    public ResponseEntity<Map<String, Object>> unfollowUser(@PathVariable Long id, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        boolean changed = followService.unfollow(userPrincipal.getId(), id);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "User unfollowed");
+        response.put("changed", changed);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Jumlah followers dan following user
+     */
+    @GetMapping("/{id}/follow-stats")
+    @Operation(summary = "Follow Stats", description = "Jumlah followers dan following user")
+    public ResponseEntity<Map<String, Long>> getFollowStats(@PathVariable Long id) {
+        return ResponseEntity.ok(followService.getFollowStats(id));
+    }
+
     // DTO Classes untuk request bodies
     public static class UserProfileUpdateRequest {
         private String fullName;
@@ -0,0 +1,22 @@
+package id.eduparx.social.dto;
+
+import id.eduparx.social.model.User;
+
+/**
+ * Read model ringkas untuk author post/comment
+ * Hanya field publik, tanpa email/password/relasi
+ */
+public record AuthorSummary(
+        Long id,
+        String username,
+        String fullName,
+        String profileImageUrl) {
+
+    public static AuthorSummary fromEntity(User user) {
+        return new AuthorSummary(
+                user.getId(),
+                user.getUsername(),
+                user.getFullName(),
+                user.getProfileImageUrl());
+    }
+}
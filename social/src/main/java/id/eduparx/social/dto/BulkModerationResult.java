@@ -0,0 +1,20 @@
+package id.eduparx.social.dto;
+
+/**
+ * Laporan hasil bulk moderation comments
+ *
+ * @param requested      jumlah comment ID unik yang diminta
+ * @param updated        jumlah comment yang benar-benar berpindah status
+ * @param affectedPosts  jumlah post yang comment count-nya berubah (dijumlah per chunk)
+ * @param chunks         jumlah chunk (transaction) yang diproses
+ * @param durationMs     total durasi
+ * @param commentsPerSecond throughput berdasarkan jumlah comment yang diminta
+ */
+public record BulkModerationResult(
+        int requested,
+        int updated,
+        int affectedPosts,
+        int chunks,
+        long durationMs,
+        double commentsPerSecond) {
+}
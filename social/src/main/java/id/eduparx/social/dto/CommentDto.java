@@ -0,0 +1,46 @@
+package id.eduparx.social.dto;
+
+import id.eduparx.social.model.Comment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model untuk comment
+ * Post hanya direferensikan lewat postId (tidak men-trigger load Post)
+ */
+public record CommentDto(
+        Long id,
+        String content,
+        Comment.CommentStatus status,
+        Integer likeCount,
+        Boolean isEdited,
+        LocalDateTime editedAt,
+        LocalDateTime createdAt,
+        Long postId,
+        AuthorSummary author) {
+
+    /**
+     * Konstruktor flat untuk JPQL constructor expression
+     */
+    public CommentDto(Long id, String content, Comment.CommentStatus status, Integer likeCount,
+                      Boolean isEdited, LocalDateTime editedAt, LocalDateTime createdAt, Long postId,
+                      Long authorId, String authorUsername, String authorFullName,
+                      String authorProfileImageUrl) {
+        this(id, content, status, likeCount, isEdited, editedAt, createdAt, postId,
+             new AuthorSummary(authorId, authorUsername, authorFullName, authorProfileImageUrl));
+    }
+
+    public static CommentDto fromEntity(Comment comment) {
+        return new CommentDto(
+                comment.getId(),
+                comment.getContent(),
+                comment.getStatus(),
+                comment.getLikeCount(),
+                comment.getIsEdited(),
+                comment.getEditedAt(),
+                comment.getCreatedAt(),
+                // getId() pada proxy Hibernate tidak men-trigger SELECT
+                comment.getPost().getId(),
+                AuthorSummary.fromEntity(comment.getAuthor()));
+    }
+}
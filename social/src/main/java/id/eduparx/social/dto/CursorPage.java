@@ -0,0 +1,77 @@
+package id.eduparx.social.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Generic DTO untuk keyset (cursor) pagination response
+ * Tidak ada totalElements/totalPages, jadi tidak perlu COUNT query
+ */
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    // Konstruktor tanpa argumen
+    public CursorPage() {
+    }
+
+    // Konstruktor dengan semua argumen
+    public CursorPage(List<T> content, int size, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    // Konversi isi halaman (misal entity -> DTO) dengan cursor yang sama
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPage<>(mapped, size, nextCursor, hasNext);
+    }
+
+    // Getter dan Setter
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    // toString()
+    @Override
+    public String toString() {
+        return "CursorPage{" +
+                "content=" + content +
+                ", size=" + size +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasNext=" + hasNext +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package id.eduparx.social.dto;
+
+import java.nio.file.Path;
+
+/**
+ * Metadata file untuk download (di-cache di FileMetadataIndex)
+ *
+ * @param immutable true untuk nama content-addressed: isi file tidak pernah berubah untuk nama yang sama
+ */
+public record FileMetadata(String fileName,
+                           Path path,
+                           long size,
+                           long lastModified,
+                           String contentType,
+                           String etag,
+                           boolean immutable) {
+}
@@ -0,0 +1,10 @@
+package id.eduparx.social.dto;
+
+/**
+ * Satu baris leaderboard: posisi, author dan jumlah (published posts / approved comments)
+ */
+public record LeaderboardEntry(
+        int rank,
+        AuthorSummary user,
+        long count) {
+}
@@ -0,0 +1,15 @@
+package id.eduparx.social.dto;
+
+/**
+ * Counter post yang berubah terus (view, like, comment)
+ * Di-cache terpisah dari detail post dan dibuang setiap kali salah satunya berubah
+ */
+public record PostCounters(
+        Integer viewCount,
+        Integer likeCount,
+        Integer commentCount) {
+
+    public static PostCounters of(PostDetailDto post) {
+        return new PostCounters(post.viewCount(), post.likeCount(), post.commentCount());
+    }
+}
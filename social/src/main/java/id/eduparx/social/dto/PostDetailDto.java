@@ -0,0 +1,54 @@
+package id.eduparx.social.dto;
+
+import id.eduparx.social.model.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model untuk detail satu post (termasuk content)
+ * Comments tidak ikut, diambil terpisah lewat endpoint comments (cursor pagination)
+ */
+public record PostDetailDto(
+        Long id,
+        String title,
+        String slug,
+        String excerpt,
+        String content,
+        String featuredImageUrl,
+        Post.PostStatus status,
+        Integer viewCount,
+        Integer likeCount,
+        Integer commentCount,
+        Boolean isFeatured,
+        LocalDateTime publishedAt,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        AuthorSummary author) {
+
+    /**
+     * Salinan dengan counter terbaru (detail dari cache, counter dibaca live)
+     */
+    public PostDetailDto withCounters(Integer viewCount, Integer likeCount, Integer commentCount) {
+        return new PostDetailDto(id, title, slug, excerpt, content, featuredImageUrl, status,
+                viewCount, likeCount, commentCount, isFeatured, publishedAt, createdAt, updatedAt, author);
+    }
+
+    public static PostDetailDto fromEntity(Post post) {
+        return new PostDetailDto(
+                post.getId(),
+                post.getTitle(),
+                post.getSlug(),
+                post.getExcerpt(),
+                post.getContent(),
+                post.getFeaturedImageUrl(),
+                post.getStatus(),
+                post.getViewCount(),
+                post.getLikeCount(),
+                post.getCommentCount(),
+                post.getIsFeatured(),
+                post.getPublishedAt(),
+                post.getCreatedAt(),
+                post.getUpdatedAt(),
+                AuthorSummary.fromEntity(post.getAuthor()));
+    }
+}
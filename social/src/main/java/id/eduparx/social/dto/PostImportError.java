@@ -0,0 +1,10 @@
+package id.eduparx.social.dto;
+
+/**
+ * Record NDJSON yang gagal di-import
+ *
+ * @param line    nomor baris (mulai dari 1)
+ * @param message alasan gagal
+ */
+public record PostImportError(long line, String message) {
+}
@@ -0,0 +1,30 @@
+package id.eduparx.social.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Satu baris NDJSON bulk import post: field PostRequest ditambah author dan tanggal publish asli
+ * authorUsername kosong = post milik user yang melakukan import
+ */
+public class PostImportRecord extends PostRequest {
+
+    private String authorUsername;
+
+    private LocalDateTime publishedAt;
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public void setAuthorUsername(String authorUsername) {
+        this.authorUsername = authorUsername;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
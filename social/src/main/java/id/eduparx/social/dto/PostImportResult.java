@@ -0,0 +1,24 @@
+package id.eduparx.social.dto;
+
+import java.util.List;
+
+/**
+ * Laporan hasil bulk import posts (NDJSON)
+ *
+ * @param processed      jumlah record (baris tidak kosong) yang dibaca
+ * @param imported       jumlah post yang tersimpan
+ * @param failed         jumlah record yang gagal
+ * @param chunks         jumlah chunk (transaction) yang diproses
+ * @param durationMs     total durasi
+ * @param postsPerSecond throughput berdasarkan jumlah post yang tersimpan
+ * @param errors         error per record (dibatasi app.posts.import.max-reported-errors)
+ */
+public record PostImportResult(
+        long processed,
+        long imported,
+        long failed,
+        int chunks,
+        long durationMs,
+        double postsPerSecond,
+        List<PostImportError> errors) {
+}
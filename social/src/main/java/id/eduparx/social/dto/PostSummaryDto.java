@@ -0,0 +1,56 @@
+package id.eduparx.social.dto;
+
+import id.eduparx.social.model.Post;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model untuk list/feed posts (tanpa content TEXT)
+ * Bisa diisi langsung dari JPQL constructor expression (lihat PostRepository)
+ * atau dari entity yang author-nya sudah di-fetch
+ */
+public record PostSummaryDto(
+        Long id,
+        String title,
+        String slug,
+        String excerpt,
+        String featuredImageUrl,
+        Post.PostStatus status,
+        Integer viewCount,
+        Integer likeCount,
+        Integer commentCount,
+        Boolean isFeatured,
+        LocalDateTime publishedAt,
+        LocalDateTime createdAt,
+        AuthorSummary author) {
+
+    /**
+     * Konstruktor flat untuk JPQL constructor expression
+     */
+    public PostSummaryDto(Long id, String title, String slug, String excerpt, String featuredImageUrl,
+                          Post.PostStatus status, Integer viewCount, Integer likeCount, Integer commentCount,
+                          Boolean isFeatured, LocalDateTime publishedAt, LocalDateTime createdAt,
+                          Long authorId, String authorUsername, String authorFullName,
+                          String authorProfileImageUrl) {
+        this(id, title, slug, excerpt, featuredImageUrl, status, viewCount, likeCount, commentCount,
+             isFeatured, publishedAt, createdAt,
+             new AuthorSummary(authorId, authorUsername, authorFullName, authorProfileImageUrl));
+    }
+
+    public static PostSummaryDto fromEntity(Post post) {
+        return new PostSummaryDto(
+                post.getId(),
+                post.getTitle(),
+                post.getSlug(),
+                post.getExcerpt(),
+                post.getFeaturedImageUrl(),
+                post.getStatus(),
+                post.getViewCount(),
+                post.getLikeCount(),
+                post.getCommentCount(),
+                post.getIsFeatured(),
+                post.getPublishedAt(),
+                post.getCreatedAt(),
+                AuthorSummary.fromEntity(post.getAuthor()));
+    }
+}
@@ -0,0 +1,12 @@
+package id.eduparx.social.dto;
+
+import java.util.List;
+
+/**
+ * Summary post beserta beberapa approved comments terbaru
+ * Pengganti fetch Post + seluruh comments (JOIN FETCH collection)
+ */
+public record PostWithCommentsDto(
+        PostSummaryDto post,
+        List<CommentDto> topComments) {
+}
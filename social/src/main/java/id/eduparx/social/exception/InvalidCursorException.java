@@ -0,0 +1,19 @@
+package id.eduparx.social.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception untuk cursor pagination yang rusak/dimanipulasi client (400, bukan 500)
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Cursor tidak valid")
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -17,12 +17,14 @@ import java.time.LocalDateTime;
     @Index(name = "idx_comment_post", columnList = "post_id"),
     @Index(name = "idx_comment_author", columnList = "author_id"),
     @Index(name = "idx_comment_created_at", columnList = "created_at"),
-    @Index(name = "idx_comment_status", columnList = "status")
+    @Index(name = "idx_comment_status", columnList = "status"),
+    // compound index untuk keyset pagination comments per post
+    @Index(name = "idx_comment_post_status_created", columnList = "post_id, status, created_at, id")
 })
 public class Comment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("comments_seq")
     private Long id;
     
     @NotBlank(message = "Konten komentar tidak boleh kosong")
@@ -0,0 +1,111 @@
+package id.eduparx.social.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity untuk derivative gambar (thumbnail, small, medium) dari file content-addressed
+ * Relasi: satu file sumber (sourceHash) -> banyak derivative; file derivative sendiri
+ * disimpan content-addressed dan punya referensi di stored_files
+ */
+@Entity
+@Table(name = "file_derivatives",
+       uniqueConstraints = @UniqueConstraint(name = "uk_file_derivative_source_variant",
+                                             columnNames = {"source_hash", "variant"}),
+       indexes = @Index(name = "idx_file_derivative_source", columnList = "source_hash"))
+public class FileDerivative {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", length = 64, nullable = false)
+    private String sourceHash;
+
+    @Column(length = 20, nullable = false)
+    private String variant;
+
+    // Nama file publik derivative: {sha256}.{ext}
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private Integer width;
+
+    @Column(nullable = false)
+    private Integer height;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public FileDerivative() {}
+
+    public FileDerivative(String sourceHash, String variant, String fileName, Integer width, Integer height) {
+        this.sourceHash = sourceHash;
+        this.variant = variant;
+        this.fileName = fileName;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public void setVariant(String variant) {
+        this.variant = variant;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,66 @@
+package id.eduparx.social.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Satu referensi ke file content-addressed: satu row per upload (owner = user yang upload)
+ * File yang dibuat server (derivative gambar) tidak punya owner.
+ * Delete hanya melepas referensi milik pemanggil; stored_files.ref_count = jumlah row per hash
+ */
+@Entity
+@Table(name = "file_references", indexes = {
+    @Index(name = "idx_file_reference_name_owner", columnList = "file_name, owner_id")
+})
+public class FileReference {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String hash;
+
+    // Nama file publik {sha256}.{ext} yang diterima uploader
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public FileReference() {}
+
+    public FileReference(String hash, String fileName, Long ownerId) {
+        this.hash = hash;
+        this.fileName = fileName;
+        this.ownerId = ownerId;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
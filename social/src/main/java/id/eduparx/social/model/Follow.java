@@ -0,0 +1,78 @@
+package id.eduparx.social.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Relasi follow antar user: follower (N) -> followee (N)
+ * Primary key (follower_id, followee_id) untuk "siapa yang saya follow",
+ * index (followee_id, follower_id) untuk fan-out post ke semua follower
+ */
+@Entity
+@Table(name = "follows", indexes = {
+    @Index(name = "idx_follow_followee", columnList = "followee_id, follower_id")
+})
+public class Follow {
+
+    @EmbeddedId
+    private Key id;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public Follow() {}
+
+    public Follow(Long followerId, Long followeeId) {
+        this.id = new Key(followerId, followeeId);
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "follower_id", nullable = false)
+        private Long followerId;
+
+        @Column(name = "followee_id", nullable = false)
+        private Long followeeId;
+
+        public Key() {}
+
+        public Key(Long followerId, Long followeeId) {
+            this.followerId = followerId;
+            this.followeeId = followeeId;
+        }
+
+        public Long getFollowerId() {
+            return followerId;
+        }
+
+        public Long getFolloweeId() {
+            return followeeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(followerId, key.followerId) && Objects.equals(followeeId, key.followeeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(followerId, followeeId);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package id.eduparx.social.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Satu like: user -> post/comment. Primary key (target_type, target_id, user_id)
+ * menjamin satu user hanya bisa like satu kali, like_count di posts/comments
+ * hanya diubah saat row ini benar-benar ditambah/dihapus
+ */
+@Entity
+@Table(name = "likes", indexes = {
+    // "liked by me" untuk banyak target sekaligus
+    @Index(name = "idx_likes_user_target", columnList = "user_id, target_type, target_id")
+})
+public class LikeEdge {
+
+    @EmbeddedId
+    private Key id;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public LikeEdge() {}
+
+    public LikeEdge(TargetType targetType, Long targetId, Long userId) {
+        this.id = new Key(targetType, targetId, userId);
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public enum TargetType {
+        POST, COMMENT
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "target_type", length = 10, nullable = false)
+        private TargetType targetType;
+
+        @Column(name = "target_id", nullable = false)
+        private Long targetId;
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        public Key() {}
+
+        public Key(TargetType targetType, Long targetId, Long userId) {
+            this.targetType = targetType;
+            this.targetId = targetId;
+            this.userId = userId;
+        }
+
+        public TargetType getTargetType() {
+            return targetType;
+        }
+
+        public Long getTargetId() {
+            return targetId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return targetType == key.targetType
+                    && Objects.equals(targetId, key.targetId)
+                    && Objects.equals(userId, key.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(targetType, targetId, userId);
+        }
+    }
+}
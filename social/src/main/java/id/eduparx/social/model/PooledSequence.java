@@ -0,0 +1,25 @@
+package id.eduparx.social.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Primary key dari database sequence dengan pooled optimizer:
+ * satu nextval untuk setiap allocation size ID, sehingga insert bisa di-batch JDBC
+ * (IDENTITY memaksa satu round trip per insert untuk membaca ID-nya)
+ * Allocation size diatur lewat property social.id.allocation-size
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /**
+     * Nama sequence di database
+     */
+    String value();
+}
@@ -3,6 +3,7 @@ package id.eduparx.social.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,12 +19,16 @@ import java.util.List;
     @Index(name = "idx_post_author", columnList = "author_id"),
     @Index(name = "idx_post_status", columnList = "status"),
     @Index(name = "idx_post_created_at", columnList = "created_at"),
-    @Index(name = "idx_post_slug", columnList = "slug")
+    @Index(name = "idx_post_slug", columnList = "slug"),
+    // compound index untuk keyset pagination feed (status, published_at, id)
+    @Index(name = "idx_post_status_published", columnList = "status, published_at, id"),
+    // post terbaru per author (rebuild timeline, fan-out on read)
+    @Index(name = "idx_post_author_status_published", columnList = "author_id, status, published_at, id")
 })
 public class Post {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("posts_seq")
     private Long id;
     
     @NotBlank(message = "Judul tidak boleh kosong")
@@ -84,6 +89,7 @@ public class Post {
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, 
                fetch = FetchType.LAZY, orphanRemoval = true)
     @OrderBy("createdAt DESC")
+    @BatchSize(size = 50) // inisialisasi comments untuk banyak post sekaligus (IN query)
     private List<Comment> comments;
     
     // Enum untuk Status Post
@@ -102,11 +108,27 @@ public class Post {
     }
     
     // Helper method untuk generate slug
-    private String generateSlug(String title) {
-        return title.toLowerCase()
-                   .replaceAll("[^a-z0-9\\s]", "")
-                   .replaceAll("\\s+", "-")
-                   .trim();
+    // Satu pass tanpa regex, hasil sama dengan
+    // toLowerCase().replaceAll("[^a-z0-9\\s]", "").replaceAll("\\s+", "-").trim()
+    private static String generateSlug(String title) {
+        String lower = title.toLowerCase();
+        StringBuilder slug = new StringBuilder(lower.length());
+        boolean inWhitespace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                slug.append(c);
+                inWhitespace = false;
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                // deretan whitespace (\s) menjadi satu '-'
+                if (!inWhitespace) {
+                    slug.append('-');
+                    inWhitespace = true;
+                }
+            }
+            // karakter lain dibuang tanpa memutus deretan whitespace
+        }
+        return slug.toString();
     }
     
     // Method untuk update comment count
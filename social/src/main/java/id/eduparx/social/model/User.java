@@ -1,9 +1,11 @@
 package id.eduparx.social.model;
 
+import id.eduparx.social.security.UserPrincipalInvalidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -21,13 +23,17 @@ import java.util.List;
         @Index(name = "idx_user_email", columnList = "email"),
         @Index(name = "idx_user_username", columnList = "username")
 })
+// proxy author yang lazy di-load per batch (IN query), bukan satu SELECT per post/comment
+@BatchSize(size = 50)
+// invalidasi cache UserPrincipal (JWT filter) saat role/status/password berubah
+@EntityListeners(UserPrincipalInvalidationListener.class)
 public class User {
 
     // Membuat primary key dengan nama kolom id,
-    // dengan auto increment,
+    // dari sequence users_seq (pooled, bisa batch insert),
     // auto convert data type ke postgres setara Long
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("users_seq")
     private Long id;
 
     // NotNull kolom username
@@ -0,0 +1,24 @@
+package id.eduparx.social.query;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Batas jumlah statement JDBC untuk satu request ke endpoint ini (handler method atau
+ * semua method di controller). Endpoint tanpa anotasi memakai app.db.query-budget.default-max
+ * Pelanggaran dicatat di metric social.db.query.budget.exceeded, dengan
+ * app.db.query-budget.strict=true (test) request gagal dengan {@link QueryBudgetExceededException}
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+    /**
+     * Maksimum statement per request (satu executeBatch dihitung satu)
+     */
+    int value();
+}
@@ -0,0 +1,30 @@
+package id.eduparx.social.query;
+
+/**
+ * Request mengeksekusi statement lebih banyak dari {@link QueryBudget} (hanya di mode strict)
+ */
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    private final String endpoint;
+    private final int budget;
+    private final int statements;
+
+    public QueryBudgetExceededException(String endpoint, int budget, int statements) {
+        super(String.format("%s mengeksekusi %d statement, budget %d", endpoint, statements, budget));
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.statements = statements;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+}
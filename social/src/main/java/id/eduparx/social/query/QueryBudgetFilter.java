@@ -0,0 +1,140 @@
+package id.eduparx.social.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Menghitung statement JDBC per HTTP request (termasuk lazy loading saat serialisasi JSON)
+ * - social.db.request.statements{endpoint}: distribusi jumlah statement per endpoint
+ * - SQL identik yang berulang >= app.db.n-plus-one.threshold kali: log warning + social.db.repeated.statements
+ * - melewati {@link QueryBudget}: log warning + social.db.query.budget.exceeded, exception di mode strict
+ * Endpoint = method + pattern mapping (bukan URI mentah) supaya tag tetap low-cardinality
+ * Servlet filter biasa (bukan bagian dari Spring Security filter chain) dengan order default terendah, jadi
+ * berjalan setelah filter security: query autentikasi JWT tidak ikut dihitung
+ * Mode strict mem-buffer response supaya budget dicek sebelum response commit (hanya untuk test/dev)
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 300;
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final int repeatThreshold;
+    private final boolean strict;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${app.db.query-budget.default-max:0}") int defaultBudget,
+                             @Value("${app.db.n-plus-one.threshold:5}") int repeatThreshold,
+                             @Value("${app.db.query-budget.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+        this.strict = strict;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Di mode strict body ditahan dulu: exception setelah response commit tidak bisa lagi jadi error response
+        ContentCachingResponseWrapper buffered = strict ? new ContentCachingResponseWrapper(response) : null;
+        QueryStats stats;
+        try (QueryInspector.Scope scope = QueryInspector.track()) {
+            stats = scope.stats();
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        }
+        QueryBudgetExceededException violation = inspect(request, stats);
+        if (buffered == null) {
+            return;
+        }
+        if (violation != null) {
+            if (!response.isCommitted()) {
+                // Body yang sudah ditulis handler dibuang, exception ditangani error handling container
+                throw violation;
+            }
+            // Hanya terjadi lewat sendError (error response sudah dikirim), tidak bisa diubah lagi
+            log.error("{} (response sudah commit)", violation.getMessage());
+        }
+        buffered.copyBodyToResponse();
+    }
+
+    /**
+     * @return violation jika request melewati budget, null jika tidak
+     */
+    private QueryBudgetExceededException inspect(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null && stats.statementCount() == 0) {
+            return null;
+        }
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+
+        DistributionSummary.builder("social.db.request.statements")
+                .description("Jumlah statement JDBC per request")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.statementCount());
+
+        Map<String, Integer> repeated = stats.repeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            counter("social.db.repeated.statements", endpoint).increment();
+            Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+            log.warn("Kemungkinan N+1 di {}: {} SQL berulang, terbanyak {}x: {}", endpoint,
+                    repeated.size(), worst.getValue(), abbreviate(worst.getKey()));
+        }
+
+        int budget = budgetOf(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        if (budget > 0 && stats.statementCount() > budget) {
+            counter("social.db.query.budget.exceeded", endpoint).increment();
+            if (!strict) {
+                log.warn("{} mengeksekusi {} statement, melebihi budget {}", endpoint, stats.statementCount(), budget);
+            }
+            return new QueryBudgetExceededException(endpoint, budget, stats.statementCount());
+        }
+        return null;
+    }
+
+    private int budgetOf(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private Counter counter(String name, String endpoint) {
+        return Counter.builder(name)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    private static String abbreviate(String sql) {
+        String singleLine = sql.replaceAll("\\s+", " ").trim();
+        return singleLine.length() > MAX_LOGGED_SQL_LENGTH
+                ? singleLine.substring(0, MAX_LOGGED_SQL_LENGTH) + "..."
+                : singleLine;
+    }
+}
@@ -0,0 +1,179 @@
+package id.eduparx.social.query;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Listener datasource-proxy: setiap eksekusi statement dicatat ke {@link QueryInspector}
+ * (scope request/test) dan slow query di-log beserta bind parameter (sampled).
+ * Bind untuk kolom sensitif (email, hash password) tidak pernah ditulis ke log
+ */
+@Component
+public class QueryInspectionListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInspectionListener.class);
+    private static final int MAX_PARAMETER_LENGTH = 64;
+    private static final String MASKED = "<masked>";
+    private static final Pattern INSERT_COLUMNS =
+            Pattern.compile("(?is)^\\s*insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\(([^)]*)\\)");
+    private static final Pattern CLAUSE_START = Pattern.compile("(?i)\\b(where|set|having)\\b");
+
+    private final long slowThresholdMillis;
+    private final double logSampleRate;
+    private final Pattern maskedColumns;
+    private final Counter slowQueries;
+
+    public QueryInspectionListener(MeterRegistry meterRegistry,
+                                   @Value("${app.db.slow-query.threshold:500ms}") Duration slowThreshold,
+                                   @Value("${app.db.slow-query.log-sample-rate:0.1}") double logSampleRate,
+                                   @Value("${app.db.slow-query.masked-columns:email,password}") Set<String> maskedColumns) {
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.logSampleRate = logSampleRate;
+        this.maskedColumns = columnPattern(maskedColumns);
+        this.slowQueries = Counter.builder("social.db.slow.queries")
+                .description("Statement yang melewati threshold slow query")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.get(0).getQuery();
+        long elapsed = execInfo.getElapsedTime();
+        QueryInspector.record(sql, elapsed, execInfo.isBatch());
+
+        if (elapsed >= slowThresholdMillis) {
+            slowQueries.increment();
+            if (logSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                log.warn("Slow query {} ms{}: {} params={}", elapsed,
+                        execInfo.isBatch() ? " (batch " + execInfo.getBatchSize() + ")" : "",
+                        sql, describeParameters(queryInfoList.get(0), maskedColumns));
+            }
+        }
+    }
+
+    /**
+     * Bind parameter set pertama (untuk batch: ditambah jumlah set lainnya), value panjang dipotong
+     * dan value untuk kolom yang cocok dengan maskedColumns diganti {@value #MASKED}
+     */
+    static String describeParameters(QueryInfo queryInfo, Pattern maskedColumns) {
+        List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+        if (parameterSets.isEmpty()) {
+            return "[]";
+        }
+        Set<Integer> masked = sensitiveParameterIndexes(queryInfo.getQuery(), maskedColumns);
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        parameterSets.get(0).stream()
+                .filter(operation -> operation.getArgs() != null && operation.getArgs().length > 0)
+                .forEach(operation -> joiner.add(isMasked(operation, masked) ? MASKED : describeValue(operation)));
+        String described = joiner.toString();
+        return parameterSets.size() > 1 ? described + " +" + (parameterSets.size() - 1) + " set" : described;
+    }
+
+    static Pattern columnPattern(Set<String> columns) {
+        String alternatives = columns.stream()
+                .map(String::trim)
+                .filter(column -> !column.isEmpty())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        // Tanpa kolom: pattern yang tidak pernah cocok
+        return Pattern.compile(alternatives.isEmpty() ? "(?!)" : "(?i)\\b(" + alternatives + ")\\b");
+    }
+
+    /**
+     * Posisi (1-based) '?' yang mengisi/dibandingkan dengan kolom sensitif.
+     * INSERT dipetakan lewat daftar kolom; statement lain lewat potongan SQL sejak '?' sebelumnya
+     * (untuk '?' pertama: sejak WHERE/SET/HAVING terakhir). Jika pemetaan ragu, ikut di-mask
+     */
+    static Set<Integer> sensitiveParameterIndexes(String sql, Pattern maskedColumns) {
+        Set<Integer> masked = new HashSet<>();
+        if (sql == null || !maskedColumns.matcher(sql).find()) {
+            return masked;
+        }
+        Matcher insert = INSERT_COLUMNS.matcher(sql);
+        if (insert.find()) {
+            String[] columns = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            boolean positional = columns.length == values.length;
+            int index = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].trim().equals("?")) {
+                    index++;
+                    if (!positional || maskedColumns.matcher(columns[i]).find()) {
+                        masked.add(index);
+                    }
+                }
+            }
+            return masked;
+        }
+
+        int index = 0;
+        int segmentStart = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                index++;
+                String segment = sql.substring(segmentStart, i);
+                if (segmentStart == 0) {
+                    Matcher clause = CLAUSE_START.matcher(segment);
+                    int clauseStart = 0;
+                    while (clause.find()) {
+                        clauseStart = clause.start();
+                    }
+                    segment = segment.substring(clauseStart);
+                }
+                if (maskedColumns.matcher(segment).find()) {
+                    masked.add(index);
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return masked;
+    }
+
+    private static boolean isMasked(ParameterSetOperation operation, Set<Integer> masked) {
+        // args[0] = index parameter JDBC (1-based); named parameter (CallableStatement) selalu di-mask jika ada kolom sensitif
+        Object index = operation.getArgs()[0];
+        return index instanceof Integer position ? masked.contains(position) : !masked.isEmpty();
+    }
+
+    private static String describeValue(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        Object value = args[1];
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+}
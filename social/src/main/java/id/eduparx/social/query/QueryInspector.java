@@ -0,0 +1,65 @@
+package id.eduparx.social.query;
+
+/**
+ * Scope penghitungan statement per thread
+ * Request HTTP dibuka oleh {@link QueryBudgetFilter}; di test bisa dibuka langsung:
+ * <pre>
+ * try (QueryInspector.Scope scope = QueryInspector.track()) {
+ *     postService.getPublishedFeed(null, 20);
+ *     assertThat(scope.stats().statementCount()).isLessThanOrEqualTo(2);
+ * }
+ * </pre>
+ * Scope bisa bersarang, statement ikut tercatat di semua scope yang aktif
+ */
+public final class QueryInspector {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private QueryInspector() {
+    }
+
+    public static Scope track() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return new Scope(stats);
+    }
+
+    /**
+     * Statistik scope aktif di thread ini, null jika tidak ada
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql, long elapsedMillis, boolean batch) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql, elapsedMillis, batch);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final QueryStats stats;
+
+        private Scope(QueryStats stats) {
+            this.stats = stats;
+        }
+
+        public QueryStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != stats) {
+                throw new IllegalStateException("Scope query ditutup tidak berurutan");
+            }
+            if (stats.parent() != null) {
+                CURRENT.set(stats.parent());
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package id.eduparx.social.query;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistik statement JDBC dalam satu scope (satu HTTP request atau satu blok di test)
+ * Dipakai dari satu thread saja, lihat {@link QueryInspector}
+ */
+public class QueryStats {
+
+    private final QueryStats parent;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+    private int batchStatements;
+    private long elapsedMillis;
+
+    QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    QueryStats parent() {
+        return parent;
+    }
+
+    void record(String sql, long elapsed, boolean batch) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.elapsedMillis += elapsed;
+            if (batch) {
+                stats.batchStatements++;
+            } else {
+                // Batch memang mengulang SQL yang sama, bukan indikasi N+1
+                stats.executionsBySql.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Jumlah round trip statement (satu executeBatch dihitung satu)
+     */
+    public int statementCount() {
+        return statements;
+    }
+
+    public int batchStatementCount() {
+        return batchStatements;
+    }
+
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Berapa kali SQL identik dieksekusi dalam scope ini
+     */
+    public int executionsOf(String sql) {
+        return executionsBySql.getOrDefault(sql, 0);
+    }
+
+    /**
+     * SQL yang dieksekusi minimal threshold kali, urut dari yang paling sering
+     */
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
@@ -1,19 +1,25 @@
 package id.eduparx.social.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import id.eduparx.social.dto.CommentDto;
 import id.eduparx.social.model.Comment;
 import id.eduparx.social.model.Post;
 import id.eduparx.social.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository untuk Comment dengan optimasi query dan moderation features
@@ -22,10 +28,51 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    /**
+     * Find comments by IDs beserta author (untuk hasil search)
+     */
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Top-N approved comments terbaru per post untuk sekumpulan post (satu query)
+     * ROW_NUMBER() per post_id memakai index (post_id, status, created_at, id)
+     *
+     * @return comment IDs, entity-nya di-load lewat findDtosByIdIn
+     */
+    @Query(value = "SELECT t.id FROM (" +
+                   "SELECT c.id, c.post_id, ROW_NUMBER() OVER (" +
+                   "PARTITION BY c.post_id ORDER BY c.created_at DESC, c.id DESC) AS rn " +
+                   "FROM comments c " +
+                   "WHERE c.post_id IN (:postIds) AND c.status = 'APPROVED') t " +
+                   "WHERE t.rn <= :perPost",
+           nativeQuery = true)
+    List<Long> findTopApprovedIdsPerPost(@Param("postIds") Collection<Long> postIds,
+                                         @Param("perPost") int perPost);
+
+    /**
+     * Load comments sebagai DTO (author di-join), urut post lalu terbaru dulu
+     */
+    @Query("SELECT new id.eduparx.social.dto.CommentDto(c.id, c.content, c.status, c.likeCount, " +
+           "c.isEdited, c.editedAt, c.createdAt, c.post.id, a.id, a.username, a.fullName, a.profileImageUrl) " +
+           "FROM Comment c JOIN c.author a " +
+           "WHERE c.id IN :ids " +
+           "ORDER BY c.post.id, c.createdAt DESC, c.id DESC")
+    List<CommentDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load comment dengan row lock untuk moderasi, supaya dua moderator
+     * tidak menghitung transisi status yang sama dua kali
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Comment c WHERE c.id = :id")
+    Optional<Comment> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Find comments by post dengan pagination dan sorting
      * Menggunakan index pada post_id untuk optimasi
      */
+    @EntityGraph(attributePaths = "author")
     Page<Comment> findByPost(Post post, Pageable pageable);
 
     /**
@@ -39,17 +86,20 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     /**
      * Find comments by author dengan pagination
      */
+    @EntityGraph(attributePaths = "author")
     Page<Comment> findByAuthor(User author, Pageable pageable);
 
     /**
      * Find comments by author dan status
      */
+    @EntityGraph(attributePaths = "author")
     Page<Comment> findByAuthorAndStatus(User author, Comment.CommentStatus status, Pageable pageable);
 
     /**
      * Find comments by status - untuk moderation
      * Menggunakan index pada status
      */
+    @EntityGraph(attributePaths = "author")
     Page<Comment> findByStatus(Comment.CommentStatus status, Pageable pageable);
 
     /**
@@ -85,7 +135,6 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     @Query("SELECT c FROM Comment c " +
            "JOIN FETCH c.author " +
-           "JOIN FETCH c.post " +
            "WHERE c.status = 'APPROVED' AND c.createdAt >= :since " +
            "ORDER BY c.createdAt DESC")
     List<Comment> findRecentApprovedComments(@Param("since") LocalDateTime since, Pageable pageable);
@@ -101,18 +150,40 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     /**
      * Search comments by content - case insensitive
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT c FROM Comment c WHERE c.status = 'APPROVED' AND " +
            "LOWER(c.content) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Comment> searchApprovedComments(@Param("keyword") String keyword, Pageable pageable);
 
     /**
-     * Find top commenters - users dengan most approved comments
+     * Scan approved comments berurutan berdasarkan id (chunked, untuk rebuild search index)
+     */
+    @Query("SELECT c FROM Comment c WHERE c.status = 'APPROVED' AND c.id > :afterId " +
+           "ORDER BY c.id ASC")
+    List<Comment> findApprovedAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * ID approved comments pada satu post (dikeluarkan dari search index saat post dihapus)
      */
-    @Query("SELECT c.author, COUNT(c) as commentCount FROM Comment c " +
-           "WHERE c.status = 'APPROVED' " +
-           "GROUP BY c.author " +
-           "ORDER BY COUNT(c) DESC")
-    List<Object[]> findTopCommenters(Pageable pageable);
+    @Query("SELECT c.id FROM Comment c WHERE c.post.id = :postId AND c.status = 'APPROVED'")
+    List<Long> findApprovedIdsByPostId(@Param("postId") Long postId);
+
+    /**
+     * Jumlah approved comments per author aktif (rebuild leaderboard commenters)
+     * Hasil: [authorId, jumlah]
+     */
+    @Query("SELECT c.author.id, COUNT(c) FROM Comment c " +
+           "WHERE c.status = 'APPROVED' AND c.author.isActive = true " +
+           "GROUP BY c.author.id")
+    List<Object[]> countApprovedCommentsByAuthor();
+
+    /**
+     * Jumlah approved comments per author pada satu post (sebelum post dihapus)
+     */
+    @Query("SELECT c.author.id, COUNT(c) FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.status = 'APPROVED' " +
+           "GROUP BY c.author.id")
+    List<Object[]> countApprovedCommentsByAuthorOfPost(@Param("postId") Long postId);
 
     /**
      * Find comments by post dengan author details (avoid N+1)
@@ -123,12 +194,75 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
            "ORDER BY c.createdAt ASC")
     List<Comment> findApprovedCommentsWithAuthor(@Param("post") Post post);
 
+    /**
+     * Keyset pagination - halaman pertama approved comments untuk post
+     * Seek pada (created_at, id) ASC dengan author details
+     */
+    @Query("SELECT c FROM Comment c " +
+           "JOIN FETCH c.author " +
+           "WHERE c.post.id = :postId AND c.status = 'APPROVED' " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findApprovedCommentsFirstPage(@Param("postId") Long postId, Pageable pageable);
+
+    /**
+     * Keyset pagination - approved comments setelah posisi (createdAt, id)
+     */
+    @Query("SELECT c FROM Comment c " +
+           "JOIN FETCH c.author " +
+           "WHERE c.post.id = :postId AND c.status = 'APPROVED' AND " +
+           "(c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findApprovedCommentsAfter(@Param("postId") Long postId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
     /**
      * Update like count for comment
      */
     @Modifying
     @Query("UPDATE Comment c SET c.likeCount = c.likeCount + :increment WHERE c.id = :commentId")
-    void updateLikeCount(@Param("commentId") Long commentId, @Param("increment") Integer increment);
+    int updateLikeCount(@Param("commentId") Long commentId, @Param("increment") Integer increment);
+
+    /**
+     * Kurangi like_count semua comment yang di-like user (user dihapus), dipanggil sebelum edge-nya dihapus
+     */
+    @Modifying
+    @Query(value = "UPDATE comments SET like_count = like_count - 1 WHERE id IN " +
+                   "(SELECT target_id FROM likes WHERE target_type = 'COMMENT' AND user_id = :userId)",
+           nativeQuery = true)
+    int decrementLikeCountsLikedBy(@Param("userId") Long userId);
+
+    /**
+     * ID comments yang ikut terhapus cascade bersama user: comment milik user dan comment pada post milik user
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.author.id = :userId OR c.post.author.id = :userId")
+    List<Long> findIdsRemovedWithUser(@Param("userId") Long userId);
+
+    /**
+     * Pindahkan status sekumpulan comments (satu chunk) dalam satu statement
+     * Row di-lock, di-update, dan transisinya langsung di-agregasi per (post, author).
+     * Hasil: [postId, authorId, jumlah comment yang pindah, jumlah yang sebelumnya APPROVED]
+     */
+    @Query(value = "WITH target AS (" +
+                   "SELECT id, post_id, author_id, status FROM comments " +
+                   "WHERE id = ANY(CAST(:commentIds AS bigint[])) AND status <> :status FOR UPDATE), " +
+                   "moved AS (" +
+                   "UPDATE comments c SET status = :status, updated_at = CURRENT_TIMESTAMP " +
+                   "FROM target t WHERE c.id = t.id " +
+                   "RETURNING t.post_id, t.author_id, t.status AS old_status) " +
+                   "SELECT post_id, author_id, COUNT(*), COUNT(*) FILTER (WHERE old_status = 'APPROVED') " +
+                   "FROM moved GROUP BY post_id, author_id",
+           nativeQuery = true)
+    List<Object[]> moveStatusGroupedByPostAndAuthor(@Param("commentIds") Long[] commentIds,
+                                                    @Param("status") String status);
+
+    /**
+     * ID dan content approved comments (untuk search index setelah bulk approve)
+     */
+    @Query("SELECT c.id, c.content FROM Comment c " +
+           "WHERE c.id IN :commentIds AND c.status = 'APPROVED'")
+    List<Object[]> findApprovedContentByIdIn(@Param("commentIds") Collection<Long> commentIds);
 
     /**
      * Bulk approve comments by IDs
@@ -176,6 +310,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     /**
      * Find comments dengan most likes - popular comments
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT c FROM Comment c WHERE c.status = 'APPROVED' " +
            "AND c.likeCount > 0 " +
            "ORDER BY c.likeCount DESC, c.createdAt DESC")
@@ -0,0 +1,33 @@
+package id.eduparx.social.repository;
+
+import id.eduparx.social.model.FileDerivative;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository untuk FileDerivative (index derivative gambar per file sumber)
+ */
+@Repository
+public interface FileDerivativeRepository extends JpaRepository<FileDerivative, Long> {
+
+    List<FileDerivative> findBySourceHash(String sourceHash);
+
+    /**
+     * Catat derivative; 0 jika node lain sudah mencatat variant yang sama
+     */
+    @Modifying
+    @Query(value = "INSERT INTO file_derivatives (source_hash, variant, file_name, width, height, created_at) " +
+                   "VALUES (:sourceHash, :variant, :fileName, :width, :height, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (source_hash, variant) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("sourceHash") String sourceHash,
+                       @Param("variant") String variant,
+                       @Param("fileName") String fileName,
+                       @Param("width") Integer width,
+                       @Param("height") Integer height);
+}
@@ -0,0 +1,29 @@
+package id.eduparx.social.repository;
+
+import id.eduparx.social.model.FileReference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository untuk FileReference (referensi per upload ke file content-addressed)
+ */
+@Repository
+public interface FileReferenceRepository extends JpaRepository<FileReference, Long> {
+
+    /**
+     * Satu referensi milik owner untuk file ini (ownerId null = referensi milik sistem)
+     */
+    Optional<FileReference> findFirstByFileNameAndOwnerIdOrderByIdAsc(String fileName, Long ownerId);
+
+    /**
+     * @return 1 jika referensi dihapus, 0 jika sudah dihapus request lain
+     */
+    @Modifying
+    @Query("DELETE FROM FileReference r WHERE r.id = :id")
+    int deleteReference(@Param("id") Long id);
+}
@@ -0,0 +1,74 @@
+package id.eduparx.social.repository;
+
+import id.eduparx.social.model.Follow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository untuk relasi follow antar user
+ */
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Follow.Key> {
+
+    /**
+     * @return 1 jika relasi baru, 0 jika sudah follow sebelumnya
+     */
+    @Modifying
+    @Query(value = "INSERT INTO follows (follower_id, followee_id, created_at) " +
+                   "VALUES (:followerId, :followeeId, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * @return 1 jika relasi dihapus, 0 jika memang belum follow
+     */
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.id.followerId = :followerId AND f.id.followeeId = :followeeId")
+    int deleteEdge(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * Follower ID setelah afterId (keyset, untuk fan-out per chunk)
+     */
+    @Query("SELECT f.id.followerId FROM Follow f WHERE f.id.followeeId = :followeeId " +
+           "AND f.id.followerId > :afterId ORDER BY f.id.followerId")
+    List<Long> findFollowerIdsAfter(@Param("followeeId") Long followeeId,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Jumlah follower, berhenti menghitung di limit (cukup untuk cek ambang celebrity)
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM follows WHERE followee_id = :followeeId LIMIT :limit) f",
+           nativeQuery = true)
+    long countFollowersUpTo(@Param("followeeId") Long followeeId, @Param("limit") int limit);
+
+    @Query("SELECT f.id.followeeId FROM Follow f WHERE f.id.followerId = :followerId")
+    List<Long> findFolloweeIds(@Param("followerId") Long followerId);
+
+    /**
+     * Subset followeeIds yang di-follow followerId
+     */
+    @Query("SELECT f.id.followeeId FROM Follow f WHERE f.id.followerId = :followerId " +
+           "AND f.id.followeeId IN :followeeIds")
+    List<Long> findFolloweeIdsIn(@Param("followerId") Long followerId,
+                                 @Param("followeeIds") Collection<Long> followeeIds);
+
+    long countByIdFolloweeId(Long followeeId);
+
+    long countByIdFollowerId(Long followerId);
+
+    /**
+     * Hapus semua relasi user (user dihapus)
+     */
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.id.followerId = :userId OR f.id.followeeId = :userId")
+    int deleteAllOfUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,84 @@
+package id.eduparx.social.repository;
+
+import id.eduparx.social.model.LikeEdge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository untuk edge like (user -> post/comment)
+ */
+@Repository
+public interface LikeEdgeRepository extends JpaRepository<LikeEdge, LikeEdge.Key> {
+
+    /**
+     * Tambah like jika belum ada
+     * @return 1 jika row baru, 0 jika user sudah like sebelumnya
+     */
+    @Modifying
+    @Query(value = "INSERT INTO likes (target_type, target_id, user_id, created_at) " +
+                   "VALUES (:targetType, :targetId, :userId, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("targetType") String targetType,
+                       @Param("targetId") Long targetId,
+                       @Param("userId") Long userId);
+
+    /**
+     * @return 1 jika like dihapus, 0 jika user memang belum like
+     */
+    @Modifying
+    @Query("DELETE FROM LikeEdge e WHERE e.id.targetType = :targetType " +
+           "AND e.id.targetId = :targetId AND e.id.userId = :userId")
+    int deleteEdge(@Param("targetType") LikeEdge.TargetType targetType,
+                   @Param("targetId") Long targetId,
+                   @Param("userId") Long userId);
+
+    /**
+     * Semua pasangan [targetId, userId] untuk sekumpulan target (load bitmap liker)
+     */
+    @Query("SELECT e.id.targetId, e.id.userId FROM LikeEdge e " +
+           "WHERE e.id.targetType = :targetType AND e.id.targetId IN :targetIds")
+    List<Object[]> findLikers(@Param("targetType") LikeEdge.TargetType targetType,
+                              @Param("targetIds") Collection<Long> targetIds);
+
+    /**
+     * Target yang di-like user (user dihapus: count dan index target ini harus diperbaiki)
+     */
+    @Query("SELECT e.id.targetId FROM LikeEdge e WHERE e.id.targetType = :targetType AND e.id.userId = :userId")
+    List<Long> findTargetIdsLikedBy(@Param("targetType") LikeEdge.TargetType targetType,
+                                    @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM LikeEdge e WHERE e.id.userId = :userId")
+    int deleteAllOfUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM LikeEdge e WHERE e.id.targetType = :targetType AND e.id.targetId IN :targetIds")
+    int deleteByTargets(@Param("targetType") LikeEdge.TargetType targetType,
+                        @Param("targetIds") Collection<Long> targetIds);
+
+    /**
+     * Like milik comments yang dihapus bersama post-nya (cascade)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE target_type = 'COMMENT' " +
+                   "AND target_id IN (SELECT id FROM comments WHERE post_id = :postId)",
+           nativeQuery = true)
+    int deleteCommentLikesOfPost(@Param("postId") Long postId);
+
+    /**
+     * Like milik rejected comments yang akan di-cleanup
+     */
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE target_type = 'COMMENT' AND target_id IN " +
+                   "(SELECT id FROM comments WHERE status = 'REJECTED' AND updated_at < :beforeDate)",
+           nativeQuery = true)
+    int deleteLikesOfRejectedCommentsBefore(@Param("beforeDate") LocalDateTime beforeDate);
+}
@@ -1,19 +1,27 @@
 package id.eduparx.social.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import id.eduparx.social.dto.PostCounters;
+import id.eduparx.social.dto.PostSummaryDto;
 import id.eduparx.social.model.Post;
 import id.eduparx.social.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository untuk Post dengan optimasi query, JOIN operations, dan advanced filtering
@@ -22,33 +30,118 @@ import java.util.Optional;
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+    /**
+     * Constructor expression untuk PostSummaryDto
+     * Hanya kolom yang ditampilkan di list, content TEXT tidak ikut di-select
+     */
+    String POST_SUMMARY_SELECT = "SELECT new id.eduparx.social.dto.PostSummaryDto(" +
+           "p.id, p.title, p.slug, p.excerpt, p.featuredImageUrl, p.status, " +
+           "p.viewCount, p.likeCount, p.commentCount, p.isFeatured, p.publishedAt, p.createdAt, " +
+           "a.id, a.username, a.fullName, a.profileImageUrl) " +
+           "FROM Post p JOIN p.author a ";
+
     /**
      * Find post by slug - untuk SEO friendly URLs
      * Slug di-index untuk performa optimal
      */
+    @EntityGraph(attributePaths = "author")
     Optional<Post> findBySlug(String slug);
 
+    /**
+     * Counter terbaru satu post (lookup primary key, tanpa content/author)
+     * Di-overlay ke detail post dari PostSlugCache
+     */
+    @Query("SELECT new id.eduparx.social.dto.PostCounters(p.viewCount, p.likeCount, p.commentCount) " +
+           "FROM Post p WHERE p.id = :id")
+    Optional<PostCounters> findCountersById(@Param("id") Long id);
+
+    /**
+     * Slug yang sudah dipakai dari daftar slug (cek duplikat bulk import)
+     */
+    @Query("SELECT p.slug FROM Post p WHERE p.slug IN :slugs")
+    List<String> findExistingSlugs(@Param("slugs") Collection<String> slugs);
+
+    /**
+     * Find post by ID beserta author dalam satu query (untuk detail post)
+     */
+    @EntityGraph(attributePaths = "author")
+    Optional<Post> findDetailById(Long id);
+
+    /**
+     * Find posts by IDs beserta author (untuk hasil search/trending)
+     */
+    @EntityGraph(attributePaths = "author")
+    List<Post> findByIdIn(Collection<Long> ids);
+
     /**
      * Find published posts dengan pagination dan sorting
      * Menggunakan index pada status dan created_at
      */
     Page<Post> findByStatus(Post.PostStatus status, Pageable pageable);
 
+    /**
+     * Published posts sebagai projection PostSummaryDto (1 select + 1 count per halaman)
+     */
+    @Query(value = POST_SUMMARY_SELECT + "WHERE p.status = :status",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.status = :status")
+    Page<PostSummaryDto> findSummariesByStatus(@Param("status") Post.PostStatus status, Pageable pageable);
+
+    /**
+     * Keyset pagination - halaman pertama feed published posts
+     * Seek pada (published_at, id) DESC, tanpa COUNT query
+     */
+    @Query(POST_SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED' " +
+           "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryDto> findPublishedFeedFirstPage(Pageable pageable);
+
+    /**
+     * Keyset pagination - halaman berikutnya setelah posisi (publishedAt, id)
+     * Biaya halaman ke-N sama dengan halaman pertama (index seek, bukan OFFSET)
+     */
+    @Query(POST_SUMMARY_SELECT + "WHERE p.status = 'PUBLISHED' AND " +
+           "(p.publishedAt < :publishedAt OR (p.publishedAt = :publishedAt AND p.id < :id)) " +
+           "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<PostSummaryDto> findPublishedFeedAfter(@Param("publishedAt") LocalDateTime publishedAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    /**
+     * Summary published posts untuk daftar ID (hydrate timeline), urutan tidak dijamin
+     */
+    @Query(POST_SUMMARY_SELECT + "WHERE p.id IN :ids AND p.status = 'PUBLISHED'")
+    List<PostSummaryDto> findPublishedSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * [id, publishedAt] published posts dari sekumpulan author sebelum posisi (publishedAt, id),
+     * terbaru dulu. Untuk rebuild timeline dan fan-out on read (author celebrity)
+     */
+    @Query("SELECT p.id, p.publishedAt FROM Post p WHERE p.author.id IN :authorIds " +
+           "AND p.status = 'PUBLISHED' AND " +
+           "(p.publishedAt < :publishedAt OR (p.publishedAt = :publishedAt AND p.id < :id)) " +
+           "ORDER BY p.publishedAt DESC, p.id DESC")
+    List<Object[]> findPublishedByAuthorsBefore(@Param("authorIds") Collection<Long> authorIds,
+                                                @Param("publishedAt") LocalDateTime publishedAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
     /**
      * Find posts by author dengan pagination
      * Menggunakan index pada author_id
      */
+    @EntityGraph(attributePaths = "author")
     Page<Post> findByAuthor(User author, Pageable pageable);
 
     /**
      * Find posts by author dan status
      */
+    @EntityGraph(attributePaths = "author")
     Page<Post> findByAuthorAndStatus(User author, Post.PostStatus status, Pageable pageable);
 
     /**
      * Find featured posts yang published
      * Optimasi dengan compound index pada isFeatured dan status
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.isFeatured = true AND p.status = :status " +
            "ORDER BY p.publishedAt DESC")
     List<Post> findFeaturedPosts(@Param("status") Post.PostStatus status);
@@ -57,6 +150,7 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * Search posts by title atau content (full text search)
      * Case insensitive search dengan LIKE optimization
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' AND " +
            "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -64,20 +158,28 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     Page<Post> searchPosts(@Param("keyword") String keyword, Pageable pageable);
 
     /**
-     * Find posts dengan JOIN fetch untuk avoid N+1 problem
-     * Menggunakan JOIN FETCH untuk eager loading author dan comments
+     * Scan published posts berurutan berdasarkan id (chunked, untuk rebuild search index)
      */
-    @Query("SELECT DISTINCT p FROM Post p " +
-           "LEFT JOIN FETCH p.author " +
-           "LEFT JOIN FETCH p.comments c " +
+    @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' AND p.id > :afterId " +
+           "ORDER BY p.id ASC")
+    List<Post> findPublishedAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Stream semua published posts sebagai summary DTO (urut publishedAt, id DESC)
+     * DTO tidak masuk persistence context, jadi memory konstan selama stream dibaca.
+     * Harus dikonsumsi di dalam transaction dan ditutup setelah selesai
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(POST_SUMMARY_SELECT +
            "WHERE p.status = 'PUBLISHED' " +
-           "ORDER BY p.publishedAt DESC")
-    List<Post> findPublishedPostsWithAuthorAndComments();
+           "ORDER BY p.publishedAt DESC, p.id DESC")
+    Stream<PostSummaryDto> streamPublishedSummaries();
 
     /**
      * Find popular posts by view count
      * Menggunakan index pada view_count
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' " +
            "ORDER BY p.viewCount DESC, p.publishedAt DESC")
     List<Post> findPopularPosts(Pageable pageable);
@@ -86,11 +188,21 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * Find trending posts (berdasarkan like dan comment dalam periode tertentu)
      * Complex query untuk trending algorithm
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.status = 'PUBLISHED' " +
            "AND p.publishedAt >= :since " +
            "ORDER BY (p.likeCount + p.commentCount) DESC, p.publishedAt DESC")
     List<Post> findTrendingPosts(@Param("since") LocalDateTime since, Pageable pageable);
 
+    /**
+     * Snapshot counter posts yang published sejak waktu tertentu
+     * Hanya kolom yang dibutuhkan (id, publishedAt, likeCount, commentCount, viewCount),
+     * dipakai untuk seed TrendingService tanpa load konten TEXT
+     */
+    @Query("SELECT p.id, p.publishedAt, p.likeCount, p.commentCount, p.viewCount FROM Post p " +
+           "WHERE p.status = 'PUBLISHED' AND p.publishedAt >= :since")
+    List<Object[]> findTrendingSeedSince(@Param("since") LocalDateTime since);
+
     /**
      * Find posts published in date range
      */
@@ -124,15 +236,36 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     @Query("UPDATE Post p SET p.viewCount = p.viewCount + 1 WHERE p.id = :postId")
     void incrementViewCount(@Param("postId") Long postId);
 
+    /**
+     * Tambah view count untuk banyak post sekaligus dengan delta yang sama
+     * Dipakai oleh write-behind flush di ViewCountService
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.viewCount = p.viewCount + :delta WHERE p.id IN :postIds")
+    int incrementViewCountBy(@Param("postIds") List<Long> postIds, @Param("delta") Integer delta);
+
     /**
      * Update like count
      */
     @Modifying
     @Query("UPDATE Post p SET p.likeCount = p.likeCount + :increment WHERE p.id = :postId")
-    void updateLikeCount(@Param("postId") Long postId, @Param("increment") Integer increment);
+    int updateLikeCount(@Param("postId") Long postId, @Param("increment") Integer increment);
+
+    /**
+     * Kurangi like_count semua post yang di-like user (user dihapus), dipanggil sebelum edge-nya dihapus
+     */
+    @Modifying
+    @Query(value = "UPDATE posts SET like_count = like_count - 1 WHERE id IN " +
+                   "(SELECT target_id FROM likes WHERE target_type = 'POST' AND user_id = :userId)",
+           nativeQuery = true)
+    int decrementLikeCountsLikedBy(@Param("userId") Long userId);
+
+    @Query("SELECT p.id FROM Post p WHERE p.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
 
     /**
      * Update comment count berdasarkan actual count dari comments
+     * Recount penuh, hanya untuk perbaikan manual (jalur normal pakai adjustCommentCount)
      */
     @Modifying
     @Query("UPDATE Post p SET p.commentCount = " +
@@ -140,6 +273,67 @@ public interface PostRepository extends JpaRepository<Post, Long> {
            "WHERE p.id = :postId")
     void updateCommentCount(@Param("postId") Long postId);
 
+    /**
+     * Tambah/kurangi comment count dengan delta (transisi status ke/dari APPROVED)
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") Integer delta);
+
+    /**
+     * Terapkan delta comment count ke banyak post dalam satu statement
+     * postIds[i] mendapat deltas[i]
+     */
+    @Modifying
+    @Query(value = "UPDATE posts p SET comment_count = p.comment_count + d.delta " +
+                   "FROM unnest(CAST(:postIds AS bigint[]), CAST(:deltas AS integer[])) AS d(id, delta) " +
+                   "WHERE p.id = d.id",
+           nativeQuery = true)
+    int adjustCommentCounts(@Param("postIds") Long[] postIds, @Param("deltas") Integer[] deltas);
+
+    /**
+     * Jumlah published posts per author aktif (rebuild leaderboard authors)
+     * Hasil: [authorId, jumlah]
+     */
+    @Query("SELECT p.author.id, COUNT(p) FROM Post p " +
+           "WHERE p.status = 'PUBLISHED' AND p.author.isActive = true " +
+           "GROUP BY p.author.id")
+    List<Object[]> countPublishedPostsByAuthor();
+
+    /**
+     * Batas atas id untuk batch reconcile berikutnya (id ke-N setelah :afterId)
+     */
+    @Query(value = "SELECT MAX(t.id) FROM (" +
+                   "SELECT p.id FROM posts p WHERE p.id > :afterId ORDER BY p.id LIMIT :batchSize) t",
+           nativeQuery = true)
+    Long findReconcileBatchUpperId(@Param("afterId") Long afterId, @Param("batchSize") int batchSize);
+
+    /**
+     * Kunci row posts pada (afterId, upToId] berurutan id, dipanggil sebelum reconcileCommentCounts
+     * dalam transaction yang sama
+     */
+    @Query(value = "SELECT p.id FROM posts p WHERE p.id > :afterId AND p.id <= :upToId ORDER BY p.id FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockReconcileBatch(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    /**
+     * Samakan comment_count dengan jumlah approved comments untuk post dengan id pada (afterId, upToId]
+     * Hanya row yang drift yang di-update. Batch harus sudah dikunci (lockReconcileBatch): COUNT memakai
+     * snapshot awal statement, tanpa lock lebih dulu approve/delete yang commit di tengah statement
+     * akan ditimpa dengan count lama
+     *
+     * @return jumlah post yang diperbaiki
+     */
+    @Modifying
+    @Query(value = "UPDATE posts p SET comment_count = s.cnt " +
+                   "FROM (SELECT p2.id, COUNT(c.id) AS cnt FROM posts p2 " +
+                   "LEFT JOIN comments c ON c.post_id = p2.id AND c.status = 'APPROVED' " +
+                   "WHERE p2.id > :afterId AND p2.id <= :upToId " +
+                   "GROUP BY p2.id) s " +
+                   "WHERE p.id = s.id AND p.comment_count <> s.cnt",
+           nativeQuery = true)
+    int reconcileCommentCounts(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
     /**
      * Find posts yang belum ada comment
      */
@@ -159,6 +353,7 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * Find related posts berdasarkan author (exclude current post)
      */
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT p FROM Post p WHERE p.author = :author " +
            "AND p.status = 'PUBLISHED' AND p.id != :excludePostId " +
            "ORDER BY p.publishedAt DESC")
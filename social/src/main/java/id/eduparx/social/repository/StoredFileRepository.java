@@ -0,0 +1,49 @@
+package id.eduparx.social.repository;
+
+import id.eduparx.social.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository untuk StoredFile (index file content-addressed + reference count)
+ */
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Tambah satu referensi (insert jika hash belum ada). Row ter-lock sampai
+     * transaction selesai, jadi tidak bisa balapan dengan releaseReference
+     * @return refCount setelah ditambah
+     */
+    @Query(value = "INSERT INTO stored_files (hash, size_bytes, content_type, ref_count, created_at) " +
+                   "VALUES (:hash, :sizeBytes, :contentType, 1, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (hash) DO UPDATE SET ref_count = stored_files.ref_count + 1 " +
+                   "RETURNING ref_count",
+           nativeQuery = true)
+    Integer addReference(@Param("hash") String hash,
+                         @Param("sizeBytes") Long sizeBytes,
+                         @Param("contentType") String contentType);
+
+    /**
+     * Kurangi satu referensi
+     * @return refCount setelah dikurangi, null jika hash tidak dikenal
+     */
+    @Query(value = "UPDATE stored_files SET ref_count = ref_count - 1 " +
+                   "WHERE hash = :hash AND ref_count > 0 RETURNING ref_count",
+           nativeQuery = true)
+    Integer releaseReference(@Param("hash") String hash);
+
+    /**
+     * Advisory lock per hash sampai transaction selesai: store dan penghapusan file fisik
+     * (setelah commit, saat row stored_files mungkin sudah tidak ada) tidak bisa balapan
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext(:hash))) l", nativeQuery = true)
+    Integer lockHash(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.hash = :hash AND f.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
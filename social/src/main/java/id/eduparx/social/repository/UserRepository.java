@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import id.eduparx.social.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +31,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
         */
        Optional<User> findByUsername(String username);
 
+       /**
+        * Pasangan [username, id] untuk banyak username sekaligus (resolve author bulk import)
+        */
+       @Query("SELECT u.username, u.id FROM User u WHERE u.username IN :usernames")
+       List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
        /**
         * Find user by email only
         */
@@ -69,25 +76,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
                      "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
        List<User> searchByUsernameOrFullName(@Param("keyword") String keyword);
 
-       /**
-        * Find users dengan post count menggunakan JOIN
-        * Optimasi dengan single query untuk menghitung posts
-        */
-       @Query("SELECT u, COUNT(p) FROM User u LEFT JOIN u.posts p " +
-                     "WHERE u.isActive = true " +
-                     "GROUP BY u " +
-                     "ORDER BY COUNT(p) DESC")
-       List<Object[]> findActiveUsersWithPostCount();
-
-       /**
-        * Find top users by post count dengan limit
-        */
-       @Query("SELECT u FROM User u LEFT JOIN u.posts p " +
-                     "WHERE u.isActive = true " +
-                     "GROUP BY u " +
-                     "ORDER BY COUNT(p) DESC")
-       List<User> findTopUsersByPostCount(Pageable pageable);
-
        /**
         * Find users dengan comment count
         */
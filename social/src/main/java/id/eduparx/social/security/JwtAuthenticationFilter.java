@@ -1,5 +1,8 @@
 package id.eduparx.social.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +17,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Authentication Filter untuk validate token pada setiap request
@@ -28,17 +32,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        validTokenTimer = verifyTimer("valid");
+        invalidTokenTimer = verifyTimer("invalid");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
+            // Validate + ambil user ID dengan sekali parse
+            Long userId = StringUtils.hasText(jwt) ? verify(jwt) : null;
 
-                // Load user details dari database
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            if (userId != null) {
+                // Load user details dari cache, database hanya saat cache miss
+                UserDetails userDetails = userPrincipalCache.get(userId,
+                    () -> (UserPrincipal) customUserDetailsService.loadUserById(userId));
                 
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authentication = 
@@ -56,6 +77,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Long verify(String jwt) {
+        long start = System.nanoTime();
+        Long userId = tokenProvider.getUserIdFromValidToken(jwt);
+        (userId != null ? validTokenTimer : invalidTokenTimer)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return userId;
+    }
+
+    private Timer verifyTimer(String result) {
+        return Timer.builder("social.auth.jwt.verify")
+            .description("Durasi parse + verifikasi signature JWT")
+            .tag("result", result)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
     /**
      * Extract JWT token dari Authorization header
      */
@@ -19,6 +19,9 @@ import java.util.Objects;
  */
 public class UserPrincipal implements UserDetails {
     
+    // Authority immutable per role, dipakai bersama (tanpa alokasi per create)
+    private static final List<GrantedAuthority>[] ROLE_AUTHORITIES = roleAuthorities();
+    
     private Long id;
     private String username;
     private String email;
@@ -46,9 +49,7 @@ public class UserPrincipal implements UserDetails {
      * Create UserPrincipal dari User entity
      */
     public static UserPrincipal create(User user) {
-        List<GrantedAuthority> authorities = Collections.singletonList(
-            new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-        );
+        List<GrantedAuthority> authorities = ROLE_AUTHORITIES[user.getRole().ordinal()];
 
         return new UserPrincipal(
             user.getId(),
@@ -61,6 +62,18 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<GrantedAuthority>[] roleAuthorities() {
+        User.Role[] roles = User.Role.values();
+        List<GrantedAuthority>[] authorities = new List[roles.length];
+        for (User.Role role : roles) {
+            authorities[role.ordinal()] = Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_" + role.name())
+            );
+        }
+        return authorities;
+    }
+
     // UserDetails methods
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,147 @@
+package id.eduparx.social.security;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cache UserPrincipal per user ID untuk JWT filter (tanpa SELECT users per request)
+ * {@link BoundedTtlCache} dengan TTL. Perubahan role, status aktif, password, username/email
+ * atau penghapusan user meng-invalidate entry di semua node lewat Redis pub/sub
+ */
+@Component
+public class UserPrincipalCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final BoundedTtlCache<Long, UserPrincipal> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserPrincipalCache(RedisTemplate<String, Object> redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.principal-cache.channel:social:principal-cache:invalidate}") String channel,
+                              @Value("${app.principal-cache.max-size:50000}") int maxSize,
+                              @Value("${app.principal-cache.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = channel;
+        this.entries = new BoundedTtlCache<>(maxSize, ttl);
+
+        Gauge.builder("social.auth.principal-cache.size", this, UserPrincipalCache::size)
+                .description("Jumlah UserPrincipal di cache")
+                .register(meterRegistry);
+        this.hits = Counter.builder("social.auth.principal-cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("social.auth.principal-cache.misses").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Ambil principal dari cache, atau load dari database lewat loader
+     */
+    public UserPrincipal get(Long userId, Supplier<UserPrincipal> loader) {
+        UserPrincipal cached = entries.getIfPresent(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long seen = entries.stamp();
+        UserPrincipal principal = loader.get();
+        // Jangan simpan principal yang di-load sebelum invalidasi
+        entries.putIfUnchanged(userId, principal, seen);
+        return principal;
+    }
+
+    /**
+     * Dipanggil saat entity User di-update; invalidasi hanya jika field
+     * yang mempengaruhi authentication berubah
+     */
+    public void onUserUpdated(User user) {
+        UserPrincipal cached = entries.getIfPresent(user.getId());
+        // Tidak ada di cache lokal: node lain mungkin masih menyimpannya
+        if (cached == null || isAuthChanged(cached, user)) {
+            invalidate(user.getId());
+        }
+    }
+
+    /**
+     * Invalidasi principal di semua node (segera, lalu sekali lagi setelah commit
+     * supaya load yang membaca row lama selama transaction tidak tertinggal di cache)
+     */
+    public void invalidate(Long userId) {
+        evictLocal(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(userId);
+                    publish(userId);
+                }
+            });
+        } else {
+            publish(userId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object userId = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (userId instanceof Number number) {
+            evictLocal(number.longValue());
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isAuthChanged(UserPrincipal cached, User user) {
+        return cached.getRole() != user.getRole()
+                || !Objects.equals(cached.getIsActive(), user.getIsActive())
+                || !Objects.equals(cached.getPassword(), user.getPassword())
+                || !Objects.equals(cached.getUsername(), user.getUsername())
+                || !Objects.equals(cached.getEmail(), user.getEmail());
+    }
+
+    private void publish(Long userId) {
+        try {
+            redisTemplate.convertAndSend(channel, userId);
+        } catch (RuntimeException ex) {
+            // Node lain tetap konsisten paling lambat setelah TTL
+            log.warn("Gagal publish invalidasi principal user {}: {}", userId, ex.getMessage());
+        }
+    }
+
+    private void evictLocal(Long userId) {
+        entries.invalidate(userId);
+    }
+}
@@ -0,0 +1,31 @@
+package id.eduparx.social.security;
+
+import id.eduparx.social.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener pada User: setiap update/delete yang di-flush ke database
+ * (lewat service, controller, maupun AuthService) meng-invalidate UserPrincipalCache
+ * Dibuat oleh Hibernate lewat SpringBeanContainer, cache di-resolve lazy
+ * supaya tidak ada circular dependency dengan EntityManagerFactory
+ */
+public class UserPrincipalInvalidationListener {
+
+    private final ObjectProvider<UserPrincipalCache> principalCache;
+
+    public UserPrincipalInvalidationListener(ObjectProvider<UserPrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        principalCache.ifAvailable(cache -> cache.onUserUpdated(user));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        principalCache.ifAvailable(cache -> cache.invalidate(user.getId()));
+    }
+}
@@ -0,0 +1,80 @@
+package id.eduparx.social.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pembaca baris dengan panjang maksimal (pengganti BufferedReader.readLine untuk input dari client)
+ * Baris yang melebihi maxLength tidak ditampung di memory: sisanya dibuang sampai newline
+ * dan baris ditandai terlalu panjang ({@link #lastLineTooLong()})
+ */
+final class BoundedLineReader {
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final int maxLength;
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean tooLong;
+
+    BoundedLineReader(Reader reader, int bufferSize, int maxLength) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return baris berikutnya tanpa line terminator (\n atau \r\n), "" jika baris terlalu panjang,
+     *         null di akhir stream
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit) {
+                int count = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                limit = Math.max(count, 0);
+                if (count < 0) {
+                    return read ? finish() : null;
+                }
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            int length = position - start;
+            // Satu karakter ekstra untuk \r dari \r\n, dicek ulang di finish()
+            if (!tooLong && line.length() + length > maxLength + 1) {
+                tooLong = true;
+                line.setLength(0);
+            }
+            if (!tooLong) {
+                line.append(buffer, start, length);
+            }
+            if (position < limit) {
+                position++;
+                return finish();
+            }
+        }
+    }
+
+    boolean lastLineTooLong() {
+        return tooLong;
+    }
+
+    private String finish() {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        if (line.length() > maxLength) {
+            tooLong = true;
+            line.setLength(0);
+        }
+        return line.toString();
+    }
+}
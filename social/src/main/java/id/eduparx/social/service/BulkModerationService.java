@@ -0,0 +1,148 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.BulkModerationResult;
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engine bulk moderation comments yang set-based
+ * ID dipecah per chunk; tiap chunk satu transaction berisi:
+ * 1 statement update status + agregasi transisi per (post, author),
+ * 1 statement batched update comment count, dan (approve) 1 query content untuk search index
+ */
+@Service
+public class BulkModerationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkModerationService.class);
+
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final SearchIndexService searchIndexService;
+    private final TrendingService trendingService;
+    private final LeaderboardService leaderboardService;
+    private final PostSlugCache postSlugCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter movedComments;
+
+    @Value("${app.moderation.bulk-chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkModerationService(CommentRepository commentRepository,
+                                 PostRepository postRepository,
+                                 SearchIndexService searchIndexService,
+                                 TrendingService trendingService,
+                                 LeaderboardService leaderboardService,
+                                 PostSlugCache postSlugCache,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.commentRepository = commentRepository;
+        this.postRepository = postRepository;
+        this.searchIndexService = searchIndexService;
+        this.trendingService = trendingService;
+        this.leaderboardService = leaderboardService;
+        this.postSlugCache = postSlugCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.movedComments = Counter.builder("social.comments.moderation.bulk.updated")
+                .description("Jumlah comment yang berpindah status lewat bulk moderation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pindahkan status semua comment ke targetStatus (APPROVED atau REJECTED)
+     * Setiap chunk di-commit sendiri; operasi idempotent sehingga aman diulang jika gagal di tengah
+     */
+    public BulkModerationResult moderate(List<Long> commentIds, Comment.CommentStatus targetStatus) {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(commentIds));
+
+        int updated = 0;
+        int affectedPosts = 0;
+        int chunks = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            int[] chunkResult = transactionTemplate.execute(status -> moderateChunk(chunk, targetStatus));
+            updated += chunkResult[0];
+            affectedPosts += chunkResult[1];
+            chunks++;
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        long durationMs = durationNanos / 1_000_000;
+        double perSecond = durationNanos == 0 ? 0 : ids.size() * 1_000_000_000.0 / durationNanos;
+
+        movedComments.increment(updated);
+        Timer.builder("social.comments.moderation.bulk")
+                .description("Durasi bulk moderation")
+                .tag("status", targetStatus.name())
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        log.info("Bulk {} {} comments ({} berubah, {} posts) dalam {} chunks, {} ms ({} comments/s)",
+                targetStatus, ids.size(), updated, affectedPosts, chunks, durationMs, Math.round(perSecond));
+
+        return new BulkModerationResult(ids.size(), updated, affectedPosts, chunks, durationMs, perSecond);
+    }
+
+    /**
+     * @return [jumlah comment yang pindah status, jumlah post yang terdampak]
+     */
+    private int[] moderateChunk(List<Long> chunk, Comment.CommentStatus targetStatus) {
+        boolean approving = targetStatus == Comment.CommentStatus.APPROVED;
+        List<Object[]> transitions = commentRepository.moveStatusGroupedByPostAndAuthor(
+                chunk.toArray(new Long[0]), targetStatus.name());
+
+        int moved = 0;
+        Map<Long, Integer> deltaByPost = new LinkedHashMap<>();
+        Map<Long, Integer> deltaByAuthor = new HashMap<>();
+        for (Object[] row : transitions) {
+            Long postId = ((Number) row[0]).longValue();
+            Long authorId = ((Number) row[1]).longValue();
+            int movedCount = ((Number) row[2]).intValue();
+            int leftApproved = ((Number) row[3]).intValue();
+            moved += movedCount;
+
+            // Comment count dan leaderboard hanya berubah untuk transisi ke/dari APPROVED
+            int delta = approving ? movedCount : -leftApproved;
+            if (delta != 0) {
+                deltaByPost.merge(postId, delta, Integer::sum);
+                deltaByAuthor.merge(authorId, delta, Integer::sum);
+            }
+        }
+        List<Long> postIds = new ArrayList<>(deltaByPost.keySet());
+        List<Integer> deltas = new ArrayList<>(deltaByPost.values());
+        deltaByPost.forEach(trendingService::recordComment);
+        leaderboardService.recordComments(deltaByAuthor);
+        if (!postIds.isEmpty()) {
+            postRepository.adjustCommentCounts(postIds.toArray(new Long[0]), deltas.toArray(new Integer[0]));
+            postSlugCache.evictCounters(postIds);
+        }
+
+        if (approving) {
+            for (Object[] row : commentRepository.findApprovedContentByIdIn(chunk)) {
+                searchIndexService.indexApprovedComment((Long) row[0], (String) row[1]);
+            }
+        } else {
+            chunk.forEach(searchIndexService::removeComment);
+        }
+        return new int[] {moved, postIds.size()};
+    }
+}
@@ -21,7 +21,8 @@ public class CacheUserService {
     }
 
     // Mengambil semua data user, dilakukan caching
-    @Cacheable(value = "users", key = "'allUsers'")
+    // sync = true: saat cache miss hanya satu loader yang query database (lihat TwoLevelCache)
+    @Cacheable(value = "users", key = "'allUsers'", sync = true)
     public List<UserDto> getAllUsers() {
         System.out.println(">> Mengambil user dari database");
         return userRepository.findAll().stream()
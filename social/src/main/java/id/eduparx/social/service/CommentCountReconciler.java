@@ -0,0 +1,92 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconciler background untuk posts.comment_count
+ * Comment count di-maintain dengan delta pada transisi status APPROVED;
+ * reconciler ini memperbaiki drift (race, bulk update manual) per batch id,
+ * masing-masing dalam transaction pendek
+ */
+@Service
+public class CommentCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter fixedPosts;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.comment-count.reconcile-batch-size:1000}")
+    private int batchSize;
+
+    public CommentCountReconciler(PostRepository postRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fixedPosts = Counter.builder("social.comments.count.reconciled")
+                .description("Jumlah post yang comment count-nya diperbaiki reconciler")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.comment-count.reconcile-interval-ms:3600000}",
+               fixedDelayString = "${app.comment-count.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Scan semua posts per batch dan perbaiki comment count yang drift
+     *
+     * @return jumlah post yang diperbaiki, -1 jika reconcile lain sedang berjalan
+     */
+    public int reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long start = System.currentTimeMillis();
+        int fixed = 0;
+        try {
+            long afterId = 0L;
+            while (true) {
+                Long upToId = postRepository.findReconcileBatchUpperId(afterId, batchSize);
+                if (upToId == null) {
+                    break;
+                }
+                long from = afterId;
+                Integer updated = transactionTemplate.execute(status -> {
+                    // Tunggu transaksi approve/delete yang memegang row post selesai, baru hitung
+                    // di statement terpisah (READ COMMITTED: snapshot baru setelah lock didapat)
+                    postRepository.lockReconcileBatch(from, upToId);
+                    return postRepository.reconcileCommentCounts(from, upToId);
+                });
+                fixed += updated != null ? updated : 0;
+                afterId = upToId;
+            }
+            fixedPosts.increment(fixed);
+            if (fixed > 0) {
+                log.warn("Comment count drift diperbaiki pada {} posts ({} ms)",
+                        fixed, System.currentTimeMillis() - start);
+            }
+            return fixed;
+        } catch (RuntimeException ex) {
+            log.error("Gagal reconcile comment count", ex);
+            throw ex;
+        } finally {
+            running.set(false);
+        }
+    }
+}
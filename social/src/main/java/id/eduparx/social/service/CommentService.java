@@ -1,21 +1,31 @@
 package id.eduparx.social.service;
 
+import id.eduparx.social.dto.BulkModerationResult;
 import id.eduparx.social.dto.CommentRequest;
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.LeaderboardEntry;
 import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.LikeEdge;
 import id.eduparx.social.model.Post;
 import id.eduparx.social.model.User;
 import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.LikeEdgeRepository;
 import id.eduparx.social.repository.PostRepository;
 import id.eduparx.social.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service untuk Comment management dengan moderation features
@@ -33,6 +43,27 @@ public class CommentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LikeEdgeRepository likeEdgeRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private BulkModerationService bulkModerationService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private PostSlugCache postSlugCache;
+
     /**
      * Create new comment
      */
@@ -49,12 +80,8 @@ public class CommentService {
         comment.setPost(post);
         comment.setStatus(Comment.CommentStatus.PENDING); // Default pending moderation
 
-        Comment savedComment = commentRepository.save(comment);
-
-        // Update post comment count
-        postRepository.updateCommentCount(postId);
-
-        return savedComment;
+        // Comment baru PENDING, comment count (hanya APPROVED) tidak berubah
+        return commentRepository.save(comment);
     }
 
     /**
@@ -70,7 +97,9 @@ public class CommentService {
         comment.setContent(request.getContent());
         comment.markAsEdited(); // This sets isEdited = true and editedAt = now
 
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        searchIndexService.indexComment(savedComment);
+        return savedComment;
     }
 
     /**
@@ -83,6 +112,35 @@ public class CommentService {
         return commentRepository.findApprovedCommentsWithAuthor(post);
     }
 
+    /**
+     * Get approved comments by post dengan keyset (cursor) pagination
+     * Seek pada (createdAt, id), biaya setiap halaman konstan
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Comment> getCommentsByPost(Long postId, String cursor, int size) {
+        if (!postRepository.existsById(postId)) {
+            throw new RuntimeException("Post tidak ditemukan");
+        }
+
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+
+        // Ambil satu row ekstra untuk mengetahui apakah masih ada halaman berikutnya
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Comment> rows = (position == null)
+            ? commentRepository.findApprovedCommentsFirstPage(postId, limit)
+            : commentRepository.findApprovedCommentsAfter(postId, position.timestamp(), position.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<Comment> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Comment last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(content, size, nextCursor, hasNext);
+    }
+
     /**
      * Get all comments by post dengan pagination (for moderation)
      */
@@ -121,16 +179,22 @@ public class CommentService {
      * Approve comment (Admin/Moderator only)
      */
     public Comment approveComment(Long commentId, Long userId) {
-        Comment comment = commentRepository.findById(commentId)
+        Comment comment = commentRepository.findByIdForUpdate(commentId)
             .orElseThrow(() -> new RuntimeException("Comment tidak ditemukan"));
 
         validateModerationAccess(userId);
 
+        boolean wasApproved = comment.getStatus() == Comment.CommentStatus.APPROVED;
         comment.approve();
         Comment savedComment = commentRepository.save(comment);
-
-        // Update post comment count
-        postRepository.updateCommentCount(comment.getPost().getId());
+        searchIndexService.indexComment(savedComment);
+        if (!wasApproved) {
+            // Update post comment count (transisi ke APPROVED)
+            postRepository.adjustCommentCount(comment.getPost().getId(), 1);
+            postSlugCache.evictCounters(List.of(comment.getPost().getId()));
+            trendingService.recordComment(comment.getPost().getId(), 1);
+            leaderboardService.recordComments(comment.getAuthor().getId(), 1);
+        }
 
         return savedComment;
     }
@@ -139,16 +203,22 @@ public class CommentService {
      * Reject comment (Admin/Moderator only)
      */
     public Comment rejectComment(Long commentId, Long userId) {
-        Comment comment = commentRepository.findById(commentId)
+        Comment comment = commentRepository.findByIdForUpdate(commentId)
             .orElseThrow(() -> new RuntimeException("Comment tidak ditemukan"));
 
         validateModerationAccess(userId);
 
+        boolean wasApproved = comment.getStatus() == Comment.CommentStatus.APPROVED;
         comment.reject();
         Comment savedComment = commentRepository.save(comment);
-
-        // Update post comment count
-        postRepository.updateCommentCount(comment.getPost().getId());
+        searchIndexService.removeComment(commentId);
+        if (wasApproved) {
+            // Update post comment count (transisi keluar dari APPROVED)
+            postRepository.adjustCommentCount(comment.getPost().getId(), -1);
+            postSlugCache.evictCounters(List.of(comment.getPost().getId()));
+            trendingService.recordComment(comment.getPost().getId(), -1);
+            leaderboardService.recordComments(comment.getAuthor().getId(), -1);
+        }
 
         return savedComment;
     }
@@ -157,7 +227,7 @@ public class CommentService {
      * Delete comment
      */
     public void deleteComment(Long commentId, Long userId) {
-        Comment comment = commentRepository.findById(commentId)
+        Comment comment = commentRepository.findByIdForUpdate(commentId)
             .orElseThrow(() -> new RuntimeException("Comment tidak ditemukan"));
 
         User user = userRepository.findById(userId)
@@ -172,26 +242,45 @@ public class CommentService {
         }
 
         Long postId = comment.getPost().getId();
+        boolean wasApproved = comment.getStatus() == Comment.CommentStatus.APPROVED;
+        likeService.onTargetsDeleted(LikeEdge.TargetType.COMMENT, List.of(commentId));
         commentRepository.delete(comment);
-
-        // Update post comment count
-        postRepository.updateCommentCount(postId);
+        searchIndexService.removeComment(commentId);
+        if (wasApproved) {
+            // Update post comment count (comment approved dihapus)
+            postRepository.adjustCommentCount(postId, -1);
+            postSlugCache.evictCounters(List.of(postId));
+            trendingService.recordComment(postId, -1);
+            leaderboardService.recordComments(comment.getAuthor().getId(), -1);
+        }
     }
 
     /**
-     * Like/Unlike comment
+     * Like/Unlike comment (idempotent per user)
+     * @return true jika status like berubah
      */
     @Transactional
-    public void toggleLike(Long commentId, boolean isLike) {
-        int increment = isLike ? 1 : -1;
-        commentRepository.updateLikeCount(commentId, increment);
+    public boolean toggleLike(Long commentId, Long userId, boolean isLike) {
+        return likeService.setLiked(LikeEdge.TargetType.COMMENT, commentId, userId, isLike);
+    }
+
+    /**
+     * Comment (dari satu halaman) yang sudah di-like user
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findLikedCommentIds(Long userId, Collection<Long> commentIds) {
+        return likeService.findLikedBy(LikeEdge.TargetType.COMMENT, userId, commentIds);
     }
 
     /**
      * Search comments
      */
     public Page<Comment> searchComments(String keyword, Pageable pageable) {
-        return commentRepository.searchApprovedComments(keyword, pageable);
+        Optional<List<Long>> hits = searchIndexService.searchComments(keyword);
+        if (hits.isEmpty()) {
+            return commentRepository.searchApprovedComments(keyword, pageable);
+        }
+        return searchIndexService.toPage(hits.get(), pageable, commentRepository::findByIdIn, Comment::getId);
     }
 
     /**
@@ -211,41 +300,28 @@ public class CommentService {
 
     /**
      * Bulk approve comments (Admin/Moderator only)
+     * Diproses per chunk oleh BulkModerationService, masing-masing dengan transaction sendiri
      */
-    @Transactional
-    public void bulkApproveComments(List<Long> commentIds, Long userId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkModerationResult bulkApproveComments(List<Long> commentIds, Long userId) {
         validateModerationAccess(userId);
-        commentRepository.bulkApproveComments(commentIds);
-
-        // Update comment counts for affected posts
-        List<Comment> comments = commentRepository.findAllById(commentIds);
-        comments.stream()
-                .map(comment -> comment.getPost().getId())
-                .distinct()
-                .forEach(postRepository::updateCommentCount);
+        return bulkModerationService.moderate(commentIds, Comment.CommentStatus.APPROVED);
     }
 
     /**
      * Bulk reject comments (Admin/Moderator only)
      */
-    @Transactional
-    public void bulkRejectComments(List<Long> commentIds, Long userId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkModerationResult bulkRejectComments(List<Long> commentIds, Long userId) {
         validateModerationAccess(userId);
-        commentRepository.bulkRejectComments(commentIds);
-
-        // Update comment counts for affected posts
-        List<Comment> comments = commentRepository.findAllById(commentIds);
-        comments.stream()
-                .map(comment -> comment.getPost().getId())
-                .distinct()
-                .forEach(postRepository::updateCommentCount);
+        return bulkModerationService.moderate(commentIds, Comment.CommentStatus.REJECTED);
     }
 
     /**
-     * Get top commenters
+     * Get top commenters (dari leaderboard, tanpa GROUP BY per request)
      */
-    public List<Object[]> getTopCommenters(Pageable pageable) {
-        return commentRepository.findTopCommenters(pageable);
+    public List<LeaderboardEntry> getTopCommenters(int limit) {
+        return leaderboardService.getTop(LeaderboardService.Board.COMMENTERS, limit);
     }
 
     /**
@@ -290,6 +366,8 @@ public class CommentService {
     @Transactional
     public int cleanupOldRejectedComments(int days) {
         LocalDateTime beforeDate = LocalDateTime.now().minusDays(days);
+        // Comment yang dihapus tidak pernah dibaca lagi, entry LikeIndex-nya keluar lewat LRU/TTL
+        likeEdgeRepository.deleteLikesOfRejectedCommentsBefore(beforeDate);
         return commentRepository.deleteOldRejectedComments(beforeDate);
     }
 }
\ No newline at end of file
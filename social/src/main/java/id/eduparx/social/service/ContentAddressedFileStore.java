@@ -0,0 +1,168 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.exception.FileStorageException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Penyimpanan file content-addressed: file disimpan dengan nama SHA-256 isinya
+ * di pohon direktori fan-out ({root}/ab/cd/abcd...), jadi upload identik hanya
+ * punya satu file fisik. Upload ditulis sekali ke staging sambil di-hash,
+ * lalu dipindah ke lokasi akhir dengan rename (tanpa copy kedua)
+ */
+@Component
+public class ContentAddressedFileStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedFileStore.class);
+
+    // Nama file publik: {sha256}.{ext}
+    private static final Pattern HASHED_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+    private static final long TRANSFER_CHUNK = 1 << 20;
+
+    private final Path root;
+    private final Path staging;
+
+    public ContentAddressedFileStore(@Value("${file.upload-dir}") String uploadDir) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.staging = root.resolve(".staging");
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(staging);
+            // Sisa staging dari proses yang mati di tengah upload
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(staging)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create upload directory", ex);
+        }
+    }
+
+    /**
+     * Tulis stream ke staging (satu kali tulis, lewat FileChannel) sambil menghitung SHA-256
+     */
+    public StagedFile stage(InputStream input) {
+        Path target = staging.resolve(UUID.randomUUID() + ".part");
+        MessageDigest digest = sha256();
+        try (DigestInputStream hashing = new DigestInputStream(input, digest);
+             ReadableByteChannel source = Channels.newChannel(hashing);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+            return new StagedFile(target, HexFormat.of().formatHex(digest.digest()), position);
+        } catch (IOException ex) {
+            deleteQuietly(target);
+            throw new FileStorageException("Could not stage upload", ex);
+        }
+    }
+
+    /**
+     * Pindahkan file staging ke lokasi hash-nya; jika isi yang sama sudah ada,
+     * file staging dibuang (dedup)
+     * @return true jika file fisik baru ditulis
+     */
+    public boolean commit(StagedFile staged) {
+        Path target = pathOf(staged.hash());
+        try {
+            if (Files.exists(target)) {
+                Files.delete(staged.path());
+                return false;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(staged.path(), target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException ex) {
+            deleteQuietly(staged.path());
+            return false;
+        } catch (IOException ex) {
+            deleteQuietly(staged.path());
+            throw new FileStorageException("Could not store file " + staged.hash(), ex);
+        }
+    }
+
+    public void discard(StagedFile staged) {
+        deleteQuietly(staged.path());
+    }
+
+    public boolean delete(String hash) {
+        try {
+            return Files.deleteIfExists(pathOf(hash));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete file " + hash, ex);
+        }
+    }
+
+    /**
+     * Lokasi file untuk hash: {root}/{2 char}/{2 char}/{hash}
+     */
+    public Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Lokasi file lama (sebelum content-addressed) di direktori flat
+     */
+    public Path legacyPathOf(String fileName) {
+        return root.resolve(fileName).normalize();
+    }
+
+    /**
+     * @return hash dari nama file publik {sha256}.{ext}, atau null untuk nama file lama
+     */
+    public static String hashOf(String fileName) {
+        Matcher matcher = HASHED_NAME.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Gagal menghapus file staging {}: {}", path, ex.getMessage());
+        }
+    }
+
+    /**
+     * File upload yang sudah ditulis ke staging dan di-hash
+     */
+    public record StagedFile(Path path, String hash, long size) {
+    }
+}
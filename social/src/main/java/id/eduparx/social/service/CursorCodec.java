@@ -0,0 +1,58 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encode/decode continuation token untuk keyset pagination
+ * Token berisi posisi terakhir (timestamp, id) dalam bentuk Base64 URL-safe,
+ * client cukup mengirim balik token apa adanya
+ */
+final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Posisi seek: timestamp dan id dari row terakhir di halaman sebelumnya
+     */
+    record Position(LocalDateTime timestamp, Long id) {
+    }
+
+    static String encode(LocalDateTime timestamp, Long id) {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode cursor, null/blank berarti halaman pertama
+     * @throws InvalidCursorException (400) jika cursor tidak bisa di-decode
+     */
+    static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Cursor tidak valid");
+            }
+            LocalDateTime timestamp = LocalDateTime.parse(raw.substring(0, separator));
+            Long id = Long.parseLong(raw.substring(separator + 1));
+            return new Position(timestamp, id);
+        } catch (InvalidCursorException ex) {
+            throw ex;
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            // IllegalArgumentException: Base64 rusak atau id bukan angka (NumberFormatException)
+            throw new InvalidCursorException("Cursor tidak valid", ex);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.dto.FileMetadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache metadata file (path, ukuran, lastModified, MIME type, ETag) per nama file publik
+ * supaya download tidak perlu stat file, query stored_files dan deteksi MIME di setiap request
+ */
+@Component
+public class FileMetadataIndex {
+
+    private final BoundedTtlCache<String, FileMetadata> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public FileMetadataIndex(MeterRegistry meterRegistry,
+                             @Value("${app.file-metadata.max-size:10000}") int maxSize,
+                             @Value("${app.file-metadata.ttl:10m}") Duration ttl) {
+        this.entries = new BoundedTtlCache<>(maxSize, ttl);
+
+        Gauge.builder("social.files.metadata-cache.size", this, FileMetadataIndex::size)
+                .register(meterRegistry);
+        this.hits = Counter.builder("social.files.metadata-cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("social.files.metadata-cache.misses").register(meterRegistry);
+    }
+
+    /**
+     * Ambil metadata dari cache, atau load lewat loader (file yang tidak ada tidak di-cache)
+     */
+    public Optional<FileMetadata> get(String fileName, Function<String, Optional<FileMetadata>> loader) {
+        FileMetadata cached = entries.getIfPresent(fileName);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+
+        long seen = entries.stamp();
+        Optional<FileMetadata> metadata = loader.apply(fileName);
+        metadata.ifPresent(found -> entries.putIfUnchanged(fileName, found, seen));
+        return metadata;
+    }
+
+    public void evict(String fileName) {
+        entries.invalidate(fileName);
+    }
+
+    /**
+     * Buang semua nama file untuk satu hash ({hash}.jpg, {hash}.png, ...)
+     */
+    public void evictHash(String hash) {
+        entries.invalidateIf(fileName -> fileName.startsWith(hash));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
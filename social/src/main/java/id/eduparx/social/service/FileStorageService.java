@@ -3,31 +3,66 @@ package id.eduparx.social.service;
 import id.eduparx.social.exception.FileStorageException;
 import id.eduparx.social.exception.InvalidFileException;
 import id.eduparx.social.exception.ResourceNotFoundException;
-import jakarta.annotation.PostConstruct;
+import id.eduparx.social.dto.FileMetadata;
+import id.eduparx.social.model.FileDerivative;
+import id.eduparx.social.model.FileReference;
+import id.eduparx.social.model.StoredFile;
+import id.eduparx.social.repository.FileDerivativeRepository;
+import id.eduparx.social.repository.FileReferenceRepository;
+import id.eduparx.social.repository.StoredFileRepository;
+import id.eduparx.social.service.ContentAddressedFileStore.StagedFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service untuk mengelola file storage
+ * File disimpan content-addressed (lihat ContentAddressedFileStore): nama file publik
+ * {sha256}.{ext}, upload identik berbagi satu file fisik dengan reference count di stored_files.
+ * Setiap upload dicatat sebagai FileReference milik uploader; delete hanya melepas referensi pemanggil
  */
 @Service
 public class FileStorageService {
     
-    private final Path fileStorageLocation;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+    
+    private final ContentAddressedFileStore fileStore;
+    private final StoredFileRepository storedFileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate cleanupTransactionTemplate;
+    private final FileMetadataIndex metadataIndex;
+    private final FileDerivativeRepository fileDerivativeRepository;
+    private final FileReferenceRepository fileReferenceRepository;
+    private final Counter bytesWritten;
+    private final Counter bytesDeduplicated;
+    private final Counter bytesDeleted;
+    private final Timer storeTimer;
     
     @Value("${file.allowed-extensions}")
     private String allowedExtensions;
@@ -35,23 +70,36 @@ public class FileStorageService {
     @Value("${file.max-size}")
     private long maxFileSize;
     
-    public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-    }
-    
-    @PostConstruct
-    public void init() {
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not create upload directory", ex);
-        }
+    public FileStorageService(ContentAddressedFileStore fileStore,
+                              StoredFileRepository storedFileRepository,
+                              PlatformTransactionManager transactionManager,
+                              FileMetadataIndex metadataIndex,
+                              FileDerivativeRepository fileDerivativeRepository,
+                              FileReferenceRepository fileReferenceRepository,
+                              MeterRegistry meterRegistry) {
+        this.fileStore = fileStore;
+        this.fileDerivativeRepository = fileDerivativeRepository;
+        this.fileReferenceRepository = fileReferenceRepository;
+        this.metadataIndex = metadataIndex;
+        this.storedFileRepository = storedFileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Cleanup berjalan di afterCommit, transaction lama masih ter-bind ke thread
+        this.cleanupTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.cleanupTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bytesWritten = bytesCounter(meterRegistry, "write");
+        this.bytesDeduplicated = bytesCounter(meterRegistry, "dedup");
+        this.bytesDeleted = bytesCounter(meterRegistry, "delete");
+        this.storeTimer = Timer.builder("social.files.storage.store")
+                .description("Durasi menyimpan file (hash + tulis staging + commit)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
     
     /**
-     * Menyimpan file dengan validasi tipe dan ukuran
+     * Menyimpan file dengan validasi tipe dan ukuran, referensinya milik ownerId
+     * @return nama file publik {sha256}.{ext}
      */
-    public String storeFile(MultipartFile file) {
+    public String storeFile(MultipartFile file, Long ownerId) {
         // Validasi file tidak kosong
         if (file.isEmpty()) {
             throw new InvalidFileException("File tidak boleh kosong");
@@ -75,56 +123,207 @@ public class FileStorageService {
                     extension, allowedExtensions)
             );
         }
+        extension = extension.toLowerCase(Locale.ROOT);
         
-        // Generate unique filename
-        String fileName = generateUniqueFileName(originalFileName);
+        try (InputStream input = file.getInputStream()) {
+            return storeContent(input, extension, ownerId);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + originalFileName, ex);
+        }
+    }
+    
+    /**
+     * Menyimpan file yang dibuat server (misal derivative gambar), tanpa validasi upload
+     * Referensinya milik sistem (tanpa owner), dilepas lewat deleteGeneratedFile
+     * @return nama file publik {sha256}.{ext}
+     */
+    public String storeGeneratedFile(InputStream content, String extension) {
+        return storeContent(content, extension.toLowerCase(Locale.ROOT), null);
+    }
+    
+    private String storeContent(InputStream content, String extension, Long ownerId) {
+        long start = System.nanoTime();
+        // Tulis ke staging sambil hashing (di luar transaction, I/O bisa lama)
+        StagedFile staged = fileStore.stage(content);
         
+        String fileName = staged.hash() + "." + extension;
+        String contentType = MediaTypeFactory.getMediaType("file." + extension)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
         try {
-            // Check for invalid characters
-            if (fileName.contains("..")) {
-                throw new FileStorageException("Filename contains invalid path sequence " + fileName);
-            }
-            
-            // Copy file to target location
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            return fileName;
-        } catch (IOException ex) {
-            throw new FileStorageException("Could not store file " + fileName, ex);
+            // Hash ter-lock selama commit file, jadi tidak balapan dengan penghapusan file fisik
+            transactionTemplate.executeWithoutResult(status -> {
+                storedFileRepository.lockHash(staged.hash());
+                storedFileRepository.addReference(staged.hash(), staged.size(), contentType);
+                fileReferenceRepository.save(new FileReference(staged.hash(), fileName, ownerId));
+                if (fileStore.commit(staged)) {
+                    bytesWritten.increment(staged.size());
+                } else {
+                    bytesDeduplicated.increment(staged.size());
+                }
+            });
+        } finally {
+            fileStore.discard(staged);
+            storeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+        
+        return fileName;
     }
     
     /**
      * Load file as Resource
      */
     public Resource loadFileAsResource(String fileName) {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("File not found: " + fileName);
+        Path filePath = resolvePath(fileName);
+        if (filePath == null || !Files.isRegularFile(filePath)) {
+            throw new ResourceNotFoundException("File not found: " + fileName);
+        }
+        return new FileSystemResource(filePath);
+    }
+    
+    /**
+     * Metadata file untuk download (dari cache, load saat miss)
+     */
+    public Optional<FileMetadata> findFileMetadata(String fileName) {
+        return metadataIndex.get(fileName, this::loadFileMetadata);
+    }
+    
+    /**
+     * Delete file milik ownerId: lepas satu referensi upload milik owner tersebut,
+     * file fisik (dan derivative-nya) dihapus saat tidak ada referensi lagi.
+     * File lama (nama non content-addressed) tidak punya data owner, jadi tidak bisa dihapus lewat sini
+     *
+     * @return false jika owner tidak (lagi) punya referensi ke file ini
+     */
+    public boolean deleteFile(String fileName, Long ownerId) {
+        Objects.requireNonNull(ownerId, "ownerId");
+        return releaseReference(fileName, ownerId);
+    }
+    
+    /**
+     * Lepas referensi milik sistem (file dari storeGeneratedFile)
+     */
+    public boolean deleteGeneratedFile(String fileName) {
+        return releaseReference(fileName, null);
+    }
+    
+    private boolean releaseReference(String fileName, Long ownerId) {
+        String hash = ContentAddressedFileStore.hashOf(fileName);
+        if (hash == null) {
+            return false;
+        }
+        Boolean released = transactionTemplate.execute(status -> {
+            // Hapus row referensi dulu: DELETE berulang untuk referensi yang sama hanya berhasil sekali
+            Optional<FileReference> reference =
+                    fileReferenceRepository.findFirstByFileNameAndOwnerIdOrderByIdAsc(fileName, ownerId);
+            if (reference.isEmpty() || fileReferenceRepository.deleteReference(reference.get().getId()) == 0) {
+                return false;
             }
-        } catch (MalformedURLException ex) {
-            throw new ResourceNotFoundException("File not found: " + fileName, ex);
+            Integer remaining = storedFileRepository.releaseReference(hash);
+            if (remaining != null && remaining == 0) {
+                storedFileRepository.deleteIfUnreferenced(hash);
+                // File fisik baru dihapus setelah commit: rollback tidak meninggalkan row tanpa file
+                TransactionHooks.afterCommit(() -> deleteIfUnreferenced(hash));
+                // Derivative (thumbnail dll.) ikut dilepas bersama file sumbernya
+                for (FileDerivative derivative : fileDerivativeRepository.findBySourceHash(hash)) {
+                    fileDerivativeRepository.delete(derivative);
+                    releaseReference(derivative.getFileName(), null);
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(released);
+    }
+    
+    /**
+     * Hapus file fisik jika hash tidak direferensikan lagi; dicek ulang di bawah lock hash
+     * karena upload dengan konten sama bisa masuk setelah transaction delete commit
+     */
+    private void deleteIfUnreferenced(String hash) {
+        try {
+            cleanupTransactionTemplate.executeWithoutResult(status -> {
+                storedFileRepository.lockHash(hash);
+                if (storedFileRepository.existsById(hash)) {
+                    return;
+                }
+                long size = sizeOf(fileStore.pathOf(hash));
+                if (fileStore.delete(hash)) {
+                    bytesDeleted.increment(size);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // Row sudah terhapus, file yatim hanya memakan disk (tidak bisa diakses lewat referensi)
+            log.warn("Gagal hapus file {} setelah referensi terakhir dilepas: {}", hash, ex.getMessage());
+        }
+        metadataIndex.evictHash(hash);
+    }
+    
+    private Optional<FileMetadata> loadFileMetadata(String fileName) {
+        Path path = resolvePath(fileName);
+        if (path == null) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read file " + fileName, ex);
+        }
+        if (!attributes.isRegularFile()) {
+            return Optional.empty();
+        }
+        
+        String hash = ContentAddressedFileStore.hashOf(fileName);
+        String contentType = hash != null
+                ? storedFileRepository.findById(hash).map(StoredFile::getContentType).orElse(null)
+                : null;
+        if (contentType == null) {
+            contentType = MediaTypeFactory.getMediaType(fileName)
+                    .map(MediaType::toString)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
         }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // Nama content-addressed: hash isi = strong ETag; file lama: weak ETag dari ukuran + waktu ubah
+        String etag = hash != null
+                ? "\"" + hash + "\""
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        return Optional.of(new FileMetadata(fileName, path, size, lastModified, contentType, etag, hash != null));
     }
     
     /**
-     * Delete file
+     * Path fisik untuk nama file publik (content-addressed atau nama lama di direktori flat)
      */
-    public boolean deleteFile(String fileName) {
+    private Path resolvePath(String fileName) {
+        String hash = ContentAddressedFileStore.hashOf(fileName);
+        if (hash != null) {
+            return fileStore.pathOf(hash);
+        }
+        // Check for invalid characters
+        if (fileName.contains("..") || fileName.contains("/") || fileName.contains("\\")) {
+            return null;
+        }
+        return fileStore.legacyPathOf(fileName);
+    }
+    
+    private static long sizeOf(Path path) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            return Files.deleteIfExists(filePath);
+            return Files.size(path);
         } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file " + fileName, ex);
+            return 0;
         }
     }
     
+    private static Counter bytesCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("social.files.storage.bytes")
+                .description("Byte file yang ditulis, di-dedup atau dihapus dari storage")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+    
     /**
      * Validasi extension file
      */
@@ -136,14 +335,4 @@ public class FileStorageService {
         return Arrays.stream(allowedExts)
                 .anyMatch(ext -> ext.trim().equalsIgnoreCase(extension));
     }
-    
-    /**
-     * Generate unique filename dengan UUID
-     */
-    private String generateUniqueFileName(String originalFileName) {
-        String extension = FilenameUtils.getExtension(originalFileName);
-        String baseName = FilenameUtils.getBaseName(originalFileName);
-        String uniqueId = UUID.randomUUID().toString();
-        return String.format("%s_%s.%s", baseName, uniqueId, extension);
-    }
 }
@@ -0,0 +1,67 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.exception.ResourceNotFoundException;
+import id.eduparx.social.repository.FollowRepository;
+import id.eduparx.social.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Follow/unfollow antar user (idempotent), timeline follower ikut disesuaikan setelah commit
+ */
+@Service
+public class FollowService {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final TimelineService timelineService;
+
+    public FollowService(FollowRepository followRepository,
+                         UserRepository userRepository,
+                         TimelineService timelineService) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.timelineService = timelineService;
+    }
+
+    /**
+     * @return true jika relasi baru dibuat, false jika sudah follow
+     */
+    @Transactional
+    public boolean follow(Long followerId, Long followeeId) {
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("Tidak bisa follow diri sendiri");
+        }
+        if (!userRepository.existsById(followeeId)) {
+            throw new ResourceNotFoundException("User tidak ditemukan: " + followeeId);
+        }
+        boolean created = followRepository.insertIfAbsent(followerId, followeeId) == 1;
+        if (created) {
+            timelineService.onFollow(followerId, followeeId);
+        }
+        return created;
+    }
+
+    /**
+     * @return true jika relasi dihapus, false jika memang belum follow
+     */
+    @Transactional
+    public boolean unfollow(Long followerId, Long followeeId) {
+        boolean removed = followRepository.deleteEdge(followerId, followeeId) == 1;
+        if (removed) {
+            timelineService.onUnfollow(followerId, followeeId);
+        }
+        return removed;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> getFollowStats(Long userId) {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("followers", followRepository.countByIdFolloweeId(userId));
+        stats.put("following", followRepository.countByIdFollowerId(userId));
+        return stats;
+    }
+}
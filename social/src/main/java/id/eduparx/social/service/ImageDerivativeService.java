@@ -0,0 +1,351 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.model.FileDerivative;
+import id.eduparx.social.repository.FileDerivativeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pipeline derivative gambar (thumbnail, small, medium) di background setelah upload
+ * Worker pool terbatas dengan antrian terbatas: saat antrian penuh, pengirim menunggu
+ * sebentar (back-pressure) lalu ditolak; download tetap memakai file asli sampai derivative ada
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif");
+
+    private final FileStorageService fileStorageService;
+    private final ContentAddressedFileStore fileStore;
+    private final FileDerivativeRepository fileDerivativeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Variant diurutkan dari yang terbesar: variant kecil di-resize dari hasil variant sebelumnya
+    private final List<Variant> variants;
+    private final long maxSourcePixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    // Cache index derivative per hash sumber (hanya yang sudah punya derivative)
+    private final BoundedTtlCache<String, List<DerivativeInfo>> index;
+    private final long emptyIndexTtlMillis;
+
+    private final Counter generated;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Timer duration;
+
+    public ImageDerivativeService(FileStorageService fileStorageService,
+                                  ContentAddressedFileStore fileStore,
+                                  FileDerivativeRepository fileDerivativeRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.thumbnails.variants:thumbnail:64,small:160,medium:480}") String variants,
+                                  @Value("${app.thumbnails.workers:2}") int workers,
+                                  @Value("${app.thumbnails.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.thumbnails.submit-timeout:200ms}") Duration submitTimeout,
+                                  @Value("${app.thumbnails.max-source-pixels:50000000}") long maxSourcePixels,
+                                  @Value("${app.thumbnails.index-max-size:10000}") int indexMaxSize,
+                                  @Value("${app.thumbnails.index-ttl:10m}") Duration indexTtl,
+                                  @Value("${app.thumbnails.index-empty-ttl:30s}") Duration emptyIndexTtl) {
+        this.fileStorageService = fileStorageService;
+        this.fileStore = fileStore;
+        this.fileDerivativeRepository = fileDerivativeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.variants = parseVariants(variants);
+        this.maxSourcePixels = maxSourcePixels;
+        this.executor = createExecutor(workers, queueCapacity, submitTimeout);
+        this.index = new BoundedTtlCache<>(indexMaxSize, indexTtl);
+        this.emptyIndexTtlMillis = emptyIndexTtl.toMillis();
+
+        Gauge.builder("social.files.derivatives.queue.depth", executor, e -> e.getQueue().size())
+                .description("Jumlah file yang menunggu dibuatkan derivative")
+                .register(meterRegistry);
+        Gauge.builder("social.files.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.generated = resultCounter(meterRegistry, "generated");
+        this.skipped = resultCounter(meterRegistry, "skipped");
+        this.failed = resultCounter(meterRegistry, "failed");
+        this.rejected = resultCounter(meterRegistry, "rejected");
+        this.duration = Timer.builder("social.files.derivatives.duration")
+                .description("Waktu membuat semua derivative satu file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Antrikan pembuatan derivative untuk file gambar yang baru di-upload
+     * @return false jika bukan gambar atau antrian penuh (file asli tetap dipakai)
+     */
+    public boolean submit(String fileName) {
+        String hash = ContentAddressedFileStore.hashOf(fileName);
+        String extension = FilenameUtils.getExtension(fileName).toLowerCase(Locale.ROOT);
+        if (hash == null || !IMAGE_EXTENSIONS.contains(extension)) {
+            return false;
+        }
+        if (!queued.add(hash)) {
+            // Isi yang sama sudah ada di antrian
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    duration.record(() -> generate(hash, extension));
+                } finally {
+                    queued.remove(hash);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            queued.remove(hash);
+            rejected.increment();
+            log.warn("Antrian derivative penuh, {} tidak dibuatkan derivative", fileName);
+            return false;
+        }
+    }
+
+    /**
+     * Derivative terkecil yang sisi terpanjangnya >= size; kosong jika file asli yang paling cocok
+     */
+    public Optional<String> findBestFit(String fileName, int size) {
+        String hash = ContentAddressedFileStore.hashOf(fileName);
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return derivativesOf(hash).stream()
+                .filter(derivative -> derivative.longestSide() >= size)
+                .min(Comparator.comparingInt(DerivativeInfo::longestSide))
+                .map(DerivativeInfo::fileName);
+    }
+
+    private List<DerivativeInfo> derivativesOf(String hash) {
+        List<DerivativeInfo> cached = index.getIfPresent(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        long seen = index.stamp();
+        List<DerivativeInfo> derivatives = fileDerivativeRepository.findBySourceHash(hash).stream()
+                .map(d -> new DerivativeInfo(d.getVariant(), d.getFileName(), Math.max(d.getWidth(), d.getHeight())))
+                .toList();
+        // Hash tanpa derivative (gambar kecil, bukan gambar, gagal decode) juga di-cache, dengan TTL pendek;
+        // derivative yang selesai dibuat membuang entry ini lewat evictIndex
+        if (derivatives.isEmpty()) {
+            index.putIfUnchanged(hash, derivatives, seen, emptyIndexTtlMillis);
+        } else {
+            index.putIfUnchanged(hash, derivatives, seen);
+        }
+        return derivatives;
+    }
+
+    private void generate(String hash, String extension) {
+        try {
+            Set<String> existing = fileDerivativeRepository.findBySourceHash(hash).stream()
+                    .map(FileDerivative::getVariant)
+                    .collect(Collectors.toSet());
+            if (variants.stream().allMatch(variant -> existing.contains(variant.name()))) {
+                skipped.increment();
+                return;
+            }
+
+            Decoded decoded = decode(fileStore.pathOf(hash));
+            if (decoded == null) {
+                skipped.increment();
+                return;
+            }
+
+            boolean alpha = !"jpg".equals(extension) && !"jpeg".equals(extension);
+            String outputFormat = alpha ? "png" : "jpg";
+            BufferedImage current = decoded.image();
+            int longest = Math.max(decoded.width(), decoded.height());
+            for (Variant variant : variants) {
+                // Gambar asli sudah lebih kecil dari variant ini: file asli yang dipakai
+                if (longest <= variant.maxSide()) {
+                    continue;
+                }
+                double scale = (double) variant.maxSide() / longest;
+                int width = Math.max(1, (int) Math.round(decoded.width() * scale));
+                int height = Math.max(1, (int) Math.round(decoded.height() * scale));
+                current = resize(current, width, height, alpha);
+                if (!existing.contains(variant.name())) {
+                    store(hash, variant, current, outputFormat);
+                }
+            }
+            generated.increment();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            log.warn("Gagal membuat derivative untuk {}: {}", hash, ex.getMessage());
+        } finally {
+            // Termasuk saat gagal di tengah: variant yang sudah tersimpan langsung terlihat
+            evictIndex(hash);
+        }
+    }
+
+    private void store(String hash, Variant variant, BufferedImage image, String outputFormat) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        if (!ImageIO.write(image, "jpg".equals(outputFormat) ? "jpeg" : outputFormat, bytes)) {
+            throw new IOException("Tidak ada writer untuk format " + outputFormat);
+        }
+        String fileName = fileStorageService.storeGeneratedFile(new ByteArrayInputStream(bytes.toByteArray()), outputFormat);
+        Integer inserted = transactionTemplate.execute(status -> fileDerivativeRepository.insertIfAbsent(
+                hash, variant.name(), fileName, image.getWidth(), image.getHeight()));
+        if (inserted == null || inserted == 0) {
+            // Node lain sudah mencatat variant ini: lepas referensi file yang barusan disimpan
+            fileStorageService.deleteGeneratedFile(fileName);
+        }
+    }
+
+    /**
+     * Decode dengan subsampling: gambar besar dibaca langsung di resolusi ~2x variant terbesar,
+     * jadi upload 10MB tidak perlu di-decode penuh ke memory
+     */
+    private Decoded decode(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    log.warn("Gambar {}x{} melebihi batas {} pixel, derivative tidak dibuat", width, height, maxSourcePixels);
+                    return null;
+                }
+                int largestVariant = variants.get(0).maxSide();
+                int factor = Math.max(1, Math.max(width, height) / (largestVariant * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return new Decoded(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Resize bertahap (maksimal setengah per langkah) supaya hasil bilinear tetap halus
+     */
+    static BufferedImage resize(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private void evictIndex(String hash) {
+        index.invalidate(hash);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadPoolExecutor createExecutor(int workers, int queueCapacity, Duration submitTimeout) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    // Back-pressure: tunggu slot antrian sebentar sebelum menolak
+                    try {
+                        if (!pool.isShutdown() && pool.getQueue().offer(task, submitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new RejectedExecutionException("Antrian derivative penuh");
+                });
+    }
+
+    private static List<Variant> parseVariants(String spec) {
+        List<Variant> parsed = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] nameAndSize = part.trim().split(":");
+            parsed.add(new Variant(nameAndSize[0].trim(), Integer.parseInt(nameAndSize[1].trim())));
+        }
+        parsed.sort(Comparator.comparingInt(Variant::maxSide).reversed());
+        return List.copyOf(parsed);
+    }
+
+    private Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("social.files.derivatives")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Variant(String name, int maxSide) {
+    }
+
+    private record Decoded(BufferedImage image, int width, int height) {
+    }
+
+    private record DerivativeInfo(String variant, String fileName, int longestSide) {
+    }
+}
@@ -0,0 +1,171 @@
+package id.eduparx.social.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index in-memory dengan ranking BM25
+ * Posting list: term -> (docId -> term frequency berbobot)
+ * Forward index (docId -> terms) dipakai untuk update/remove incremental
+ */
+class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, String[]> docTerms = new HashMap<>();
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Field teks yang di-index beserta bobotnya (misal title x3, content x1)
+     */
+    record Field(String text, int weight) {
+    }
+
+    /**
+     * Index (atau re-index) dokumen
+     */
+    void put(Long docId, List<Field> fields) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (Field field : fields) {
+            for (String token : SearchTokenizer.tokenize(field.text())) {
+                frequencies.merge(token, field.weight(), Integer::sum);
+                length++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            frequencies.forEach((term, tf) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(docId, tf));
+            docTerms.put(docId, frequencies.keySet().toArray(new String[0]));
+            docLengths.put(docId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docTerms.clear();
+            docLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cari dokumen yang mengandung semua term query (AND), urut berdasarkan skor BM25
+     *
+     * @return docId terurut dari yang paling relevan, maksimal maxHits
+     */
+    List<Long> search(String query, int maxHits) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            // Mulai dari posting list terpendek agar intersection murah
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            int docCount = docTerms.size();
+            double avgLength = docCount == 0 ? 1.0 : (double) totalLength / docCount;
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (Long docId : lists.get(0).keySet()) {
+                double score = 0;
+                boolean matchesAll = true;
+                for (Map<Long, Integer> list : lists) {
+                    Integer tf = list.get(docId);
+                    if (tf == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    double idf = Math.log(1 + (docCount - list.size() + 0.5) / (list.size() + 0.5));
+                    double norm = K1 * (1 - B + B * docLengths.get(docId) / avgLength);
+                    score += idf * (tf * (K1 + 1)) / (tf + norm);
+                }
+                if (matchesAll) {
+                    scores.put(docId, score);
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                    .limit(maxHits)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long docId) {
+        String[] terms = docTerms.remove(docId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(docId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        Integer length = docLengths.remove(docId);
+        if (length != null) {
+            totalLength -= length;
+        }
+    }
+}
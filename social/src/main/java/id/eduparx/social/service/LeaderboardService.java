@@ -0,0 +1,409 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.AuthorSummary;
+import id.eduparx.social.dto.LeaderboardEntry;
+import id.eduparx.social.model.User;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import id.eduparx.social.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Leaderboard top authors (published posts) dan top commenters (approved comments)
+ * Skor disimpan di sorted set Redis per board dan di-update dengan delta setelah commit
+ * (publish/unpublish/delete post, approve/reject/delete comment), sehingga read top-N
+ * cukup O(log n + N) tanpa GROUP BY. Salinan lokal dipakai jika Redis gagal atau board
+ * belum ada di Redis; salinan ini hanya menerima delta dari node ini.
+ * Drift keduanya dikoreksi rebuild penuh dari database secara periodik
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public enum Board {
+        AUTHORS("authors"),
+        COMMENTERS("commenters");
+
+        private final String key;
+
+        Board(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final int MAX_LIMIT = 100;
+    // Entry ekstra untuk user nonaktif yang belum keluar dari board (sampai rebuild berikutnya)
+    private static final int INACTIVE_SLACK = 8;
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    // Delta hanya diterapkan ke board yang sudah di-build; member dengan skor <= 0 dibuang
+    private static final byte[] ADJUST_SCRIPT = (
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "local score = tonumber(redis.call('ZINCRBY', KEYS[1], ARGV[1], ARGV[2])) " +
+            "if score <= 0 then redis.call('ZREM', KEYS[1], ARGV[2]) end " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    // KEYS[1] = key sementara hasil rebuild, KEYS[2] = board; satu script jadi swap-nya atomic.
+    // PERSIST membuang TTL pengaman key sementara yang ikut ter-RENAME
+    private static final byte[] SWAP_SCRIPT = (
+            "if redis.call('EXISTS', KEYS[1]) == 0 then redis.call('DEL', KEYS[2]) return 0 end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "redis.call('PERSIST', KEYS[2]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    // Key sementara rebuild yang gagal di tengah jalan hilang sendiri
+    private static final long REBUILD_KEY_TTL_SECONDS = 600;
+
+    private final StringRedisTemplate redis;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final String keyPrefix;
+    private final Map<Board, LocalBoard> localBoards = new EnumMap<>(Board.class);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Counter redisFailures;
+
+    public LeaderboardService(StringRedisTemplate redis,
+                              PostRepository postRepository,
+                              CommentRepository commentRepository,
+                              UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.leaderboard.key-prefix:social:leaderboard:}") String keyPrefix) {
+        this.redis = redis;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.keyPrefix = keyPrefix;
+        for (Board board : Board.values()) {
+            localBoards.put(board, new LocalBoard());
+        }
+        this.redisFailures = Counter.builder("social.leaderboard.redis.failures")
+                .description("Operasi leaderboard Redis yang gagal (read fallback ke salinan lokal)")
+                .register(meterRegistry);
+    }
+
+    // ==================== EVENTS ====================
+
+    public void onPostPublished(Long authorId) {
+        adjustAfterCommit(Board.AUTHORS, Map.of(authorId, 1));
+    }
+
+    /**
+     * Post published banyak author sekaligus (bulk import)
+     */
+    public void onPostsPublished(Map<Long, Integer> countByAuthor) {
+        adjustAfterCommit(Board.AUTHORS, countByAuthor);
+    }
+
+    /**
+     * Post published dihapus atau dikembalikan ke draft/archived
+     */
+    public void onPostUnpublished(Long authorId) {
+        adjustAfterCommit(Board.AUTHORS, Map.of(authorId, -1));
+    }
+
+    /**
+     * Transisi approved comment milik satu author (+1 approve, -1 reject/delete)
+     */
+    public void recordComments(Long authorId, int delta) {
+        adjustAfterCommit(Board.COMMENTERS, Map.of(authorId, delta));
+    }
+
+    /**
+     * Transisi approved comment banyak author sekaligus (bulk moderation, post dihapus)
+     */
+    public void recordComments(Map<Long, Integer> deltaByAuthor) {
+        adjustAfterCommit(Board.COMMENTERS, deltaByAuthor);
+    }
+
+    public void onUserDeleted(Long userId) {
+        TransactionHooks.afterCommit(() -> {
+            for (Board board : Board.values()) {
+                localBoards.get(board).remove(userId);
+                try {
+                    redis.opsForZSet().remove(key(board), userId.toString());
+                } catch (RuntimeException ex) {
+                    redisFailures.increment();
+                    log.warn("Gagal hapus user {} dari leaderboard {}: {}", userId, board, ex.getMessage());
+                }
+            }
+        });
+    }
+
+    private void adjustAfterCommit(Board board, Map<Long, Integer> deltaByUser) {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltaByUser.forEach((userId, delta) -> {
+            if (delta != 0) {
+                deltas.put(userId, delta);
+            }
+        });
+        if (!deltas.isEmpty()) {
+            TransactionHooks.afterCommit(() -> adjust(board, deltas));
+        }
+    }
+
+    private void adjust(Board board, Map<Long, Integer> deltas) {
+        LocalBoard local = localBoards.get(board);
+        deltas.forEach(local::add);
+        try {
+            byte[] key = bytes(key(board));
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+                    connection.scriptingCommands().eval(ADJUST_SCRIPT, ReturnType.INTEGER, 1,
+                            key, bytes(delta.getValue().toString()), bytes(delta.getKey().toString()));
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            redisFailures.increment();
+            log.warn("Gagal update leaderboard {} di Redis, dikoreksi pada rebuild berikutnya: {}",
+                    board, ex.getMessage());
+        }
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Top-N user pada board (maks MAX_LIMIT), user nonaktif/terhapus dilewati
+     */
+    public List<LeaderboardEntry> getTop(Board board, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<Ranked> ranked = readRanked(board, size + INACTIVE_SLACK);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(ranked.stream().map(Ranked::userId).toList())) {
+            users.put(user.getId(), user);
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>(size);
+        for (Ranked entry : ranked) {
+            User user = users.get(entry.userId());
+            if (user == null || !Boolean.TRUE.equals(user.getIsActive())) {
+                continue;
+            }
+            entries.add(new LeaderboardEntry(entries.size() + 1, AuthorSummary.fromEntity(user), entry.score()));
+            if (entries.size() == size) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    private List<Ranked> readRanked(Board board, int size) {
+        try {
+            Set<TypedTuple<String>> tuples = redis.opsForZSet().reverseRangeWithScores(key(board), 0, size - 1);
+            // Kosong = board belum di-build di Redis (atau memang kosong), salinan lokal sama hasilnya
+            if (tuples != null && !tuples.isEmpty()) {
+                countRead(board, "redis");
+                List<Ranked> ranked = new ArrayList<>(tuples.size());
+                for (TypedTuple<String> tuple : tuples) {
+                    ranked.add(new Ranked(Long.parseLong(tuple.getValue()), tuple.getScore().longValue()));
+                }
+                return ranked;
+            }
+        } catch (RuntimeException ex) {
+            redisFailures.increment();
+            log.warn("Gagal baca leaderboard {} dari Redis, pakai salinan lokal: {}", board, ex.getMessage());
+        }
+        countRead(board, "local");
+        return localBoards.get(board).top(size);
+    }
+
+    private void countRead(Board board, String source) {
+        Counter.builder("social.leaderboard.reads")
+                .tag("board", board.key)
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // ==================== REBUILD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.leaderboard.rebuild-interval-ms:3600000}",
+               fixedDelayString = "${app.leaderboard.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.error("Gagal rebuild leaderboard", ex);
+        }
+    }
+
+    /**
+     * Hitung ulang semua board dari database dan ganti isinya (koreksi drift)
+     * Delta yang masuk selama query berjalan bisa hilang; selisihnya kecil dan
+     * terkoreksi pada rebuild berikutnya
+     *
+     * @return false jika rebuild lain sedang berjalan
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuild(Board.AUTHORS, postRepository.countPublishedPostsByAuthor());
+            rebuild(Board.COMMENTERS, commentRepository.countApprovedCommentsByAuthor());
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuild(Board board, List<Object[]> rows) {
+        long start = System.nanoTime();
+        Map<Long, Long> scores = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            scores.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+
+        localBoards.get(board).replace(scores);
+        try {
+            replaceInRedis(board, scores);
+        } catch (RuntimeException ex) {
+            redisFailures.increment();
+            log.warn("Gagal rebuild leaderboard {} di Redis: {}", board, ex.getMessage());
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        Timer.builder("social.leaderboard.rebuild")
+                .description("Durasi rebuild penuh leaderboard dari database")
+                .tag("board", board.key)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(durationNanos));
+        log.info("Leaderboard {} di-rebuild: {} users dalam {} ms", board, scores.size(), durationNanos / 1_000_000);
+    }
+
+    /**
+     * Isi key sementara lalu swap lewat SWAP_SCRIPT, reader selalu melihat board lama atau baru
+     * Key sementara unik per rebuild: rebuild paralel dari node lain tidak saling menimpa isinya
+     */
+    private void replaceInRedis(Board board, Map<Long, Long> scores) {
+        byte[] key = bytes(key(board));
+        byte[] tempKey = bytes(key(board) + ":rebuild:" + UUID.randomUUID());
+        List<Tuple> tuples = new ArrayList<>(scores.size());
+        scores.forEach((userId, score) -> {
+            if (score > 0) {
+                tuples.add(new DefaultTuple(bytes(userId.toString()), score.doubleValue()));
+            }
+        });
+
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < tuples.size(); from += REBUILD_CHUNK_SIZE) {
+                List<Tuple> chunk = tuples.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, tuples.size()));
+                connection.zSetCommands().zAdd(tempKey, new LinkedHashSet<>(chunk));
+            }
+            if (!tuples.isEmpty()) {
+                connection.keyCommands().expire(tempKey, REBUILD_KEY_TTL_SECONDS);
+            }
+            return null;
+        });
+        // Board kosong: key sementara tidak pernah dibuat, script menghapus board lama
+        redis.execute((RedisCallback<Object>) connection ->
+                connection.scriptingCommands().eval(SWAP_SCRIPT, ReturnType.INTEGER, 2, tempKey, key));
+    }
+
+    private String key(Board board) {
+        return keyPrefix + board.key;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Ranked(long userId, long score) {
+    }
+
+    /**
+     * Salinan lokal satu board: skor per user + TreeSet terurut (skor desc, userId asc)
+     * Delta diabaikan sampai board pertama kali di-build agar tidak berisi skor parsial
+     */
+    private static final class LocalBoard {
+
+        private static final Comparator<Ranked> ORDER =
+                Comparator.comparingLong(Ranked::score).reversed().thenComparingLong(Ranked::userId);
+
+        private final Map<Long, Long> scores = new HashMap<>();
+        private final TreeSet<Ranked> ranked = new TreeSet<>(ORDER);
+        private boolean built = false;
+
+        synchronized void add(Long userId, Integer delta) {
+            if (!built) {
+                return;
+            }
+            Long old = scores.remove(userId);
+            if (old != null) {
+                ranked.remove(new Ranked(userId, old));
+            }
+            long updated = (old != null ? old : 0L) + delta;
+            if (updated > 0) {
+                scores.put(userId, updated);
+                ranked.add(new Ranked(userId, updated));
+            }
+        }
+
+        synchronized void remove(Long userId) {
+            Long old = scores.remove(userId);
+            if (old != null) {
+                ranked.remove(new Ranked(userId, old));
+            }
+        }
+
+        synchronized void replace(Map<Long, Long> snapshot) {
+            scores.clear();
+            ranked.clear();
+            snapshot.forEach((userId, score) -> {
+                if (score > 0) {
+                    scores.put(userId, score);
+                    ranked.add(new Ranked(userId, score));
+                }
+            });
+            built = true;
+        }
+
+        synchronized List<Ranked> top(int size) {
+            List<Ranked> top = new ArrayList<>(Math.min(size, ranked.size()));
+            for (Ranked entry : ranked) {
+                if (top.size() == size) {
+                    break;
+                }
+                top.add(entry);
+            }
+            return top;
+        }
+    }
+}
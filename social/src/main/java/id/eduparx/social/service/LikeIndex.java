@@ -0,0 +1,198 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.model.LikeEdge.TargetType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Index lokal: set user ID yang like per post/comment sebagai compressed bitmap (Roaring)
+ * {@link BoundedTtlCache} dengan TTL per target, di-load dari tabel likes saat miss.
+ * Bitmap diubah in-place, akses ke satu bitmap di-synchronize pada bitmap itu sendiri.
+ * Like/unlike dari node ini langsung diterapkan ke bitmap setelah commit, node lain
+ * membuang target yang sama lewat Redis pub/sub lalu load ulang saat dibutuhkan
+ */
+@Service
+public class LikeIndex implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeIndex.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final BoundedTtlCache<Target, Roaring64NavigableMap> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public LikeIndex(RedisTemplate<String, Object> redisTemplate,
+                     RedisMessageListenerContainer listenerContainer,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.likes.index.channel:social:likes:invalidate}") String channel,
+                     @Value("${app.likes.index.max-targets:20000}") int maxTargets,
+                     @Value("${app.likes.index.ttl:10m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = channel;
+        this.entries = new BoundedTtlCache<>(maxTargets, ttl);
+
+        Gauge.builder("social.likes.index.size", this, LikeIndex::size)
+                .description("Jumlah post/comment yang set liker-nya ada di index")
+                .register(meterRegistry);
+        Gauge.builder("social.likes.index.bytes", this, LikeIndex::sizeInBytes)
+                .description("Ukuran serialized semua bitmap liker")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.hits = Counter.builder("social.likes.index.hits").register(meterRegistry);
+        this.misses = Counter.builder("social.likes.index.misses").register(meterRegistry);
+        this.invalidations = Counter.builder("social.likes.index.invalidations")
+                .description("Invalidasi yang diterima dari Redis pub/sub")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Target (di antara targetIds) yang di-like userId
+     * Semua target yang belum ada di index di-load dengan satu panggilan loader
+     * (targetId -> bitmap user ID); hasil load tidak disimpan jika ada perubahan selama load
+     */
+    public Set<Long> likedBy(TargetType type, long userId, Collection<Long> targetIds,
+                             Function<Collection<Long>, Map<Long, Roaring64NavigableMap>> loader) {
+        Set<Long> liked = new HashSet<>();
+        List<Long> missing = new ArrayList<>();
+        long seen = entries.stamp();
+        for (Long targetId : targetIds) {
+            Roaring64NavigableMap likers = entries.getIfPresent(new Target(type, targetId));
+            if (likers == null) {
+                missing.add(targetId);
+            } else if (contains(likers, userId)) {
+                liked.add(targetId);
+            }
+        }
+        hits.increment(targetIds.size() - missing.size());
+        if (missing.isEmpty()) {
+            return liked;
+        }
+        misses.increment(missing.size());
+
+        Map<Long, Roaring64NavigableMap> loaded = loader.apply(missing);
+        for (Long targetId : missing) {
+            Roaring64NavigableMap likers = loaded.getOrDefault(targetId, new Roaring64NavigableMap());
+            if (likers.contains(userId)) {
+                liked.add(targetId);
+            }
+            likers.runOptimize();
+            entries.putIfUnchanged(new Target(type, targetId), likers, seen);
+        }
+        return liked;
+    }
+
+    /**
+     * Terapkan like/unlike yang sudah commit ke bitmap lokal dan minta node lain membuang target ini
+     */
+    public void apply(TargetType type, Long targetId, long userId, boolean liked) {
+        Roaring64NavigableMap likers = entries.getIfPresent(new Target(type, targetId));
+        if (likers != null) {
+            synchronized (likers) {
+                if (liked) {
+                    likers.addLong(userId);
+                } else {
+                    likers.removeLong(userId);
+                }
+            }
+        }
+        // Load yang membaca tabel likes sebelum perubahan ini tidak boleh disimpan
+        entries.markChanged();
+        publish(type, targetId);
+    }
+
+    /**
+     * Buang target dari index semua node (misal post/comment dihapus)
+     */
+    public void evict(TargetType type, Collection<Long> targetIds) {
+        for (Long targetId : targetIds) {
+            evictLocal(new Target(type, targetId));
+            publish(type, targetId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        String[] parts = Objects.toString(body, "").split("\\|");
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            invalidations.increment();
+            evictLocal(new Target(TargetType.valueOf(parts[1]), Long.valueOf(parts[2])));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Pesan invalidasi like tidak dikenal: {}", body);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private long sizeInBytes() {
+        long[] bytes = {0};
+        entries.forEachValue(likers -> {
+            synchronized (likers) {
+                bytes[0] += likers.serializedSizeInBytes();
+            }
+        });
+        return bytes[0];
+    }
+
+    private static boolean contains(Roaring64NavigableMap likers, long userId) {
+        synchronized (likers) {
+            return likers.contains(userId);
+        }
+    }
+
+    private void publish(TargetType type, Long targetId) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "|" + type.name() + "|" + targetId);
+        } catch (RuntimeException ex) {
+            // Node lain tetap konsisten paling lambat setelah TTL
+            log.warn("Gagal publish invalidasi like {}:{}: {}", type, targetId, ex.getMessage());
+        }
+    }
+
+    private void evictLocal(Target target) {
+        entries.invalidate(target);
+    }
+
+    private record Target(TargetType type, long id) {
+    }
+}
@@ -0,0 +1,146 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.exception.ResourceNotFoundException;
+import id.eduparx.social.model.LikeEdge.TargetType;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.LikeEdgeRepository;
+import id.eduparx.social.repository.PostRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Like post/comment yang idempotent
+ * Tabel likes menyimpan siapa like apa (satu row per user per target); like_count hanya
+ * berubah ketika row benar-benar ditambah/dihapus, jadi retry dan double click tidak
+ * menggeser count. "Liked by me" dijawab dari {@link LikeIndex} (bitmap per target)
+ */
+@Service
+public class LikeService {
+
+    private final LikeEdgeRepository likeEdgeRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LikeIndex likeIndex;
+    private final PostSlugCache postSlugCache;
+
+    public LikeService(LikeEdgeRepository likeEdgeRepository,
+                       PostRepository postRepository,
+                       CommentRepository commentRepository,
+                       LikeIndex likeIndex,
+                       PostSlugCache postSlugCache) {
+        this.likeEdgeRepository = likeEdgeRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.likeIndex = likeIndex;
+        this.postSlugCache = postSlugCache;
+    }
+
+    /**
+     * Set status like user terhadap target
+     * @return true jika status berubah, false jika user memang sudah (un)like
+     */
+    @Transactional
+    public boolean setLiked(TargetType type, Long targetId, Long userId, boolean liked) {
+        int changed = liked
+            ? likeEdgeRepository.insertIfAbsent(type.name(), targetId, userId)
+            : likeEdgeRepository.deleteEdge(type, targetId, userId);
+        if (changed == 0) {
+            return false;
+        }
+
+        int delta = liked ? 1 : -1;
+        int updated = type == TargetType.POST
+            ? postRepository.updateLikeCount(targetId, delta)
+            : commentRepository.updateLikeCount(targetId, delta);
+        if (updated == 0) {
+            // Target tidak ada: rollback edge yang baru dibuat
+            throw new ResourceNotFoundException(
+                (type == TargetType.POST ? "Post" : "Comment") + " tidak ditemukan: " + targetId);
+        }
+        TransactionHooks.afterCommit(() -> likeIndex.apply(type, targetId, userId, liked));
+        if (type == TargetType.POST) {
+            postSlugCache.evictCounters(List.of(targetId));
+        }
+        return true;
+    }
+
+    /**
+     * Target (dari satu halaman feed/list) yang sudah di-like userId, satu panggilan untuk semua ID
+     * Target yang belum ada di index di-load dengan satu query
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findLikedBy(TargetType type, Long userId, Collection<Long> targetIds) {
+        if (targetIds.isEmpty()) {
+            return Set.of();
+        }
+        return likeIndex.likedBy(type, userId, targetIds, missing -> loadLikers(type, missing));
+    }
+
+    /**
+     * Hapus like untuk target yang dihapus (dipanggil di dalam transaction delete)
+     */
+    @Transactional
+    public void onTargetsDeleted(TargetType type, Collection<Long> targetIds) {
+        if (targetIds.isEmpty()) {
+            return;
+        }
+        likeEdgeRepository.deleteByTargets(type, targetIds);
+        List<Long> ids = List.copyOf(targetIds);
+        TransactionHooks.afterCommit(() -> likeIndex.evict(type, ids));
+    }
+
+    /**
+     * Hapus like post beserta like comments-nya (comments ikut terhapus cascade)
+     * Entry comment di index tidak dibuang, tidak akan dibaca lagi dan keluar lewat LRU/TTL
+     */
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        likeEdgeRepository.deleteCommentLikesOfPost(postId);
+        onTargetsDeleted(TargetType.POST, List.of(postId));
+    }
+
+    /**
+     * Bersihkan like yang terkait user yang dihapus (dipanggil di dalam transaction delete user,
+     * sebelum posts/comments-nya ikut terhapus cascade):
+     * like_count target yang di-like user dikurangi lalu edge-nya dihapus, dan like pada
+     * posts/comments milik user dibuang
+     */
+    @Transactional
+    public void onUserDeleted(Long userId) {
+        List<Long> likedPosts = likeEdgeRepository.findTargetIdsLikedBy(TargetType.POST, userId);
+        List<Long> likedComments = likeEdgeRepository.findTargetIdsLikedBy(TargetType.COMMENT, userId);
+        if (!likedPosts.isEmpty()) {
+            postRepository.decrementLikeCountsLikedBy(userId);
+        }
+        if (!likedComments.isEmpty()) {
+            commentRepository.decrementLikeCountsLikedBy(userId);
+        }
+        likeEdgeRepository.deleteAllOfUser(userId);
+        TransactionHooks.afterCommit(() -> {
+            likeIndex.evict(TargetType.POST, likedPosts);
+            likeIndex.evict(TargetType.COMMENT, likedComments);
+        });
+        if (!likedPosts.isEmpty()) {
+            postSlugCache.evictCounters(likedPosts);
+        }
+
+        onTargetsDeleted(TargetType.POST, postRepository.findIdsByAuthorId(userId));
+        onTargetsDeleted(TargetType.COMMENT, commentRepository.findIdsRemovedWithUser(userId));
+    }
+
+    private Map<Long, Roaring64NavigableMap> loadLikers(TargetType type, Collection<Long> targetIds) {
+        Map<Long, Roaring64NavigableMap> likers = new HashMap<>();
+        for (Object[] row : likeEdgeRepository.findLikers(type, targetIds)) {
+            likers.computeIfAbsent((Long) row[0], id -> new Roaring64NavigableMap())
+                  .addLong((Long) row[1]);
+        }
+        return likers;
+    }
+}
@@ -0,0 +1,386 @@
+package id.eduparx.social.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import id.eduparx.social.dto.PostImportError;
+import id.eduparx.social.dto.PostImportRecord;
+import id.eduparx.social.dto.PostImportResult;
+import id.eduparx.social.exception.ResourceNotFoundException;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.model.User;
+import id.eduparx.social.repository.PostRepository;
+import id.eduparx.social.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import posts dari NDJSON (satu PostImportRecord per baris)
+ * Body dibaca per baris tanpa di-buffer penuh; parse, validasi, slug dan excerpt dikerjakan
+ * worker pool paralel sementara chunk sebelumnya disimpan. Tiap chunk satu transaction
+ * (batch insert), author di-resolve sekali per username untuk seluruh import.
+ * Jika chunk gagal karena constraint (misal slug dipakai request lain), chunk diulang per record
+ */
+@Service
+public class PostImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PostImportService.class);
+
+    /**
+     * Callback progress selama import (dipanggil dari thread yang memanggil importPosts)
+     */
+    public interface Listener {
+
+        default void onError(PostImportError error) {
+        }
+
+        default void onProgress(long processed, long imported, long failed) {
+        }
+    }
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final SearchIndexService searchIndexService;
+    private final TrendingService trendingService;
+    private final TimelineService timelineService;
+    private final LeaderboardService leaderboardService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader recordReader;
+    private final Validator validator;
+    private final ExecutorService workers;
+    private final Counter importedPosts;
+    private final Counter failedRecords;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+
+    public PostImportService(PostRepository postRepository,
+                             UserRepository userRepository,
+                             SearchIndexService searchIndexService,
+                             TrendingService trendingService,
+                             TimelineService timelineService,
+                             LeaderboardService leaderboardService,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.posts.import.chunk-size:500}") int chunkSize,
+                             @Value("${app.posts.import.parallelism:0}") int parallelism,
+                             @Value("${app.posts.import.max-reported-errors:1000}") int maxReportedErrors,
+                             @Value("${app.posts.import.max-line-length:1048576}") int maxLineLength) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.searchIndexService = searchIndexService;
+        this.trendingService = trendingService;
+        this.timelineService = timelineService;
+        this.leaderboardService = leaderboardService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordReader = objectMapper.readerFor(PostImportRecord.class);
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = Math.max(1, maxLineLength);
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "post-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importedPosts = Counter.builder("social.posts.import.records")
+                .description("Jumlah record NDJSON yang diproses bulk import")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRecords = Counter.builder("social.posts.import.records")
+                .description("Jumlah record NDJSON yang diproses bulk import")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Import semua record dari stream NDJSON
+     *
+     * @param importerId author default untuk record tanpa authorUsername
+     * @throws IOException jika body gagal dibaca (misal client putus); chunk yang sudah commit tetap tersimpan
+     */
+    public PostImportResult importPosts(InputStream ndjson, Long importerId, Listener listener) throws IOException {
+        if (!userRepository.existsById(importerId)) {
+            throw new ResourceNotFoundException("User tidak ditemukan");
+        }
+        long start = System.nanoTime();
+        ImportState state = new ImportState(importerId, listener);
+
+        // Panjang baris dibatasi: satu baris raksasa dari client tidak boleh ditampung utuh di memory
+        BoundedLineReader reader = new BoundedLineReader(
+                new InputStreamReader(ndjson, StandardCharsets.UTF_8), 64 * 1024, maxLineLength);
+        List<CompletableFuture<PreparedRecord>> pending = null;
+        List<CompletableFuture<PreparedRecord>> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            if (reader.lastLineTooLong()) {
+                chunk.add(CompletableFuture.completedFuture(PreparedRecord.failed(recordLine,
+                        "Baris melebihi batas " + maxLineLength + " karakter")));
+            } else if (line.isBlank()) {
+                continue;
+            } else {
+                String text = line;
+                chunk.add(CompletableFuture.supplyAsync(() -> prepare(recordLine, text), workers));
+            }
+            if (chunk.size() == chunkSize) {
+                // Chunk ini diproses worker sementara chunk sebelumnya disimpan
+                if (pending != null) {
+                    persistChunk(pending, state);
+                }
+                pending = chunk;
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (pending != null) {
+            persistChunk(pending, state);
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, state);
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        long durationMs = durationNanos / 1_000_000;
+        double perSecond = durationNanos == 0 ? 0 : state.imported * 1_000_000_000.0 / durationNanos;
+        log.info("Import {} posts ({} gagal) dalam {} chunks, {} ms ({} posts/s)",
+                state.imported, state.failed, state.chunks, durationMs, Math.round(perSecond));
+        return new PostImportResult(state.processed, state.imported, state.failed, state.chunks,
+                durationMs, perSecond, List.copyOf(state.errors));
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Parse + validasi satu baris dan bentuk entity Post (slug dan excerpt), berjalan di worker
+     */
+    private PreparedRecord prepare(long line, String text) {
+        PostImportRecord record;
+        try {
+            record = recordReader.readValue(text);
+        } catch (JsonProcessingException ex) {
+            return PreparedRecord.failed(line, "JSON tidak valid: " + ex.getOriginalMessage());
+        }
+        if (record == null) {
+            return PreparedRecord.failed(line, "Record kosong");
+        }
+        Set<ConstraintViolation<PostImportRecord>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            return PreparedRecord.failed(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        Post post = new Post();
+        post.setTitle(record.getTitle());
+        post.setContent(record.getContent());
+        post.setExcerpt(record.getExcerpt() == null || record.getExcerpt().isEmpty()
+                ? PostService.generateExcerpt(record.getContent())
+                : record.getExcerpt());
+        post.setFeaturedImageUrl(record.getFeaturedImageUrl());
+        post.setStatus(record.getStatus() != null ? record.getStatus() : Post.PostStatus.DRAFT);
+        post.setIsFeatured(Boolean.TRUE.equals(record.getIsFeatured()));
+        if (post.getStatus() == Post.PostStatus.PUBLISHED) {
+            post.setPublishedAt(record.getPublishedAt() != null ? record.getPublishedAt() : LocalDateTime.now());
+        }
+
+        String authorUsername = record.getAuthorUsername();
+        if (authorUsername != null && authorUsername.isBlank()) {
+            authorUsername = null;
+        }
+        return new PreparedRecord(line, post, authorUsername == null ? null : authorUsername.trim(), null, null);
+    }
+
+    private void persistChunk(List<CompletableFuture<PreparedRecord>> futures, ImportState state) {
+        List<PreparedRecord> records = new ArrayList<>(futures.size());
+        for (CompletableFuture<PreparedRecord> future : futures) {
+            records.add(future.join());
+        }
+        state.processed += records.size();
+        resolveAuthors(records, state);
+
+        Set<String> slugs = new HashSet<>();
+        for (PreparedRecord record : records) {
+            if (record.error() == null) {
+                slugs.add(record.post().getSlug());
+            }
+        }
+        Set<String> taken = slugs.isEmpty() ? Set.of() : new HashSet<>(postRepository.findExistingSlugs(slugs));
+
+        List<PreparedRecord> valid = new ArrayList<>(records.size());
+        Set<String> chunkSlugs = new HashSet<>();
+        for (PreparedRecord record : records) {
+            if (record.error() != null) {
+                state.fail(record.line(), record.error());
+                continue;
+            }
+            Long authorId = record.authorUsername() == null
+                    ? state.importerId
+                    : state.authorIds.get(record.authorUsername());
+            if (authorId == null) {
+                state.fail(record.line(), "Author tidak ditemukan: " + record.authorUsername());
+                continue;
+            }
+            String slug = record.post().getSlug();
+            if (taken.contains(slug) || !chunkSlugs.add(slug)) {
+                state.fail(record.line(), "Slug sudah dipakai: " + slug);
+                continue;
+            }
+            valid.add(record.withAuthorId(authorId));
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> save(valid));
+                state.imported(valid.size());
+            } catch (DataIntegrityViolationException ex) {
+                // Ulangi per record supaya hanya record yang bermasalah yang gagal
+                for (PreparedRecord record : valid) {
+                    record.post().setId(null);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> save(List.of(record)));
+                        state.imported(1);
+                    } catch (DataIntegrityViolationException recordEx) {
+                        state.fail(record.line(), "Gagal menyimpan: "
+                                + NestedExceptionUtils.getMostSpecificCause(recordEx).getMessage());
+                    }
+                }
+            }
+        }
+        state.chunks++;
+        state.listener.onProgress(state.processed, state.imported, state.failed);
+    }
+
+    private void save(List<PreparedRecord> records) {
+        List<Post> posts = new ArrayList<>(records.size());
+        for (PreparedRecord record : records) {
+            Post post = record.post();
+            post.setAuthor(entityManager.getReference(User.class, record.authorId()));
+            posts.add(post);
+        }
+        // ID dari sequence pooled, INSERT dikirim per JDBC batch saat flush
+        postRepository.saveAll(posts);
+        postRepository.flush();
+        Map<Long, Integer> publishedByAuthor = new HashMap<>();
+        for (PreparedRecord record : records) {
+            Post post = record.post();
+            if (post.getStatus() == Post.PostStatus.PUBLISHED) {
+                searchIndexService.indexPost(post);
+                trendingService.onPostPublished(post.getId(), post.getPublishedAt());
+                timelineService.onPostPublished(post.getId(), record.authorId(), post.getPublishedAt());
+                publishedByAuthor.merge(record.authorId(), 1, Integer::sum);
+            }
+        }
+        // Satu delta leaderboard per author per chunk, bukan satu per post
+        leaderboardService.onPostsPublished(publishedByAuthor);
+        // Persistence context bisa milik request (open-in-view), jangan biarkan entity menumpuk
+        entityManager.clear();
+    }
+
+    /**
+     * Resolve username yang belum pernah dilihat import ini dalam satu query
+     */
+    private void resolveAuthors(List<PreparedRecord> records, ImportState state) {
+        Set<String> unknown = new HashSet<>();
+        for (PreparedRecord record : records) {
+            String username = record.authorUsername();
+            if (record.error() == null && username != null && !state.resolvedUsernames.contains(username)) {
+                unknown.add(username);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        for (Object[] row : userRepository.findIdsByUsernameIn(unknown)) {
+            state.authorIds.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        // Username yang tidak ada juga diingat supaya tidak di-query ulang
+        state.resolvedUsernames.addAll(unknown);
+    }
+
+    private record PreparedRecord(long line, Post post, String authorUsername, Long authorId, String error) {
+
+        static PreparedRecord failed(long line, String error) {
+            return new PreparedRecord(line, null, null, null, error);
+        }
+
+        PreparedRecord withAuthorId(Long authorId) {
+            return new PreparedRecord(line, post, authorUsername, authorId, null);
+        }
+    }
+
+    private final class ImportState {
+        final Long importerId;
+        final Listener listener;
+        final Map<String, Long> authorIds = new HashMap<>();
+        final Set<String> resolvedUsernames = new HashSet<>();
+        final List<PostImportError> errors = new ArrayList<>();
+        long processed;
+        long imported;
+        long failed;
+        int chunks;
+
+        ImportState(Long importerId, Listener listener) {
+            this.importerId = importerId;
+            this.listener = listener;
+        }
+
+        void imported(int count) {
+            imported += count;
+            importedPosts.increment(count);
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            failedRecords.increment();
+            PostImportError error = new PostImportError(line, message);
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+            listener.onError(error);
+        }
+    }
+}
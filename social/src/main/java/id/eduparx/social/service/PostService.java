@@ -1,20 +1,41 @@
 package id.eduparx.social.service;
 
+import id.eduparx.social.dto.CommentDto;
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.PostCounters;
+import id.eduparx.social.dto.PostDetailDto;
 import id.eduparx.social.dto.PostRequest;
+import id.eduparx.social.dto.PostSummaryDto;
+import id.eduparx.social.dto.PostWithCommentsDto;
+import id.eduparx.social.model.LikeEdge;
 import id.eduparx.social.model.Post;
 import id.eduparx.social.model.User;
+import id.eduparx.social.repository.CommentRepository;
 import id.eduparx.social.repository.PostRepository;
 import id.eduparx.social.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service untuk Post management dengan business logic
@@ -23,12 +44,38 @@ import java.util.Optional;
 @Transactional
 public class PostService {
 
+    private static final int EXCERPT_LENGTH = 200;
+
     @Autowired
     private PostRepository postRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PostSlugCache postSlugCache;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     /**
      * Create new post
      */
@@ -55,7 +102,14 @@ public class PostService {
             post.setPublishedAt(LocalDateTime.now());
         }
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        searchIndexService.indexPost(savedPost);
+        if (savedPost.getStatus() == Post.PostStatus.PUBLISHED) {
+            trendingService.onPostPublished(savedPost.getId(), savedPost.getPublishedAt());
+            timelineService.onPostPublished(savedPost.getId(), authorId, savedPost.getPublishedAt());
+            leaderboardService.onPostPublished(authorId);
+        }
+        return savedPost;
     }
 
     /**
@@ -68,6 +122,9 @@ public class PostService {
         // Check if user is the author or has admin/moderator role
         validatePostAccess(post, userId);
 
+        // Slug ikut berubah saat title berubah, slug lama juga harus dibuang dari cache
+        String oldSlug = post.getSlug();
+
         // Update fields
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
@@ -79,8 +136,9 @@ public class PostService {
         post.setStatus(request.getStatus());
         
         // Set published date if status changed to PUBLISHED
-        if (oldStatus != Post.PostStatus.PUBLISHED && 
-            request.getStatus() == Post.PostStatus.PUBLISHED) {
+        boolean newlyPublished = oldStatus != Post.PostStatus.PUBLISHED &&
+            request.getStatus() == Post.PostStatus.PUBLISHED;
+        if (newlyPublished) {
             post.setPublishedAt(LocalDateTime.now());
         }
 
@@ -91,44 +149,152 @@ public class PostService {
             post.setExcerpt(generateExcerpt(post.getContent()));
         }
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        searchIndexService.indexPost(savedPost);
+        postSlugCache.evict(oldSlug, savedPost.getSlug());
+        if (savedPost.getStatus() == Post.PostStatus.PUBLISHED) {
+            trendingService.onPostPublished(savedPost.getId(), savedPost.getPublishedAt());
+            if (newlyPublished) {
+                timelineService.onPostPublished(savedPost.getId(), savedPost.getAuthor().getId(), savedPost.getPublishedAt());
+                leaderboardService.onPostPublished(savedPost.getAuthor().getId());
+            }
+        } else {
+            trendingService.onPostRemoved(savedPost.getId());
+            if (oldStatus == Post.PostStatus.PUBLISHED) {
+                leaderboardService.onPostUnpublished(savedPost.getAuthor().getId());
+            }
+        }
+        return savedPost;
     }
 
     /**
      * Get post by ID (increment view count)
+     * View dicatat write-behind, tidak ada UPDATE pada request ini
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Post getPostById(Long id) {
-        Post post = postRepository.findById(id)
+        Post post = postRepository.findDetailById(id)
             .orElseThrow(() -> new RuntimeException("Post tidak ditemukan"));
         
         // Increment view count
-        postRepository.incrementViewCount(id);
-        post.setViewCount(post.getViewCount() + 1);
+        recordView(post);
         
         return post;
     }
 
     /**
      * Get post by slug (for SEO friendly URLs)
+     * Field statis dan counter sama-sama dari near-cache (tanpa query saat hit); entry counter
+     * dibuang saat like, comment atau flush view, view yang belum di-flush ditambahkan dari memory
      */
-    @Transactional
-    public Post getPostBySlug(String slug) {
-        Post post = postRepository.findBySlug(slug)
-            .orElseThrow(() -> new RuntimeException("Post tidak ditemukan"));
-        
-        // Increment view count
-        postRepository.incrementViewCount(post.getId());
-        post.setViewCount(post.getViewCount() + 1);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PostDetailDto getPostBySlug(String slug) {
+        PostDetailDto[] loaded = new PostDetailDto[1];
+        PostDetailDto post = postSlugCache.get(slug, () -> loaded[0] = postRepository.findBySlug(slug)
+            .map(PostDetailDto::fromEntity)
+            .orElseThrow(() -> new RuntimeException("Post tidak ditemukan")));
+        // Detail yang baru di-load sudah membawa counter terbaru, tidak perlu query kedua
+        PostCounters counters = postSlugCache.getCounters(post.id(), () -> loaded[0] != null
+            ? PostCounters.of(loaded[0])
+            : postRepository.findCountersById(post.id())
+                .orElseThrow(() -> new RuntimeException("Post tidak ditemukan")));
         
-        return post;
+        // Increment view count, tampilkan termasuk view yang belum di-flush
+        viewCountService.recordView(post.id());
+        trendingService.recordView(post.id());
+        long pending = viewCountService.getPendingViews(post.id());
+        return post.withCounters((int) Math.min(Integer.MAX_VALUE, counters.viewCount() + pending),
+            counters.likeCount(), counters.commentCount());
+    }
+
+    /**
+     * Catat view ke write-behind counter dan tampilkan view count termasuk yang belum di-flush
+     * Transaction read-only, jadi perubahan viewCount di entity tidak ikut di-flush
+     */
+    private void recordView(Post post) {
+        viewCountService.recordView(post.getId());
+        trendingService.recordView(post.getId());
+        long pending = viewCountService.getPendingViews(post.getId());
+        post.setViewCount((int) Math.min(Integer.MAX_VALUE, post.getViewCount() + pending));
     }
 
     /**
      * Get published posts dengan pagination
+     * Projection langsung ke PostSummaryDto (tanpa content, author di-join)
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryDto> getPublishedPosts(Pageable pageable) {
+        return postRepository.findSummariesByStatus(Post.PostStatus.PUBLISHED, pageable);
+    }
+
+    /**
+     * Get published posts dengan keyset (cursor) pagination
+     * Seek pada (publishedAt, id), tanpa OFFSET dan tanpa COUNT query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostSummaryDto> getPublishedFeed(String cursor, int size) {
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+
+        // Ambil satu row ekstra untuk mengetahui apakah masih ada halaman berikutnya
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<PostSummaryDto> rows = (position == null)
+            ? postRepository.findPublishedFeedFirstPage(limit)
+            : postRepository.findPublishedFeedAfter(position.timestamp(), position.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<PostSummaryDto> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            PostSummaryDto last = content.get(content.size() - 1);
+            nextCursor = CursorCodec.encode(last.publishedAt(), last.id());
+        }
+        return new CursorPage<>(content, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Published posts (cursor pagination) beserta top-N approved comments per post
+     * Phase 1: satu halaman summary post (author di-join),
+     * phase 2: top-N comments untuk semua post di halaman dalam satu query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostWithCommentsDto> getPublishedPostsWithTopComments(String cursor, int size,
+                                                                            int commentsPerPost) {
+        CursorPage<PostSummaryDto> page = getPublishedFeed(cursor, size);
+        return new CursorPage<>(attachTopComments(page.getContent(), commentsPerPost),
+                page.getSize(), page.getNextCursor(), page.isHasNext());
+    }
+
+    /**
+     * Proses semua published posts beserta top-N comments dengan memory konstan
+     * Posts dibaca sebagai stream DTO (fetch size), comments di-load per chunk,
+     * tidak ada entity yang menumpuk di persistence context (dipakai export NDJSON)
+     *
+     * @return jumlah post yang diproses
      */
-    public Page<Post> getPublishedPosts(Pageable pageable) {
-        return postRepository.findByStatus(Post.PostStatus.PUBLISHED, pageable);
+    @Transactional(readOnly = true)
+    public long forEachPublishedPostWithTopComments(int commentsPerPost, int chunkSize,
+                                                    Consumer<PostWithCommentsDto> consumer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize harus lebih dari 0");
+        }
+        if (commentsPerPost < 0) {
+            throw new IllegalArgumentException("commentsPerPost tidak boleh negatif");
+        }
+        long processed = 0;
+        List<PostSummaryDto> chunk = new ArrayList<>(chunkSize);
+        try (Stream<PostSummaryDto> posts = postRepository.streamPublishedSummaries()) {
+            Iterator<PostSummaryDto> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    attachTopComments(chunk, commentsPerPost).forEach(consumer);
+                    processed += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return processed;
     }
 
     /**
@@ -153,9 +319,14 @@ public class PostService {
 
     /**
      * Search posts
+     * Dijawab dari full-text index (urut relevansi), fallback ke LIKE query jika index belum siap
      */
     public Page<Post> searchPosts(String keyword, Pageable pageable) {
-        return postRepository.searchPosts(keyword, pageable);
+        Optional<List<Long>> hits = searchIndexService.searchPosts(keyword);
+        if (hits.isEmpty()) {
+            return postRepository.searchPosts(keyword, pageable);
+        }
+        return searchIndexService.toPage(hits.get(), pageable, postRepository::findByIdIn, Post::getId);
     }
 
     /**
@@ -174,10 +345,15 @@ public class PostService {
 
     /**
      * Get trending posts (last 7 days)
+     * Ranking dari TrendingService (in-memory top-K), fallback ke query database jika belum siap
      */
     public List<Post> getTrendingPosts(Pageable pageable) {
-        LocalDateTime since = LocalDateTime.now().minusDays(7);
-        return postRepository.findTrendingPosts(since, pageable);
+        Optional<List<Long>> trendingIds = trendingService.getTrendingPostIds(pageable.getPageSize());
+        if (trendingIds.isEmpty()) {
+            LocalDateTime since = LocalDateTime.now().minusDays(7);
+            return postRepository.findTrendingPosts(since, pageable);
+        }
+        return findAllByIdInOrder(trendingIds.get());
     }
 
     /**
@@ -188,16 +364,41 @@ public class PostService {
             .orElseThrow(() -> new RuntimeException("Post tidak ditemukan"));
 
         validatePostAccess(post, userId);
+        likeService.onPostDeleted(postId);
+        // Approved comments ikut terhapus (cascade), kurangi skor commenter-nya
+        Map<Long, Integer> removedComments = new HashMap<>();
+        for (Object[] row : commentRepository.countApprovedCommentsByAuthorOfPost(postId)) {
+            removedComments.put((Long) row[0], -((Number) row[1]).intValue());
+        }
+        leaderboardService.recordComments(removedComments);
+        if (post.getStatus() == Post.PostStatus.PUBLISHED) {
+            leaderboardService.onPostUnpublished(post.getAuthor().getId());
+        }
+        searchIndexService.removePost(postId);
         postRepository.delete(post);
+        postSlugCache.evict(post.getSlug());
+        trendingService.onPostRemoved(postId);
     }
 
     /**
-     * Like/Unlike post
+     * Like/Unlike post (idempotent per user)
+     * @return true jika status like berubah
      */
     @Transactional
-    public void toggleLike(Long postId, boolean isLike) {
-        int increment = isLike ? 1 : -1;
-        postRepository.updateLikeCount(postId, increment);
+    public boolean toggleLike(Long postId, Long userId, boolean isLike) {
+        boolean changed = likeService.setLiked(LikeEdge.TargetType.POST, postId, userId, isLike);
+        if (changed) {
+            trendingService.recordLike(postId, isLike ? 1 : -1);
+        }
+        return changed;
+    }
+
+    /**
+     * Post (dari satu halaman) yang sudah di-like user
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findLikedPostIds(Long userId, Collection<Long> postIds) {
+        return likeService.findLikedBy(LikeEdge.TargetType.POST, userId, postIds);
     }
 
     /**
@@ -210,6 +411,29 @@ public class PostService {
         return postRepository.findRelatedPostsByAuthor(post.getAuthor(), postId, pageable);
     }
 
+    /**
+     * Gabungkan summary posts dengan top-N approved comments masing-masing (2 query)
+     */
+    private List<PostWithCommentsDto> attachTopComments(List<PostSummaryDto> posts, int commentsPerPost) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<CommentDto>> commentsByPost = Map.of();
+        if (commentsPerPost > 0) {
+            List<Long> postIds = posts.stream().map(PostSummaryDto::id).toList();
+            List<Long> commentIds = commentRepository.findTopApprovedIdsPerPost(postIds, commentsPerPost);
+            if (!commentIds.isEmpty()) {
+                commentsByPost = commentRepository.findDtosByIdIn(commentIds).stream()
+                    .collect(Collectors.groupingBy(CommentDto::postId));
+            }
+        }
+        List<PostWithCommentsDto> result = new ArrayList<>(posts.size());
+        for (PostSummaryDto post : posts) {
+            result.add(new PostWithCommentsDto(post, commentsByPost.getOrDefault(post.id(), List.of())));
+        }
+        return result;
+    }
+
     /**
      * Validate user access to post (owner, admin, or moderator)
      */
@@ -227,20 +451,20 @@ public class PostService {
     }
 
     /**
-     * Generate excerpt from content
+     * Generate excerpt from content (dipakai juga oleh PostImportService)
      */
-    private String generateExcerpt(String content) {
+    static String generateExcerpt(String content) {
         if (content == null) return "";
         
-        // Remove HTML tags if any
-        String cleanContent = content.replaceAll("<[^>]*>", "");
+        // Remove HTML tags if any, cukup 201 karakter pertama untuk menentukan excerpt
+        String cleanContent = stripTags(content, EXCERPT_LENGTH + 1);
         
         // Take first 200 characters
-        if (cleanContent.length() <= 200) {
+        if (cleanContent.length() <= EXCERPT_LENGTH) {
             return cleanContent;
         }
         
-        String excerpt = cleanContent.substring(0, 200);
+        String excerpt = cleanContent.substring(0, EXCERPT_LENGTH);
         int lastSpace = excerpt.lastIndexOf(' ');
         
         if (lastSpace > 150) {
@@ -250,6 +474,33 @@ public class PostService {
         return excerpt + "...";
     }
 
+    /**
+     * Hapus tag HTML, hasil sama dengan replaceAll("<[^>]*>", "") tetapi tanpa regex
+     * dan berhenti setelah maxLength karakter (content panjang tidak di-scan seluruhnya)
+     */
+    static String stripTags(String content, int maxLength) {
+        int tagStart = content.indexOf('<');
+        if (tagStart < 0) {
+            return content.length() > maxLength ? content.substring(0, maxLength) : content;
+        }
+        StringBuilder clean = new StringBuilder(Math.min(content.length(), maxLength));
+        int from = 0;
+        while (tagStart >= 0 && clean.length() < maxLength) {
+            int tagEnd = content.indexOf('>', tagStart + 1);
+            if (tagEnd < 0) {
+                // '<' tanpa penutup tetap ditampilkan, seperti regex
+                break;
+            }
+            clean.append(content, from, Math.min(tagStart, from + maxLength - clean.length()));
+            from = tagEnd + 1;
+            tagStart = content.indexOf('<', from);
+        }
+        if (clean.length() < maxLength) {
+            clean.append(content, from, Math.min(content.length(), from + maxLength - clean.length()));
+        }
+        return clean.toString();
+    }
+
     /**
      * Get draft posts by author
      */
@@ -269,9 +520,33 @@ public class PostService {
 
         validatePostAccess(post, userId);
 
+        boolean wasPublished = post.getStatus() == Post.PostStatus.PUBLISHED;
         post.setStatus(Post.PostStatus.PUBLISHED);
         post.setPublishedAt(LocalDateTime.now());
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        searchIndexService.indexPost(savedPost);
+        postSlugCache.evict(savedPost.getSlug());
+        trendingService.onPostPublished(savedPost.getId(), savedPost.getPublishedAt());
+        timelineService.onPostPublished(savedPost.getId(), savedPost.getAuthor().getId(), savedPost.getPublishedAt());
+        if (!wasPublished) {
+            leaderboardService.onPostPublished(savedPost.getAuthor().getId());
+        }
+        return savedPost;
+    }
+
+    /**
+     * Load posts berdasarkan IDs dengan urutan sesuai list IDs (satu query)
+     */
+    private List<Post> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> byId = postRepository.findByIdIn(ids).stream()
+            .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.dto.PostCounters;
+import id.eduparx.social.dto.PostDetailDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Near-cache lokal untuk resolusi slug -> post detail, plus post ID -> counter (view/like/comment)
+ * Counter di entry detail tidak dipakai; counter punya entry sendiri yang dibuang saat like/unlike,
+ * perubahan comment count dan flush view, sehingga cache hit tidak menyentuh database sama sekali.
+ * {@link BoundedTtlCache} dengan TTL per entry. Perubahan post (update, delete, publish) dan counter
+ * di-broadcast lewat Redis pub/sub (slug = String, counter = list post ID) supaya semua node membuang entry yang sama
+ */
+@Service
+public class PostSlugCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSlugCache.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+    private final BoundedTtlCache<String, PostDetailDto> entries;
+    private final BoundedTtlCache<Long, PostCounters> counters;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Counter counterHits;
+    private final Counter counterMisses;
+
+    public PostSlugCache(RedisTemplate<String, Object> redisTemplate,
+                         RedisMessageListenerContainer listenerContainer,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.post-cache.channel:social:post-cache:invalidate}") String channel,
+                         @Value("${app.post-cache.max-size:10000}") int maxSize,
+                         @Value("${app.post-cache.ttl:5m}") Duration ttl,
+                         @Value("${app.post-cache.counters-ttl:30s}") Duration countersTtl) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.channel = channel;
+        this.entries = new BoundedTtlCache<>(maxSize, ttl);
+        // TTL pendek sebagai jaring pengaman untuk perubahan tanpa event (misal reconciler comment count)
+        this.counters = new BoundedTtlCache<>(maxSize, countersTtl);
+
+        Gauge.builder("social.post.slug-cache.size", this, PostSlugCache::size)
+                .description("Jumlah slug di near-cache")
+                .register(meterRegistry);
+        this.hits = Counter.builder("social.post.slug-cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("social.post.slug-cache.misses").register(meterRegistry);
+        this.invalidations = Counter.builder("social.post.slug-cache.invalidations")
+                .description("Invalidasi yang diterima dari Redis pub/sub")
+                .register(meterRegistry);
+        this.counterHits = Counter.builder("social.post.counter-cache.hits").register(meterRegistry);
+        this.counterMisses = Counter.builder("social.post.counter-cache.misses").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Ambil post dari near-cache, atau load lewat loader dan simpan hasilnya
+     * Hasil load tidak disimpan jika ada invalidasi selama loader berjalan
+     */
+    public PostDetailDto get(String slug, Supplier<PostDetailDto> loader) {
+        PostDetailDto cached = entries.getIfPresent(slug);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long seen = entries.stamp();
+        PostDetailDto post = loader.get();
+        entries.putIfUnchanged(slug, post, seen);
+        return post;
+    }
+
+    /**
+     * Counter post dari near-cache, atau load lewat loader (lookup primary key)
+     * View yang belum di-flush tidak termasuk, ditambahkan pemanggil dari ViewCountService
+     */
+    public PostCounters getCounters(Long postId, Supplier<PostCounters> loader) {
+        PostCounters cached = counters.getIfPresent(postId);
+        if (cached != null) {
+            counterHits.increment();
+            return cached;
+        }
+        counterMisses.increment();
+
+        long seen = counters.stamp();
+        PostCounters loaded = loader.get();
+        counters.putIfUnchanged(postId, loaded, seen);
+        return loaded;
+    }
+
+    /**
+     * Buang counter post dari cache semua node setelah transaction commit (satu pesan untuk semua ID)
+     */
+    public void evictCounters(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(postIds);
+        TransactionHooks.afterCommit(() -> {
+            ids.forEach(counters::invalidate);
+            try {
+                redisTemplate.convertAndSend(channel, ids);
+            } catch (RuntimeException ex) {
+                // Node lain tetap konsisten paling lambat setelah counters-ttl
+                log.warn("Gagal publish invalidasi counter {} post: {}", ids.size(), ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Buang slug dari cache semua node setelah transaction commit
+     */
+    public void evict(String... slugs) {
+        TransactionHooks.afterCommit(() -> {
+            for (String slug : slugs) {
+                if (slug == null) {
+                    continue;
+                }
+                evictLocal(slug);
+                try {
+                    redisTemplate.convertAndSend(channel, slug);
+                } catch (RuntimeException ex) {
+                    // Node lain tetap konsisten paling lambat setelah TTL
+                    log.warn("Gagal publish invalidasi slug '{}': {}", slug, ex.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Invalidasi dari node lain (termasuk pesan dari node ini sendiri)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body instanceof Collection<?> postIds) {
+            invalidations.increment();
+            for (Object postId : postIds) {
+                if (postId instanceof Number number) {
+                    counters.invalidate(number.longValue());
+                }
+            }
+        } else if (body != null) {
+            invalidations.increment();
+            evictLocal(Objects.toString(body));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictLocal(String slug) {
+        entries.invalidate(slug);
+    }
+}
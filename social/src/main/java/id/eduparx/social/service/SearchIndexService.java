@@ -0,0 +1,313 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.cache.BoundedTtlCache;
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Full-text search in-process untuk posts (PUBLISHED) dan comments (APPROVED)
+ * Menggantikan LIKE '%keyword%' yang selalu sequential scan.
+ * Index di-maintain incremental dari PostService/CommentService (setelah commit)
+ * dan bisa di-rebuild penuh dari database
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+
+    private volatile InvertedIndex postIndex = new InvertedIndex();
+    private volatile InvertedIndex commentIndex = new InvertedIndex();
+
+    // Update incremental yang masuk selama rebuild, di-replay ke index baru sebelum swap
+    // (snapshot chunk bisa dibaca sebelum update tersebut commit). Dijaga updateLock
+    private final Object updateLock = new Object();
+    private List<Consumer<InvertedIndex>> pendingPostUpdates;
+    private List<Consumer<InvertedIndex>> pendingCommentUpdates;
+
+    private volatile boolean ready = false;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    private final BoundedTtlCache<String, List<Long>> postCache;
+    private final BoundedTtlCache<String, List<Long>> commentCache;
+
+    @Value("${app.search.max-hits:1000}")
+    private int maxHits;
+
+    @Value("${app.search.rebuild-chunk-size:500}")
+    private int rebuildChunkSize;
+
+    @Value("${app.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    public SearchIndexService(PostRepository postRepository,
+                              CommentRepository commentRepository,
+                              @Value("${app.search.cache-size:256}") int cacheSize) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        // LRU hasil query tanpa TTL, dikosongkan setiap kali index berubah
+        this.postCache = new BoundedTtlCache<>(cacheSize, 0);
+        this.commentCache = new BoundedTtlCache<>(cacheSize, 0);
+    }
+
+    // ==================== INCREMENTAL MAINTENANCE ====================
+
+    /**
+     * Index post setelah transaction commit; post yang tidak PUBLISHED dikeluarkan dari index
+     */
+    public void indexPost(Post post) {
+        Long postId = post.getId();
+        if (post.getStatus() != Post.PostStatus.PUBLISHED) {
+            TransactionHooks.afterCommit(() -> applyPostUpdate(index -> index.remove(postId)));
+            return;
+        }
+        List<InvertedIndex.Field> fields = postFields(post);
+        TransactionHooks.afterCommit(() -> applyPostUpdate(index -> index.put(postId, fields)));
+    }
+
+    /**
+     * Post dihapus: keluarkan post dan approved comments-nya (ikut terhapus cascade)
+     * Dipanggil sebelum post di-delete, selagi comment ID masih bisa dibaca
+     */
+    public void removePost(Long postId) {
+        List<Long> commentIds = commentRepository.findApprovedIdsByPostId(postId);
+        TransactionHooks.afterCommit(() -> {
+            applyPostUpdate(index -> index.remove(postId));
+            if (!commentIds.isEmpty()) {
+                applyCommentUpdate(index -> commentIds.forEach(index::remove));
+            }
+        });
+    }
+
+    /**
+     * Index comment setelah transaction commit; comment yang tidak APPROVED dikeluarkan dari index
+     */
+    public void indexComment(Comment comment) {
+        Long commentId = comment.getId();
+        if (comment.getStatus() != Comment.CommentStatus.APPROVED) {
+            removeComment(commentId);
+            return;
+        }
+        indexApprovedComment(commentId, comment.getContent());
+    }
+
+    /**
+     * Index approved comment dari id + content (tanpa entity, untuk bulk moderation)
+     */
+    public void indexApprovedComment(Long commentId, String content) {
+        List<InvertedIndex.Field> fields = commentFields(content);
+        TransactionHooks.afterCommit(() -> applyCommentUpdate(index -> index.put(commentId, fields)));
+    }
+
+    public void removeComment(Long commentId) {
+        TransactionHooks.afterCommit(() -> applyCommentUpdate(index -> index.remove(commentId)));
+    }
+
+    private void applyPostUpdate(Consumer<InvertedIndex> update) {
+        synchronized (updateLock) {
+            update.accept(postIndex);
+            if (pendingPostUpdates != null) {
+                pendingPostUpdates.add(update);
+            }
+        }
+        postCache.invalidateAll();
+    }
+
+    private void applyCommentUpdate(Consumer<InvertedIndex> update) {
+        synchronized (updateLock) {
+            update.accept(commentIndex);
+            if (pendingCommentUpdates != null) {
+                pendingCommentUpdates.add(update);
+            }
+        }
+        commentCache.invalidateAll();
+    }
+
+    // ==================== SEARCH ====================
+
+    /**
+     * Cari post IDs terurut berdasarkan relevansi
+     * Optional.empty() jika index belum siap (caller fallback ke query database)
+     */
+    public Optional<List<Long>> searchPosts(String keyword) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(postCache.get(normalize(keyword), q -> postIndex.search(q, maxHits)));
+    }
+
+    /**
+     * Cari comment IDs terurut berdasarkan relevansi
+     */
+    public Optional<List<Long>> searchComments(String keyword) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(commentCache.get(normalize(keyword), q -> commentIndex.search(q, maxHits)));
+    }
+
+    /**
+     * Bentuk Page dari daftar ID hasil ranking, hanya ID pada halaman ini yang di-load dari database
+     */
+    public <T> Page<T> toPage(List<Long> rankedIds, Pageable pageable,
+                              Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, rankedIds.size());
+        }
+
+        Map<Long, T> byId = new HashMap<>();
+        for (T row : loader.apply(pageIds)) {
+            byId.put(idOf.apply(row), row);
+        }
+        List<T> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    // ==================== REBUILD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuild index penuh dari database (chunked scan berdasarkan id)
+     * Index lama tetap melayani search sampai index baru selesai dibangun;
+     * update incremental selama scan di-replay ke index baru sebelum swap
+     *
+     * @return false jika rebuild lain sedang berjalan
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            InvertedIndex newPostIndex = new InvertedIndex();
+            InvertedIndex newCommentIndex = new InvertedIndex();
+            synchronized (updateLock) {
+                pendingPostUpdates = new ArrayList<>();
+                pendingCommentUpdates = new ArrayList<>();
+            }
+
+            Pageable chunk = PageRequest.of(0, rebuildChunkSize);
+            long lastId = 0L;
+            List<Post> posts;
+            do {
+                posts = postRepository.findPublishedAfterId(lastId, chunk);
+                for (Post post : posts) {
+                    newPostIndex.put(post.getId(), postFields(post));
+                    lastId = post.getId();
+                }
+            } while (posts.size() == rebuildChunkSize);
+
+            lastId = 0L;
+            List<Comment> comments;
+            do {
+                comments = commentRepository.findApprovedAfterId(lastId, chunk);
+                for (Comment comment : comments) {
+                    newCommentIndex.put(comment.getId(), commentFields(comment.getContent()));
+                    lastId = comment.getId();
+                }
+            } while (comments.size() == rebuildChunkSize);
+
+            int replayed;
+            synchronized (updateLock) {
+                pendingPostUpdates.forEach(update -> update.accept(newPostIndex));
+                pendingCommentUpdates.forEach(update -> update.accept(newCommentIndex));
+                replayed = pendingPostUpdates.size() + pendingCommentUpdates.size();
+                postIndex = newPostIndex;
+                commentIndex = newCommentIndex;
+                pendingPostUpdates = null;
+                pendingCommentUpdates = null;
+            }
+            postCache.invalidateAll();
+            commentCache.invalidateAll();
+            ready = true;
+
+            log.info("Search index rebuilt: {} posts, {} comments ({} updates replayed) in {} ms",
+                    newPostIndex.size(), newCommentIndex.size(), replayed, System.currentTimeMillis() - start);
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Gagal rebuild search index", ex);
+            throw ex;
+        } finally {
+            synchronized (updateLock) {
+                pendingPostUpdates = null;
+                pendingCommentUpdates = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Statistik index untuk monitoring
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("indexedPosts", postIndex.size());
+        stats.put("indexedComments", commentIndex.size());
+        stats.put("cachedPostQueries", postCache.size());
+        stats.put("cachedCommentQueries", commentCache.size());
+        return stats;
+    }
+
+    // ==================== HELPERS ====================
+
+    private List<InvertedIndex.Field> postFields(Post post) {
+        return List.of(
+                new InvertedIndex.Field(post.getTitle(), TITLE_WEIGHT),
+                new InvertedIndex.Field(post.getExcerpt(), CONTENT_WEIGHT),
+                new InvertedIndex.Field(post.getContent(), CONTENT_WEIGHT));
+    }
+
+    private List<InvertedIndex.Field> commentFields(String content) {
+        return List.of(new InvertedIndex.Field(content, CONTENT_WEIGHT));
+    }
+
+    private String normalize(String keyword) {
+        return keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+    }
+}
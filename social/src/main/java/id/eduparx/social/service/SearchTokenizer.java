@@ -0,0 +1,76 @@
+package id.eduparx.social.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer sederhana untuk full-text index
+ * Lowercase, buang tag HTML, split pada karakter non huruf/angka, buang stopword
+ */
+final class SearchTokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    // Stopword umum Bahasa Indonesia dan Inggris
+    private static final Set<String> STOPWORDS = Set.of(
+        "dan", "yang", "di", "ke", "dari", "ini", "itu", "untuk", "dengan", "atau",
+        "pada", "adalah", "juga", "tidak", "akan", "ada", "sudah", "saya", "kami", "kita",
+        "the", "and", "or", "of", "to", "in", "is", "it", "for", "on", "with", "as",
+        "an", "be", "are", "was", "at", "by", "this", "that", "from"
+    );
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Tokenize teks menjadi list token (boleh duplikat, urutan dipertahankan)
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        boolean inTag = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '<') {
+                inTag = true;
+                flush(current, tokens);
+                continue;
+            }
+            if (inTag) {
+                if (ch == '>') {
+                    inTag = false;
+                }
+                continue;
+            }
+            if (Character.isLetterOrDigit(ch)) {
+                current.append(ch);
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() == 0) {
+            return;
+        }
+        String token = current.toString().toLowerCase(Locale.ROOT);
+        current.setLength(0);
+        if (token.length() < MIN_TOKEN_LENGTH || token.length() > MAX_TOKEN_LENGTH) {
+            return;
+        }
+        if (STOPWORDS.contains(token)) {
+            return;
+        }
+        tokens.add(token);
+    }
+}
@@ -0,0 +1,425 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.PostSummaryDto;
+import id.eduparx.social.repository.FollowRepository;
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Home timeline per user (fan-out on write)
+ * Setiap user punya sorted set Redis berisi ID post dari author yang di-follow
+ * (score = publishedAt epoch millis), dibatasi max-size entry dan kedaluwarsa jika
+ * tidak dibaca selama ttl. Post yang baru published di-push ke timeline follower di
+ * background setelah commit. Author dengan follower >= celebrity-threshold tidak di-push,
+ * post-nya ditarik saat timeline dibaca (fan-out on read) lalu di-merge
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    // Posisi "sebelum" untuk halaman pertama
+    private static final LocalDateTime FIRST_PAGE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    // Entry ekstra per halaman untuk post dengan millis publishedAt yang sama dengan cursor
+    private static final int TIE_SLACK = 16;
+    // Member penanda timeline kosong hasil rebuild (key tetap ada sehingga read berikutnya tidak rebuild lagi),
+    // bukan ID post: dilewati saat dibaca dan terbuang oleh trim setelah timeline penuh
+    static final String EMPTY_MARKER = "empty";
+
+    // Push hanya ke timeline yang ada (user aktif); timeline yang tidak ada dibangun ulang saat dibaca
+    private static final byte[] PUSH_SCRIPT = (
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2]) " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[3]) - 1) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redis;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final String keyPrefix;
+    private final String celebritiesKey;
+    private final int maxSize;
+    private final int celebrityThreshold;
+    private final int fanOutChunkSize;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter pushFanOuts;
+    private final Counter celebrityFanOuts;
+    private final Counter failedFanOuts;
+    private final Counter callerRuns;
+    private final Counter timelinesWritten;
+    private final Counter rebuilds;
+    private final Timer fanOutDuration;
+
+    public TimelineService(StringRedisTemplate redis,
+                           FollowRepository followRepository,
+                           PostRepository postRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.timeline.key-prefix:social:timeline:}") String keyPrefix,
+                           @Value("${app.timeline.max-size:800}") int maxSize,
+                           @Value("${app.timeline.celebrity-threshold:10000}") int celebrityThreshold,
+                           @Value("${app.timeline.fanout-chunk-size:500}") int fanOutChunkSize,
+                           @Value("${app.timeline.ttl:14d}") Duration ttl,
+                           @Value("${app.timeline.workers:2}") int workers,
+                           @Value("${app.timeline.queue-capacity:1000}") int queueCapacity) {
+        this.redis = redis;
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+        this.keyPrefix = keyPrefix;
+        this.celebritiesKey = keyPrefix + "celebrities";
+        this.maxSize = maxSize;
+        this.celebrityThreshold = celebrityThreshold;
+        this.fanOutChunkSize = fanOutChunkSize;
+        this.ttl = ttl;
+        this.executor = createExecutor(workers, queueCapacity);
+
+        Gauge.builder("social.timeline.fanout.queue.depth", executor, e -> e.getQueue().size())
+                .description("Jumlah fan-out yang menunggu worker")
+                .register(meterRegistry);
+        this.pushFanOuts = fanOutCounter(meterRegistry, "push");
+        this.celebrityFanOuts = fanOutCounter(meterRegistry, "celebrity");
+        this.failedFanOuts = fanOutCounter(meterRegistry, "failed");
+        this.callerRuns = fanOutCounter(meterRegistry, "caller-runs");
+        this.timelinesWritten = Counter.builder("social.timeline.fanout.entries")
+                .description("Timeline yang menerima post baru lewat fan-out")
+                .register(meterRegistry);
+        this.rebuilds = Counter.builder("social.timeline.rebuilds")
+                .description("Timeline yang dibangun ulang dari database saat dibaca")
+                .register(meterRegistry);
+        this.fanOutDuration = Timer.builder("social.timeline.fanout.duration")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Post baru published: fan-out ke timeline follower di background setelah commit
+     */
+    public void onPostPublished(Long postId, Long authorId, LocalDateTime publishedAt) {
+        TransactionHooks.afterCommit(() -> submit(() -> fanOut(postId, authorId, publishedAt)));
+    }
+
+    /**
+     * Follow baru: post terbaru followee masuk ke timeline follower (jika timeline-nya ada)
+     */
+    public void onFollow(Long followerId, Long followeeId) {
+        TransactionHooks.afterCommit(() -> submit(() -> {
+            String key = key(followerId);
+            if (isCelebrity(followeeId) || !Boolean.TRUE.equals(redis.hasKey(key))) {
+                return;
+            }
+            Set<TypedTuple<String>> tuples = recentPostsOf(followeeId).stream()
+                    .map(entry -> TypedTuple.of(Long.toString(entry.postId()), (double) score(entry.publishedAt())))
+                    .collect(Collectors.toSet());
+            if (!tuples.isEmpty()) {
+                redis.opsForZSet().add(key, tuples);
+                redis.opsForZSet().removeRange(key, 0, -maxSize - 1);
+            }
+        }));
+    }
+
+    /**
+     * Unfollow: post followee dikeluarkan dari timeline follower
+     */
+    public void onUnfollow(Long followerId, Long followeeId) {
+        TransactionHooks.afterCommit(() -> submit(() -> {
+            Object[] members = recentPostsOf(followeeId).stream()
+                    .map(entry -> Long.toString(entry.postId()))
+                    .toArray();
+            if (members.length > 0) {
+                redis.opsForZSet().remove(key(followerId), members);
+            }
+        }));
+    }
+
+    /**
+     * Satu halaman home timeline (cursor), biaya sebanding ukuran halaman:
+     * range sorted set + post author celebrity yang di-follow, lalu satu query hydrate
+     * Post yang sudah dihapus/unpublished dilewati saat hydrate
+     */
+    public CursorPage<PostSummaryDto> getTimeline(Long userId, String cursor, int size) {
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+        Position before = position == null
+                ? new Position(Long.MAX_VALUE, Long.MAX_VALUE)
+                : new Position(score(position.timestamp()), position.id());
+
+        String key = key(userId);
+        if (Boolean.TRUE.equals(redis.hasKey(key))) {
+            redis.expire(key, ttl);
+        } else {
+            rebuild(userId);
+        }
+
+        List<Entry> candidates = new ArrayList<>(readPushed(key, before, size + 1));
+        candidates.addAll(readCelebrities(userId, before, size + 1));
+        List<Entry> entries = candidates.stream()
+                .distinct()
+                .sorted(Entry.NEWEST_FIRST)
+                .limit(size + 1L)
+                .toList();
+
+        boolean hasNext = entries.size() > size;
+        List<Entry> page = hasNext ? entries.subList(0, size) : entries;
+        String nextCursor = null;
+        if (hasNext) {
+            Entry last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.publishedAt(), last.postId());
+        }
+        return new CursorPage<>(hydrate(page), size, nextCursor, hasNext);
+    }
+
+    void fanOut(Long postId, Long authorId, LocalDateTime publishedAt) {
+        long start = System.nanoTime();
+        String score = Long.toString(score(publishedAt));
+        String member = Long.toString(postId);
+        // Author selalu melihat post sendiri di timeline-nya
+        int written = push(List.of(authorId), score, member);
+
+        if (followRepository.countFollowersUpTo(authorId, celebrityThreshold) >= celebrityThreshold) {
+            redis.opsForSet().add(celebritiesKey, Long.toString(authorId));
+            celebrityFanOuts.increment();
+        } else {
+            redis.opsForSet().remove(celebritiesKey, Long.toString(authorId));
+            long afterId = 0;
+            List<Long> followers;
+            do {
+                followers = followRepository.findFollowerIdsAfter(authorId, afterId, PageRequest.of(0, fanOutChunkSize));
+                if (!followers.isEmpty()) {
+                    written += push(followers, score, member);
+                    afterId = followers.get(followers.size() - 1);
+                }
+            } while (followers.size() == fanOutChunkSize);
+            pushFanOuts.increment();
+        }
+        timelinesWritten.increment(written);
+        fanOutDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Push satu post ke timeline sekumpulan user dalam satu pipeline
+     * @return jumlah timeline yang benar-benar ditulis
+     */
+    private int push(List<Long> userIds, String score, String member) {
+        byte[] scoreBytes = bytes(score);
+        byte[] memberBytes = bytes(member);
+        byte[] maxSizeBytes = bytes(Integer.toString(maxSize));
+        List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userId : userIds) {
+                connection.scriptingCommands().eval(PUSH_SCRIPT, ReturnType.INTEGER, 1,
+                        bytes(key(userId)), scoreBytes, memberBytes, maxSizeBytes);
+            }
+            return null;
+        });
+        int written = 0;
+        for (Object result : results) {
+            if (result instanceof Long value && value == 1L) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private void rebuild(Long userId) {
+        rebuilds.increment();
+        Set<Long> authors = new HashSet<>(followRepository.findFolloweeIds(userId));
+        // Post celebrity ditarik saat dibaca, kecuali post sendiri
+        authors.removeAll(celebrities());
+        authors.add(userId);
+        List<Entry> recent = entries(postRepository.findPublishedByAuthorsBefore(
+                authors, FIRST_PAGE, Long.MAX_VALUE, PageRequest.of(0, maxSize)));
+        Set<TypedTuple<String>> tuples = recent.stream()
+                .map(entry -> TypedTuple.of(Long.toString(entry.postId()), (double) score(entry.publishedAt())))
+                .collect(Collectors.toSet());
+        if (tuples.isEmpty()) {
+            tuples = Set.of(TypedTuple.of(EMPTY_MARKER, 0.0));
+        }
+        String key = key(userId);
+        redis.opsForZSet().add(key, tuples);
+        redis.expire(key, ttl);
+    }
+
+    private List<Entry> readPushed(String key, Position before, int limit) {
+        Set<TypedTuple<String>> tuples = redis.opsForZSet()
+                .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, before.score(), 0, limit + TIE_SLACK);
+        List<Entry> entries = new ArrayList<>();
+        if (tuples != null) {
+            for (TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() == null || tuple.getScore() == null || EMPTY_MARKER.equals(tuple.getValue())) {
+                    continue;
+                }
+                Entry entry = new Entry(Long.parseLong(tuple.getValue()), fromScore(tuple.getScore().longValue()));
+                if (entry.isBefore(before)) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<Entry> readCelebrities(Long userId, Position before, int limit) {
+        Set<Long> celebrities = celebrities();
+        if (celebrities.isEmpty()) {
+            return List.of();
+        }
+        List<Long> followed = followRepository.findFolloweeIdsIn(userId, celebrities);
+        if (followed.isEmpty()) {
+            return List.of();
+        }
+        // Batas atas 1 ms setelah cursor, sisanya disaring dengan presisi millis seperti score Redis
+        LocalDateTime upper = before.score() == Long.MAX_VALUE ? FIRST_PAGE : fromScore(before.score() + 1);
+        return entries(postRepository.findPublishedByAuthorsBefore(followed, upper, Long.MIN_VALUE,
+                PageRequest.of(0, limit + TIE_SLACK))).stream()
+                .filter(entry -> entry.isBefore(before))
+                .toList();
+    }
+
+    private List<PostSummaryDto> hydrate(List<Entry> page) {
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PostSummaryDto> byId = postRepository.findPublishedSummariesByIdIn(
+                        page.stream().map(Entry::postId).toList()).stream()
+                .collect(Collectors.toMap(PostSummaryDto::id, post -> post));
+        List<PostSummaryDto> posts = new ArrayList<>(page.size());
+        for (Entry entry : page) {
+            PostSummaryDto post = byId.get(entry.postId());
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    private List<Entry> recentPostsOf(Long authorId) {
+        return entries(postRepository.findPublishedByAuthorsBefore(
+                List.of(authorId), FIRST_PAGE, Long.MAX_VALUE, PageRequest.of(0, maxSize)));
+    }
+
+    private boolean isCelebrity(Long userId) {
+        return Boolean.TRUE.equals(redis.opsForSet().isMember(celebritiesKey, Long.toString(userId)));
+    }
+
+    private Set<Long> celebrities() {
+        Set<String> members = redis.opsForSet().members(celebritiesKey);
+        if (members == null || members.isEmpty()) {
+            return Set.of();
+        }
+        return members.stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    private void submit(Runnable task) {
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                failedFanOuts.increment();
+                log.warn("Update timeline gagal: {}", ex.getMessage(), ex);
+            }
+        };
+        try {
+            executor.execute(guarded);
+        } catch (RejectedExecutionException ex) {
+            // Antrian penuh: jalankan di thread pemanggil daripada kehilangan post di timeline follower
+            callerRuns.increment();
+            guarded.run();
+        }
+    }
+
+    private String key(Long userId) {
+        return keyPrefix + userId;
+    }
+
+    private static List<Entry> entries(List<Object[]> rows) {
+        List<Entry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDateTime publishedAt = (LocalDateTime) row[1];
+            entries.add(new Entry((Long) row[0], fromScore(score(publishedAt))));
+        }
+        return entries;
+    }
+
+    static long score(LocalDateTime publishedAt) {
+        return publishedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromScore(long score) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(score), ZoneOffset.UTC);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Counter fanOutCounter(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("social.timeline.fanout")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadPoolExecutor createExecutor(int workers, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timeline-fanout-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Posisi seek (score millis, post id), entry valid jika lebih lama dari posisi ini
+     */
+    private record Position(long score, long id) {
+    }
+
+    private record Entry(long postId, LocalDateTime publishedAt) {
+
+        static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing(Entry::publishedAt)
+                .thenComparingLong(Entry::postId)
+                .reversed();
+
+        boolean isBefore(Position position) {
+            long score = score(publishedAt);
+            return score < position.score() || (score == position.score() && postId < position.id());
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Trending engine in-memory (sliding window + exponential decay)
+ * Event like, comment dan view dikumpulkan ke bucket waktu per post,
+ * skor = jumlah bucket dalam window yang di-decay berdasarkan umur bucket.
+ * Top-K dihitung ulang secara periodik, sehingga read trending hanya O(K)
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private final PostRepository postRepository;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<Long, PostScore> scores = new ConcurrentHashMap<>();
+    private volatile List<Long> topPostIds = List.of();
+    private volatile boolean ready = false;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long windowMillis;
+    private final double[] decayByAge;
+    private final int topK;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final double viewWeight;
+
+    public TrendingService(PostRepository postRepository,
+                           Clock clock,
+                           @Value("${app.trending.window:7d}") Duration window,
+                           @Value("${app.trending.bucket:1h}") Duration bucket,
+                           @Value("${app.trending.half-life:24h}") Duration halfLife,
+                           @Value("${app.trending.top-k:100}") int topK,
+                           @Value("${app.trending.like-weight:1.0}") double likeWeight,
+                           @Value("${app.trending.comment-weight:1.0}") double commentWeight,
+                           @Value("${app.trending.view-weight:0.05}") double viewWeight) {
+        this.postRepository = postRepository;
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+        this.windowMillis = window.toMillis();
+        this.bucketCount = (int) Math.max(1, windowMillis / bucketMillis);
+        this.topK = topK;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+        this.viewWeight = viewWeight;
+
+        // Faktor decay per umur bucket, dihitung sekali
+        this.decayByAge = new double[bucketCount];
+        double halfLifeMillis = halfLife.toMillis();
+        for (int age = 0; age < bucketCount; age++) {
+            decayByAge[age] = Math.pow(0.5, (age * (double) bucketMillis) / halfLifeMillis);
+        }
+    }
+
+    // ==================== EVENTS ====================
+
+    /**
+     * Mulai tracking post yang baru published (setelah commit)
+     */
+    public void onPostPublished(Long postId, LocalDateTime publishedAt) {
+        long publishedAtMillis = toMillis(publishedAt);
+        TransactionHooks.afterCommit(() -> {
+            if (publishedAtMillis >= now() - windowMillis) {
+                scores.computeIfAbsent(postId, id -> new PostScore(publishedAtMillis, bucketCount));
+            }
+        });
+    }
+
+    /**
+     * Berhenti tracking post (dihapus atau tidak lagi published)
+     */
+    public void onPostRemoved(Long postId) {
+        TransactionHooks.afterCommit(() -> scores.remove(postId));
+    }
+
+    public void recordLike(Long postId, int delta) {
+        TransactionHooks.afterCommit(() -> record(postId, delta * likeWeight));
+    }
+
+    public void recordComment(Long postId, int delta) {
+        TransactionHooks.afterCommit(() -> record(postId, delta * commentWeight));
+    }
+
+    public void recordView(Long postId) {
+        record(postId, viewWeight);
+    }
+
+    private void record(Long postId, double weight) {
+        if (weight == 0) {
+            return;
+        }
+        // Post yang tidak di-track (belum published / di luar window) diabaikan
+        PostScore score = scores.get(postId);
+        if (score == null) {
+            return;
+        }
+        if (weight > 0) {
+            score.add(now() / bucketMillis, weight);
+        } else {
+            // Unlike/hapus comment: bucket tempat event asalnya tidak diketahui, kurangi dari bucket terbaru
+            // ke yang lebih lama tanpa membuat bucket negatif
+            score.remove(now() / bucketMillis, -weight);
+        }
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Trending post IDs, O(limit) dari snapshot top-K
+     * Optional.empty() jika engine belum siap atau limit melebihi top-K (caller fallback ke database)
+     */
+    public Optional<List<Long>> getTrendingPostIds(int limit) {
+        if (!ready || limit > topK) {
+            return Optional.empty();
+        }
+        List<Long> snapshot = topPostIds;
+        return Optional.of(snapshot.subList(0, Math.min(limit, snapshot.size())));
+    }
+
+    // ==================== REFRESH & REBUILD ====================
+
+    /**
+     * Hitung ulang top-K dan buang post yang sudah keluar dari window
+     */
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:30000}")
+    public void refresh() {
+        long nowMillis = now();
+        long nowEpoch = nowMillis / bucketMillis;
+        long cutoff = nowMillis - windowMillis;
+
+        // Min-heap berukuran K: O(N log K)
+        PriorityQueue<Map.Entry<Long, Double>> heap =
+                new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Long, PostScore> entry : scores.entrySet()) {
+            PostScore score = entry.getValue();
+            if (score.publishedAtMillis < cutoff) {
+                scores.remove(entry.getKey(), score);
+                continue;
+            }
+            double value = score.score(nowEpoch, decayByAge);
+            if (value <= 0) {
+                continue;
+            }
+            heap.offer(Map.entry(entry.getKey(), value));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        topPostIds = List.copyOf(ranked);
+    }
+
+    /**
+     * Seed skor dari database saat startup (likeCount, commentCount, viewCount
+     * post yang published dalam window, ditaruh pada bucket publishedAt)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(now() - windowMillis), ZoneId.systemDefault());
+            List<Object[]> rows = postRepository.findTrendingSeedSince(since);
+
+            for (Object[] row : rows) {
+                Long postId = (Long) row[0];
+                long publishedAtMillis = toMillis((LocalDateTime) row[1]);
+                double seed = ((Integer) row[2]) * likeWeight
+                        + ((Integer) row[3]) * commentWeight
+                        + ((Integer) row[4]) * viewWeight;
+
+                PostScore score = scores.computeIfAbsent(postId, id -> new PostScore(publishedAtMillis, bucketCount));
+                score.add(publishedAtMillis / bucketMillis, seed);
+            }
+
+            refresh();
+            ready = true;
+            log.info("Trending engine seeded with {} posts in {} ms", rows.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            log.error("Gagal seed trending engine, trending akan fallback ke database", ex);
+        }
+    }
+
+    private long now() {
+        return clock.millis();
+    }
+
+    // publishedAt disimpan sebagai LocalDateTime zona JVM, Clock hanya dipakai sebagai sumber instant
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Ring buffer bucket skor untuk satu post
+     * Bucket di-reuse ketika epoch-nya sudah keluar dari window
+     */
+    private static final class PostScore {
+        private final long publishedAtMillis;
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        PostScore(long publishedAtMillis, int bucketCount) {
+            this.publishedAtMillis = publishedAtMillis;
+            this.buckets = new AtomicReferenceArray<>(bucketCount);
+        }
+
+        void add(long epoch, double weight) {
+            int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.epoch == epoch) {
+                    bucket.value.add(weight);
+                    return;
+                }
+                if (bucket != null && bucket.epoch > epoch) {
+                    // Event terlambat untuk slot yang sudah di-reuse, abaikan
+                    return;
+                }
+                Bucket fresh = new Bucket(epoch);
+                if (buckets.compareAndSet(slot, bucket, fresh)) {
+                    fresh.value.add(weight);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Kurangi amount dari bucket epoch, sisanya dari bucket sebelumnya (masih dalam ring)
+         */
+        void remove(long epoch, double amount) {
+            double remaining = amount;
+            for (int age = 0; age < buckets.length() && remaining > 0; age++) {
+                long bucketEpoch = epoch - age;
+                Bucket bucket = buckets.get((int) Math.floorMod(bucketEpoch, (long) buckets.length()));
+                if (bucket != null && bucket.epoch == bucketEpoch) {
+                    remaining -= bucket.take(remaining);
+                }
+            }
+        }
+
+        double score(long nowEpoch, double[] decayByAge) {
+            double total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                Bucket bucket = buckets.get(i);
+                if (bucket == null) {
+                    continue;
+                }
+                long age = nowEpoch - bucket.epoch;
+                if (age < 0 || age >= decayByAge.length) {
+                    continue;
+                }
+                total += bucket.value.sum() * decayByAge[(int) age];
+            }
+            return total;
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final DoubleAdder value = new DoubleAdder();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        /**
+         * Ambil maksimal amount tanpa membuat bucket negatif (add paralel hanya menambah, jadi cukup
+         * pengurangan yang diserialkan)
+         * @return jumlah yang benar-benar dikurangi
+         */
+        synchronized double take(double amount) {
+            double taken = Math.min(value.sum(), amount);
+            if (taken <= 0) {
+                return 0;
+            }
+            value.add(-taken);
+            return taken;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import id.eduparx.social.dto.UserProfileUpdateDto;
 import id.eduparx.social.exception.ResourceNotFoundException;
 import id.eduparx.social.model.User;
 import id.eduparx.social.model.User.Role;
+import id.eduparx.social.repository.FollowRepository;
 import id.eduparx.social.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.data.domain.Page;
@@ -30,6 +31,15 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private LikeService likeService;
+
     // @Autowired
     // private PasswordEncoder passwordEncoder;
 
@@ -81,11 +91,16 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserDto deleteUser(Long id) {
         User userResult = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User Tidak Ditemukan"));
 
+        followRepository.deleteAllOfUser(id);
+        // Sebelum delete: posts/comments milik user masih bisa dicari untuk membuang like-nya
+        likeService.onUserDeleted(id);
         userRepository.delete(userResult);
+        leaderboardService.onUserDeleted(id);
 
         UserDto userDto = new UserDto();
         userDto.setUsername(userResult.getUsername());
@@ -120,7 +135,8 @@ public class UserServiceImpl implements UserService {
             // Delete old profile image if exists
             if (user.getProfileImageUrl() != null && !user.getProfileImageUrl().isEmpty()) {
                 String oldFileName = extractFileNameFromUrl(user.getProfileImageUrl());
-                fileStorageService.deleteFile(oldFileName);
+                // Hanya melepas referensi milik user ini (URL bisa diisi bebas lewat update profile)
+                fileStorageService.deleteFile(oldFileName, userId);
             }
             user.setProfileImageUrl(updateDto.getProfileImageUrl());
         }
@@ -139,7 +155,7 @@ public class UserServiceImpl implements UserService {
         // Delete old profile image if exists
         if (user.getProfileImageUrl() != null && !user.getProfileImageUrl().isEmpty()) {
             String oldFileName = extractFileNameFromUrl(user.getProfileImageUrl());
-            fileStorageService.deleteFile(oldFileName);
+            fileStorageService.deleteFile(oldFileName, userId);
         }
 
         user.setProfileImageUrl(imageUrl);
@@ -0,0 +1,198 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind view counter untuk posts
+ * View dikumpulkan di memory (LongAdder per post, striped) lalu di-flush
+ * ke posts.view_count secara periodik dalam batch UPDATE,
+ * sehingga GET post tidak lagi mengunci row posts
+ */
+@Service
+public class ViewCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountService.class);
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    // Lock (bukan synchronized): flush melakukan I/O JDBC, synchronized akan mem-pin carrier thread
+    // saat berjalan di virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final PostRepository postRepository;
+    private final PostSlugCache postSlugCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushTimer;
+    private final Counter flushedViews;
+    private final Counter failedFlushes;
+
+    public ViewCountService(PostRepository postRepository,
+                            PostSlugCache postSlugCache,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.postSlugCache = postSlugCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("social.views.pending.posts", pendingViews, Map::size)
+                .description("Jumlah post dengan view yang belum di-flush")
+                .register(meterRegistry);
+        Gauge.builder("social.views.pending.deltas", this, ViewCountService::getTotalPendingViews)
+                .description("Total view yang belum di-flush ke database")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("social.views.flush")
+                .description("Durasi flush view count ke database")
+                .register(meterRegistry);
+        this.flushedViews = Counter.builder("social.views.flushed")
+                .description("Total view yang sudah di-flush ke database")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("social.views.flush.failures")
+                .description("Jumlah flush view count yang gagal")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Catat satu view untuk post (tanpa akses database)
+     */
+    public void recordView(Long postId) {
+        LongAdder adder = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+        adder.increment();
+        if (pendingViews.get(postId) != adder) {
+            // Adder sudah dibuang drain() sebagai entry idle, pindahkan increment ke adder baru
+            long moved = adder.sumThenReset();
+            if (moved != 0) {
+                pendingViews.computeIfAbsent(postId, id -> new LongAdder()).add(moved);
+            }
+        }
+    }
+
+    /**
+     * View yang sudah tercatat tapi belum di-flush untuk post tertentu
+     */
+    public long getPendingViews(Long postId) {
+        LongAdder adder = pendingViews.get(postId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * Total view yang belum di-flush (semua post)
+     */
+    public long getTotalPendingViews() {
+        long total = 0;
+        for (LongAdder adder : pendingViews.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Flush periodik, interval dibatasi oleh app.view-count.flush-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${app.view-count.flush-interval-ms:5000}",
+               initialDelayString = "${app.view-count.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Flush semua pending view sebelum aplikasi berhenti
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("View count flushed on shutdown: {} views", flushed);
+    }
+
+    /**
+     * Flush pending view ke database
+     * Post dengan delta yang sama digabung dalam satu UPDATE ... WHERE id IN (...)
+     *
+     * @return jumlah view yang berhasil di-flush
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        Map<Long, Long> drained = drain();
+        if (drained.isEmpty()) {
+            return 0;
+        }
+
+        // Group post berdasarkan delta, satu statement per delta
+        Map<Long, List<Long>> postsByDelta = new HashMap<>();
+        drained.forEach((postId, delta) ->
+                postsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(postId));
+
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    postsByDelta.forEach((delta, postIds) ->
+                            postRepository.incrementViewCountBy(postIds, delta.intValue()))));
+        } catch (RuntimeException ex) {
+            // Kembalikan delta supaya tidak hilang, dicoba lagi pada flush berikutnya
+            drained.forEach((postId, delta) ->
+                    pendingViews.computeIfAbsent(postId, id -> new LongAdder()).add(delta));
+            failedFlushes.increment();
+            log.warn("Gagal flush view count untuk {} post, akan dicoba lagi", drained.size(), ex);
+            return 0;
+        }
+
+        // View yang tadinya pending sekarang ada di view_count: counter yang di-cache sudah basi
+        postSlugCache.evictCounters(drained.keySet());
+        long total = drained.values().stream().mapToLong(Long::longValue).sum();
+        flushedViews.increment(total);
+        return (int) total;
+    }
+
+    /**
+     * Ambil delta per post dengan get-and-reset atomic (sumThenReset, getAndSet per cell)
+     * sehingga increment yang masuk bersamaan tidak hilang: ikut ter-drain atau tetap di adder
+     */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0) {
+                // Entry idle, buang dari map; increment yang telat ikut di-drain,
+                // increment setelahnya dipindahkan sendiri oleh recordView
+                if (pendingViews.remove(entry.getKey(), adder)) {
+                    delta = adder.sumThenReset();
+                }
+                if (delta == 0) {
+                    continue;
+                }
+            }
+            // Batasi delta ke range Integer untuk parameter query, sisanya dikembalikan
+            if (delta > Integer.MAX_VALUE) {
+                pendingViews.computeIfAbsent(entry.getKey(), id -> new LongAdder()).add(delta - Integer.MAX_VALUE);
+                delta = Integer.MAX_VALUE;
+            }
+            drained.put(entry.getKey(), delta);
+        }
+        return drained;
+    }
+}
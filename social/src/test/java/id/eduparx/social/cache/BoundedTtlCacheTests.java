@@ -0,0 +1,54 @@
+package id.eduparx.social.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedTtlCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() throws Exception {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 0);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.getIfPresent("a");
+        cache.put("c", "3");
+        assertEquals("1", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(2, cache.size());
+
+        cache.put("d", "4", 1);
+        Thread.sleep(5);
+        assertNull(cache.getIfPresent("d"));
+    }
+
+    @Test
+    void staysWithinMaxSizeAcrossSegments() {
+        BoundedTtlCache<Integer, Integer> cache = new BoundedTtlCache<>(1000, 0);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 1000);
+        assertEquals(9_999, cache.getIfPresent(9_999));
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+        String loaded = cache.get("slug", key -> {
+            // Invalidasi dari node lain datang saat loader masih membaca data lama
+            cache.invalidate(key);
+            return "lama";
+        });
+        assertEquals("lama", loaded);
+        assertNull(cache.getIfPresent("slug"));
+
+        assertEquals("baru", cache.get("slug", key -> "baru"));
+        assertEquals("baru", cache.getIfPresent("slug"));
+
+        cache.put("abc.png", "x");
+        cache.invalidateIf(key -> key.startsWith("abc"));
+        assertNull(cache.getIfPresent("abc.png"));
+        assertEquals("baru", cache.getIfPresent("slug"));
+    }
+}
@@ -0,0 +1,68 @@
+package id.eduparx.social.cache;
+
+import id.eduparx.social.dto.UserDto;
+import id.eduparx.social.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactBinaryRedisSerializerTests {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roundTripUsersWithAndWithoutCompression() {
+        List<UserDto> users = users(200);
+        for (int threshold : new int[] {-1, 0}) {
+            CompactBinaryRedisSerializer serializer =
+                    new CompactBinaryRedisSerializer(List.of(new UserDtoListCodec()), json, threshold);
+
+            byte[] bytes = serializer.serialize(users);
+            assertEquals(CompactBinaryRedisSerializer.MAGIC, bytes[0]);
+            assertTrue(bytes.length < json.serialize(users).length);
+
+            List<UserDto> decoded = (List<UserDto>) serializer.deserialize(bytes);
+            assertEquals(users.size(), decoded.size());
+            for (int i = 0; i < users.size(); i++) {
+                assertEquals(users.get(i).getId(), decoded.get(i).getId());
+                assertEquals(users.get(i).getUsername(), decoded.get(i).getUsername());
+                assertEquals(users.get(i).getEmail(), decoded.get(i).getEmail());
+                assertEquals(users.get(i).getBio(), decoded.get(i).getBio());
+                assertEquals(users.get(i).getProfileImageUrl(), decoded.get(i).getProfileImageUrl());
+                assertEquals(users.get(i).getRole(), decoded.get(i).getRole());
+            }
+        }
+    }
+
+    @Test
+    void unknownTypesAndLegacyJsonUseFallback() {
+        CompactBinaryRedisSerializer serializer =
+                new CompactBinaryRedisSerializer(List.of(new UserDtoListCodec()), json, 1024);
+
+        Map<String, String> value = new HashMap<>();
+        value.put("message", "halo");
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+
+        // Value JSON yang ditulis sebelum mode biner diaktifkan tetap terbaca
+        byte[] legacy = json.serialize(new ArrayList<>(users(3)));
+        assertEquals(3, ((List<?>) serializer.deserialize(legacy)).size());
+    }
+
+    private List<UserDto> users(int count) {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserDto user = new UserDto((long) i, "user" + i, "user" + i + "@eduparx.id",
+                    i % 3 == 0 ? null : "Bio singkat user nomor " + i, User.Role.USER);
+            user.setProfileImageUrl(i % 2 == 0 ? "/uploads/profile_" + i + ".png" : null);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,84 @@
+package id.eduparx.social.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TwoLevelCacheTests {
+
+    // Tanpa connection factory: publish invalidasi gagal dan hanya di-log
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(new RedisTemplate<>(), "test");
+
+    @Test
+    void concurrentMissesShareOneLoader() throws Exception {
+        TwoLevelCache cache = new TwoLevelCache("users", new LocalCacheStore(100, 60_000),
+                new ConcurrentMapCache("users"), bus, new SimpleMeterRegistry());
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> cache.get("allUsers", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "value";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void hotKeyIsRefreshedBeforeRemoteExpiry() throws Exception {
+        RedisCacheCoordinator coordinator = mock(RedisCacheCoordinator.class);
+        // Entry L2 masih 10 detik lagi (tetap di L1), beta sangat besar: early refresh terpicu pada hit berikutnya
+        // tanpa bergantung pada waktu yang berlalu antar get (peluang tidak terpicu ~1e-7)
+        when(coordinator.expiresAtAfterPut(any(), any()))
+                .thenAnswer(invocation -> System.currentTimeMillis() + 10_000);
+        when(coordinator.remoteExpiresAt(any()))
+                .thenAnswer(invocation -> System.currentTimeMillis() + 10_000);
+        StampedeSettings settings = new StampedeSettings(false, Duration.ZERO, Duration.ZERO, true, 1e9);
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+        TwoLevelCache cache = new TwoLevelCache("users", new LocalCacheStore(100, 60_000),
+                new ConcurrentMapCache("users"), bus, new SimpleMeterRegistry(),
+                coordinator, settings, refreshExecutor);
+
+        AtomicInteger loads = new AtomicInteger();
+        try {
+            assertEquals(1, (int) cache.get("allUsers", loads::incrementAndGet));
+            // Hit berikutnya (L1 atau L2) memicu reload di background
+            assertEquals(1, (int) cache.get("allUsers", loads::incrementAndGet));
+            refreshExecutor.shutdown();
+            assertTrue(refreshExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            refreshExecutor.shutdownNow();
+        }
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.get("allUsers", Integer.class));
+    }
+}
@@ -0,0 +1,130 @@
+package id.eduparx.social.controller;
+
+import id.eduparx.social.config.DataSourceProxyConfig;
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.model.User;
+import id.eduparx.social.query.QueryBudgetFilter;
+import id.eduparx.social.query.QueryInspectionListener;
+import id.eduparx.social.query.QueryInspector;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import id.eduparx.social.service.PostService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Budget @QueryBudget endpoint feed dijalankan dengan QueryBudgetFilter strict di atas H2:
+ * endpoint yang melebihi budget (misal N+1 author/comments) membuat test gagal
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.db.query-budget.strict=true"
+})
+@Import({DataSourceProxyConfig.class, QueryInspectionListener.class, QueryBudgetFilter.class,
+        FeedQueryBudgetTests.Metrics.class})
+public class FeedQueryBudgetTests {
+
+    private static final int POSTS = 12;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private QueryBudgetFilter queryBudgetFilter;
+
+    private final PostService postService = new PostService();
+    private final PostController postController = new PostController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(postService, "commentRepository", commentRepository);
+        ReflectionTestUtils.setField(postController, "postService", postService);
+
+        // Author berbeda per post dan beberapa comment per post: N+1 akan langsung terlihat
+        LocalDateTime publishedAt = LocalDateTime.of(2026, 10, 1, 12, 0);
+        for (int i = 0; i < POSTS; i++) {
+            User author = new User("author" + i, "author" + i + "@example.com", "secret");
+            entityManager.persist(author);
+            Post post = new Post("Post " + i, "Isi post " + i, author);
+            post.setSlug("post-" + i);
+            post.setStatus(Post.PostStatus.PUBLISHED);
+            post.setPublishedAt(publishedAt.plusMinutes(i));
+            entityManager.persist(post);
+            for (int c = 0; c < 4; c++) {
+                Comment comment = new Comment("Comment " + c, author, post);
+                comment.setStatus(Comment.CommentStatus.APPROVED);
+                entityManager.persist(comment);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void feedStaysWithinQueryBudget() throws Exception {
+        Method feed = PostController.class.getMethod("getPublishedFeed", String.class, int.class);
+        assertEquals(1, statementsOf(feed, () -> postController.getPublishedFeed(null, 10)));
+    }
+
+    @Test
+    void feedWithCommentsStaysWithinQueryBudget() throws Exception {
+        Method feed = PostController.class.getMethod("getPublishedFeedWithComments",
+                String.class, int.class, int.class);
+        assertEquals(3, statementsOf(feed, () -> postController.getPublishedFeedWithComments(null, 10, 3)));
+    }
+
+    /**
+     * Jalankan handler lewat filter strict (budget dari @QueryBudget handler method),
+     * @return jumlah statement yang dieksekusi handler
+     */
+    private int statementsOf(Method handler, Runnable invocation) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/feed");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/posts/feed");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(postController, handler));
+
+        int[] statements = {0};
+        queryBudgetFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            try (QueryInspector.Scope scope = QueryInspector.track()) {
+                invocation.run();
+                statements[0] = scope.stats().statementCount();
+            }
+        });
+        return statements[0];
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
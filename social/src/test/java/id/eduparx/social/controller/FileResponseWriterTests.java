@@ -0,0 +1,71 @@
+package id.eduparx.social.controller;
+
+import id.eduparx.social.dto.FileMetadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileResponseWriterTests {
+
+    @TempDir
+    Path dir;
+
+    private final FileResponseWriter writer = new FileResponseWriter(DataSize.ofKilobytes(48), new SimpleMeterRegistry());
+
+    @Test
+    void servesSingleAndMultipleRanges() throws Exception {
+        FileMetadata file = file("0123456789");
+
+        MockHttpServletResponse single = write(file, "bytes=2-5", null);
+        assertEquals(206, single.getStatus());
+        assertEquals("bytes 2-5/10", single.getHeader("Content-Range"));
+        assertEquals("2345", single.getContentAsString());
+
+        MockHttpServletResponse multi = write(file, "bytes=0-1,-2", null);
+        assertEquals(206, multi.getStatus());
+        assertTrue(multi.getContentType().startsWith("multipart/byteranges"));
+        String body = multi.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01"));
+        assertTrue(body.contains("Content-Range: bytes 8-9/10\r\n\r\n89"));
+        assertEquals(body.getBytes(StandardCharsets.US_ASCII).length, multi.getContentLengthLong());
+    }
+
+    @Test
+    void unsatisfiableOrStaleRangesAreHandled() throws Exception {
+        FileMetadata file = file("0123456789");
+
+        MockHttpServletResponse unsatisfiable = write(file, "bytes=20-30", null);
+        assertEquals(416, unsatisfiable.getStatus());
+        assertEquals("bytes */10", unsatisfiable.getHeader("Content-Range"));
+
+        MockHttpServletResponse stale = write(file, "bytes=2-5", "\"other\"");
+        assertEquals(200, stale.getStatus());
+        assertEquals("0123456789", stale.getContentAsString());
+    }
+
+    private FileMetadata file(String content) throws Exception {
+        Path path = dir.resolve("data");
+        Files.writeString(path, content);
+        return new FileMetadata("data.txt", path, content.length(), 0L, "text/plain", "\"abc\"", true);
+    }
+
+    private MockHttpServletResponse write(FileMetadata file, String range, String ifRange) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download/data.txt");
+        request.addHeader("Range", range);
+        if (ifRange != null) {
+            request.addHeader("If-Range", ifRange);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(file, request, response);
+        return response;
+    }
+}
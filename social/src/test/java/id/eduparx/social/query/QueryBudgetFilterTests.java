@@ -0,0 +1,130 @@
+package id.eduparx.social.query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import jakarta.servlet.ServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryBudgetFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:query_budget;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = ProxyDataSourceBuilder.create("test", h2)
+                .listener(new QueryInspectionListener(meterRegistry, Duration.ofSeconds(5), 1.0, Set.of("email")))
+                .build();
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists authors (id bigint primary key, name varchar(50))");
+        jdbc.execute("merge into authors key (id) values (1, 'a'), (2, 'b'), (3, 'c')");
+    }
+
+    @Test
+    void countsStatementsAndRepeatsInScope() {
+        try (QueryInspector.Scope outer = QueryInspector.track()) {
+            jdbc.queryForList("select id from authors");
+            try (QueryInspector.Scope inner = QueryInspector.track()) {
+                for (long id = 1; id <= 3; id++) {
+                    jdbc.queryForObject("select name from authors where id = ?", String.class, id);
+                }
+                assertEquals(3, inner.stats().statementCount());
+            }
+            assertEquals(4, outer.stats().statementCount());
+            assertEquals(3, outer.stats().executionsOf("select name from authors where id = ?"));
+            assertEquals(1, outer.stats().repeatedStatements(3).size());
+            assertTrue(outer.stats().repeatedStatements(4).isEmpty());
+        }
+        assertNull(QueryInspector.current());
+    }
+
+    @Test
+    void strictModeFailsRequestOverBudget() throws Exception {
+        QueryBudgetFilter strict = new QueryBudgetFilter(meterRegistry, 0, 3, true);
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThrows(QueryBudgetExceededException.class, () -> strict.doFilter(request(), rejected,
+                (req, res) -> writeAuthorsOneByOne(res)));
+        // Handler sudah menulis + flush, tapi response belum commit sehingga masih bisa jadi error response
+        assertFalse(rejected.isCommitted());
+        assertEquals("", rejected.getContentAsString());
+        assertEquals(1.0, meterRegistry.get("social.db.repeated.statements")
+                .tag("endpoint", "GET /api/fixture").counter().count());
+
+        QueryBudgetFilter lenient = new QueryBudgetFilter(meterRegistry, 0, 3, false);
+        lenient.doFilter(request(), new MockHttpServletResponse(), (req, res) -> loadAuthorsOneByOne());
+        assertEquals(2.0, meterRegistry.get("social.db.query.budget.exceeded")
+                .tag("endpoint", "GET /api/fixture").counter().count());
+        assertEquals(2, meterRegistry.get("social.db.request.statements").summary().count());
+    }
+
+    @Test
+    void strictModePassesBufferedBodyWithinBudget() throws Exception {
+        QueryBudgetFilter strict = new QueryBudgetFilter(meterRegistry, 0, 3, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        strict.doFilter(request(), response, (req, res) -> {
+            jdbc.queryForList("select id from authors");
+            res.getWriter().write("ok");
+        });
+        assertEquals("ok", response.getContentAsString());
+    }
+
+    @Test
+    void sensitiveBindsAreMaskedInSlowQueryLog() {
+        Pattern masked = QueryInspectionListener.columnPattern(Set.of("email", "password"));
+
+        assertEquals(Set.of(2, 4), QueryInspectionListener.sensitiveParameterIndexes(
+                "insert into users (bio,email,full_name,password,id) values (?,?,?,?,?)", masked));
+        assertEquals(Set.of(2), QueryInspectionListener.sensitiveParameterIndexes(
+                "update users set bio=?,password=? where id=?", masked));
+        // Kolom email di select list tidak membuat bind where lain ikut di-mask
+        assertEquals(Set.of(2), QueryInspectionListener.sensitiveParameterIndexes(
+                "select u1_0.id,u1_0.email from users u1_0 where upper(u1_0.username) like upper(?) escape '\\' " +
+                "or upper(u1_0.email) like upper(?) escape '\\' and u1_0.role=?", masked));
+        assertTrue(QueryInspectionListener.sensitiveParameterIndexes(
+                "select name from authors where id = ?", masked).isEmpty());
+    }
+
+    private void writeAuthorsOneByOne(ServletResponse response) throws IOException {
+        loadAuthorsOneByOne();
+        response.getWriter().write("[]");
+        response.flushBuffer();
+    }
+
+    private void loadAuthorsOneByOne() {
+        jdbc.queryForList("select id from authors", Long.class)
+                .forEach(id -> jdbc.queryForObject("select name from authors where id = ?", String.class, id));
+    }
+
+    private MockHttpServletRequest request() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/fixture");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/fixture");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Fixture(), Fixture.class.getMethod("list")));
+        return request;
+    }
+
+    static class Fixture {
+        @QueryBudget(2)
+        public void list() {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommentCountReconcilerTests {
+
+    @Test
+    void locksEachBatchBeforeRecounting() {
+        PostRepository postRepository = mock(PostRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        CommentCountReconciler reconciler = new CommentCountReconciler(postRepository, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(reconciler, "batchSize", 2);
+        when(postRepository.findReconcileBatchUpperId(0L, 2)).thenReturn(2L);
+        when(postRepository.findReconcileBatchUpperId(2L, 2)).thenReturn(null);
+        when(postRepository.lockReconcileBatch(0L, 2L)).thenReturn(List.of(1L, 2L));
+        when(postRepository.reconcileCommentCounts(0L, 2L)).thenReturn(1);
+
+        assertEquals(1, reconciler.reconcile());
+
+        // Lock dan recount di transaction yang sama, recount sebagai statement terpisah setelah lock
+        InOrder order = inOrder(transactionManager, postRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(postRepository).lockReconcileBatch(0L, 2L);
+        order.verify(postRepository).reconcileCommentCounts(0L, 2L);
+        order.verify(transactionManager).commit(any());
+    }
+}
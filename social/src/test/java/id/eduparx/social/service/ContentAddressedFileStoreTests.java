@@ -0,0 +1,41 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.service.ContentAddressedFileStore.StagedFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentAddressedFileStoreTests {
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void identicalUploadsShareOneFileInFanOutTree() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(uploadDir.toString());
+        store.init();
+        byte[] content = "avatar".getBytes(StandardCharsets.UTF_8);
+
+        StagedFile first = store.stage(new ByteArrayInputStream(content));
+        StagedFile second = store.stage(new ByteArrayInputStream(content));
+        assertEquals(first.hash(), second.hash());
+        assertEquals(content.length, first.size());
+
+        assertTrue(store.commit(first));
+        assertFalse(store.commit(second));
+        assertFalse(Files.exists(second.path()));
+
+        Path stored = store.pathOf(first.hash());
+        assertEquals(uploadDir.resolve(first.hash().substring(0, 2)).resolve(first.hash().substring(2, 4)),
+                stored.getParent());
+        assertArrayEquals(content, Files.readAllBytes(stored));
+        assertEquals(first.hash(), ContentAddressedFileStore.hashOf(first.hash() + ".png"));
+        assertNull(ContentAddressedFileStore.hashOf("avatar_8f14e45f.png"));
+    }
+}
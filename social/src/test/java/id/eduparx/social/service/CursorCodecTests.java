@@ -0,0 +1,33 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorCodecTests {
+
+    @Test
+    void roundTrip() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+        String cursor = CursorCodec.encode(timestamp, 42L);
+
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+        assertEquals(timestamp, position.timestamp());
+        assertEquals(42L, position.id());
+    }
+
+    @Test
+    void blankCursorIsFirstPage() {
+        assertNull(CursorCodec.decode(null));
+        assertNull(CursorCodec.decode(""));
+    }
+
+    @Test
+    void invalidCursorRejected() {
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("bukan-cursor"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("!!!"));
+    }
+}
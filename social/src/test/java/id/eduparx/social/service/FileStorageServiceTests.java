@@ -0,0 +1,79 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.FileReference;
+import id.eduparx.social.repository.FileDerivativeRepository;
+import id.eduparx.social.repository.FileReferenceRepository;
+import id.eduparx.social.repository.StoredFileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FileStorageServiceTests {
+
+    private static final String HASH = "a".repeat(64);
+    private static final String FILE_NAME = HASH + ".png";
+
+    private final StoredFileRepository storedFileRepository = mock(StoredFileRepository.class);
+    private final FileReferenceRepository fileReferenceRepository = mock(FileReferenceRepository.class);
+    private final ContentAddressedFileStore fileStore = mock(ContentAddressedFileStore.class);
+    private final FileStorageService fileStorageService = new FileStorageService(
+            fileStore, storedFileRepository, mock(PlatformTransactionManager.class),
+            mock(FileMetadataIndex.class), mock(FileDerivativeRepository.class), fileReferenceRepository,
+            new SimpleMeterRegistry());
+
+    @Test
+    void deleteOnlyReleasesTheCallersOwnReference() {
+        FileReference reference = new FileReference(HASH, FILE_NAME, 1L);
+        ReflectionTestUtils.setField(reference, "id", 100L);
+        when(fileReferenceRepository.findFirstByFileNameAndOwnerIdOrderByIdAsc(FILE_NAME, 1L))
+                .thenReturn(Optional.of(reference));
+        when(fileReferenceRepository.deleteReference(100L)).thenReturn(1);
+        when(storedFileRepository.releaseReference(HASH)).thenReturn(1);
+
+        // User lain dengan file identik (atau yang hanya tahu hash-nya) tidak bisa melepas referensi user 1
+        assertFalse(fileStorageService.deleteFile(FILE_NAME, 2L));
+        verify(storedFileRepository, never()).releaseReference(anyString());
+
+        assertTrue(fileStorageService.deleteFile(FILE_NAME, 1L));
+        verify(storedFileRepository).releaseReference(HASH);
+        verify(storedFileRepository, never()).deleteIfUnreferenced(any());
+    }
+
+    @Test
+    void physicalFileIsDeletedAfterCommitOnlyWhenStillUnreferenced() {
+        FileReference reference = new FileReference(HASH, FILE_NAME, 1L);
+        ReflectionTestUtils.setField(reference, "id", 100L);
+        when(fileReferenceRepository.findFirstByFileNameAndOwnerIdOrderByIdAsc(FILE_NAME, 1L))
+                .thenReturn(Optional.of(reference));
+        when(fileReferenceRepository.deleteReference(100L)).thenReturn(1);
+        when(storedFileRepository.releaseReference(HASH)).thenReturn(0);
+        when(fileStore.pathOf(HASH)).thenReturn(Path.of("does-not-exist"));
+
+        // Upload konten yang sama masuk lagi setelah commit: file fisik tetap dipakai
+        when(storedFileRepository.existsById(HASH)).thenReturn(true);
+        assertTrue(fileStorageService.deleteFile(FILE_NAME, 1L));
+        verify(storedFileRepository).deleteIfUnreferenced(HASH);
+        verify(fileStore, never()).delete(HASH);
+
+        when(storedFileRepository.existsById(HASH)).thenReturn(false);
+        assertTrue(fileStorageService.deleteFile(FILE_NAME, 1L));
+        InOrder order = inOrder(storedFileRepository, fileStore);
+        order.verify(storedFileRepository).lockHash(HASH);
+        order.verify(storedFileRepository).existsById(HASH);
+        order.verify(fileStore).delete(HASH);
+    }
+}
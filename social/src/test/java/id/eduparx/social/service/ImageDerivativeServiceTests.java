@@ -0,0 +1,53 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.FileDerivativeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImageDerivativeServiceTests {
+
+    @Test
+    void resizeStepsDownToExactTargetSize() {
+        BufferedImage source = new BufferedImage(1000, 600, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage medium = ImageDerivativeService.resize(source, 480, 288, false);
+        assertEquals(480, medium.getWidth());
+        assertEquals(288, medium.getHeight());
+
+        BufferedImage thumbnail = ImageDerivativeService.resize(medium, 64, 38, true);
+        assertEquals(64, thumbnail.getWidth());
+        assertEquals(38, thumbnail.getHeight());
+        assertTrue(thumbnail.getColorModel().hasAlpha());
+    }
+
+    @Test
+    void hashWithoutDerivativesIsLookedUpOnce() {
+        FileDerivativeRepository repository = mock(FileDerivativeRepository.class);
+        ImageDerivativeService service = new ImageDerivativeService(mock(FileStorageService.class),
+                mock(ContentAddressedFileStore.class), repository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), "thumbnail:64", 1, 1, Duration.ofMillis(10), 1_000_000L, 100,
+                Duration.ofMinutes(10), Duration.ofSeconds(30));
+        try {
+            String avatar = "b".repeat(64) + ".png";
+            when(repository.findBySourceHash("b".repeat(64))).thenReturn(List.of());
+
+            // Avatar kecil tidak akan pernah punya derivative: hasil kosong ikut di-cache
+            assertTrue(service.findBestFit(avatar, 64).isEmpty());
+            assertTrue(service.findBestFit(avatar, 64).isEmpty());
+            verify(repository, times(1)).findBySourceHash("b".repeat(64));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package id.eduparx.social.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvertedIndexTests {
+
+    private static List<InvertedIndex.Field> doc(String title, String content) {
+        return List.of(new InvertedIndex.Field(title, 3), new InvertedIndex.Field(content, 1));
+    }
+
+    @Test
+    void searchRanksTitleMatchesFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, doc("Belajar Spring Boot", "Tutorial dasar <b>java</b> backend"));
+        index.put(2L, doc("Resep rendang", "Spring onion dan bumbu"));
+        index.put(3L, doc("Tips Redis", "Cache untuk spring boot"));
+
+        assertEquals(List.of(1L, 3L), index.search("Spring Boot", 10));
+        assertEquals(List.of(1L), index.search("java", 10));
+        assertTrue(index.search("b", 10).isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveUpdatePostings() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, doc("Judul lama", "konten pertama"));
+        index.put(1L, doc("Judul baru", "konten kedua"));
+
+        assertTrue(index.search("lama", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("baru", 10));
+
+        index.remove(1L);
+        assertTrue(index.search("baru", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
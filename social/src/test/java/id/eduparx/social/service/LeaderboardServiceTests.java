@@ -0,0 +1,117 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.LeaderboardEntry;
+import id.eduparx.social.model.User;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import id.eduparx.social.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LeaderboardServiceTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallsBackToLocalBoardWhenRedisIsDown() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        PostRepository postRepository = mock(PostRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        RedisConnectionFailureException down = new RedisConnectionFailureException("down");
+        when(redis.opsForZSet()).thenThrow(down);
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(down);
+
+        when(postRepository.countPublishedPostsByAuthor())
+                .thenReturn(List.of(new Object[] {1L, 3L}, new Object[] {2L, 5L}, new Object[] {3L, 1L},
+                        new Object[] {4L, 2L}));
+        when(commentRepository.countApprovedCommentsByAuthor()).thenReturn(List.of());
+        when(userRepository.findAllById(any())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .map(LeaderboardServiceTests::user)
+                        .toList());
+
+        LeaderboardService leaderboard = new LeaderboardService(redis, postRepository, commentRepository,
+                userRepository, new SimpleMeterRegistry(), "lb:");
+
+        // Delta sebelum board di-build diabaikan (tidak ada skor parsial)
+        leaderboard.recordComments(Map.of(1L, 4));
+        assertTrue(leaderboard.rebuild());
+        assertTrue(leaderboard.getTop(LeaderboardService.Board.COMMENTERS, 10).isEmpty());
+
+        leaderboard.onPostPublished(1L);
+        leaderboard.onPostPublished(1L);
+        leaderboard.onPostUnpublished(2L);
+        leaderboard.onPostUnpublished(3L);
+
+        // User 3 keluar (skor 0), user 4 nonaktif dilewati
+        List<LeaderboardEntry> top = leaderboard.getTop(LeaderboardService.Board.AUTHORS, 10);
+        assertEquals(List.of(1L, 2L), top.stream().map(entry -> entry.user().id()).toList());
+        assertEquals(List.of(5L, 4L), top.stream().map(LeaderboardEntry::count).toList());
+        assertEquals(List.of(1, 2), top.stream().map(LeaderboardEntry::rank).toList());
+
+        leaderboard.onUserDeleted(1L);
+        assertEquals(List.of(2L), leaderboard.getTop(LeaderboardService.Board.AUTHORS, 1).stream()
+                .map(entry -> entry.user().id()).toList());
+    }
+
+    @Test
+    void rebuildSwapsUniqueTempKeyInOneScript() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        when(redis.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        PostRepository postRepository = mock(PostRepository.class);
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        when(postRepository.countPublishedPostsByAuthor()).thenReturn(List.<Object[]>of(new Object[] {1L, 3L}));
+        when(commentRepository.countApprovedCommentsByAuthor()).thenReturn(List.of());
+
+        LeaderboardService leaderboard = new LeaderboardService(redis, postRepository, commentRepository,
+                mock(UserRepository.class), new SimpleMeterRegistry(), "lb:");
+        assertTrue(leaderboard.rebuild());
+        assertTrue(leaderboard.rebuild());
+
+        // Setiap rebuild (dan setiap board) punya key sementara sendiri, swap-nya satu EVAL dengan 2 key
+        ArgumentCaptor<byte[]> tempKeys = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> boardKeys = ArgumentCaptor.forClass(byte[].class);
+        verify(connection.scriptingCommands(), times(4))
+                .eval(any(byte[].class), eq(ReturnType.INTEGER), eq(2), tempKeys.capture(), boardKeys.capture());
+        Set<String> distinct = tempKeys.getAllValues().stream()
+                .map(key -> new String(key, StandardCharsets.UTF_8))
+                .collect(Collectors.toSet());
+        assertEquals(4, distinct.size());
+        assertTrue(distinct.stream().allMatch(key -> key.startsWith("lb:authors:rebuild:")
+                || key.startsWith("lb:commenters:rebuild:")));
+        assertEquals("lb:authors", new String(boardKeys.getAllValues().get(0), StandardCharsets.UTF_8));
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "user" + id + "@example.com", "secret");
+        user.setId(id);
+        user.setIsActive(id != 4L);
+        return user;
+    }
+}
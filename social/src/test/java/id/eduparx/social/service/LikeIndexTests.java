@@ -0,0 +1,76 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.LikeEdge.TargetType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LikeIndexTests {
+
+    private final LikeIndex index = new LikeIndex(new RedisTemplate<>(), new RedisMessageListenerContainer(),
+            new SimpleMeterRegistry(), "test", 100, Duration.ofMinutes(10));
+
+    private final List<Collection<Long>> loads = new ArrayList<>();
+
+    @Test
+    void resolvesWholePageWithOneLoadAndAppliesCommittedLikes() {
+        Map<Long, Roaring64NavigableMap> likers = new HashMap<>();
+        likers.put(1L, Roaring64NavigableMap.bitmapOf(7, 8));
+        likers.put(3L, Roaring64NavigableMap.bitmapOf(7));
+
+        assertEquals(Set.of(1L, 3L), index.likedBy(TargetType.POST, 7, List.of(1L, 2L, 3L), ids -> load(ids, likers)));
+        assertEquals(Set.of(1L), index.likedBy(TargetType.POST, 8, List.of(1L, 2L, 3L), ids -> load(ids, likers)));
+        assertEquals(1, loads.size(), "halaman kedua dijawab dari bitmap");
+
+        index.apply(TargetType.POST, 2L, 8, true);
+        index.apply(TargetType.POST, 1L, 8, false);
+        assertEquals(Set.of(2L), index.likedBy(TargetType.POST, 8, List.of(1L, 2L, 3L), ids -> load(ids, likers)));
+        assertEquals(1, loads.size());
+
+        // POST dan COMMENT dengan ID sama adalah target berbeda
+        assertTrue(index.likedBy(TargetType.COMMENT, 7, List.of(1L), ids -> load(ids, Map.of())).isEmpty());
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void discardsLoadThatRacedWithALike() {
+        Set<Long> liked = index.likedBy(TargetType.POST, 5, List.of(10L), ids -> {
+            // Like commit di tengah load: hasil load (tanpa like tsb) tidak boleh disimpan
+            index.apply(TargetType.POST, 10L, 5, true);
+            return load(ids, Map.of());
+        });
+        assertTrue(liked.isEmpty());
+        assertEquals(0, index.size());
+
+        Map<Long, Roaring64NavigableMap> fresh = Map.of(10L, Roaring64NavigableMap.bitmapOf(5));
+        assertEquals(Set.of(10L), index.likedBy(TargetType.POST, 5, List.of(10L), ids -> load(ids, fresh)));
+        assertEquals(1, index.size());
+    }
+
+    private Map<Long, Roaring64NavigableMap> load(Collection<Long> ids, Map<Long, Roaring64NavigableMap> likers) {
+        loads.add(ids);
+        Map<Long, Roaring64NavigableMap> result = new HashMap<>();
+        for (Long id : ids) {
+            Roaring64NavigableMap bitmap = likers.get(id);
+            if (bitmap != null) {
+                // Salinan, seperti hasil query baru
+                Roaring64NavigableMap copy = new Roaring64NavigableMap();
+                copy.or(bitmap);
+                result.put(id, copy);
+            }
+        }
+        return result;
+    }
+}
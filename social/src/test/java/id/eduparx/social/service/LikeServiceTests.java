@@ -0,0 +1,49 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.LikeEdge.TargetType;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.LikeEdgeRepository;
+import id.eduparx.social.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LikeServiceTests {
+
+    private final LikeEdgeRepository likeEdgeRepository = mock(LikeEdgeRepository.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final LikeIndex likeIndex = mock(LikeIndex.class);
+    private final PostSlugCache postSlugCache = mock(PostSlugCache.class);
+    private final LikeService likeService = new LikeService(
+            likeEdgeRepository, postRepository, commentRepository, likeIndex, postSlugCache);
+
+    @Test
+    void deletedUsersLikesAreUncountedBeforeEdgesAreRemoved() {
+        when(likeEdgeRepository.findTargetIdsLikedBy(TargetType.POST, 7L)).thenReturn(List.of(1L, 2L));
+        when(likeEdgeRepository.findTargetIdsLikedBy(TargetType.COMMENT, 7L)).thenReturn(List.of());
+        when(postRepository.findIdsByAuthorId(7L)).thenReturn(List.of(10L));
+        when(commentRepository.findIdsRemovedWithUser(7L)).thenReturn(List.of(20L, 21L));
+
+        likeService.onUserDeleted(7L);
+
+        InOrder order = inOrder(postRepository, likeEdgeRepository, likeIndex);
+        order.verify(postRepository).decrementLikeCountsLikedBy(7L);
+        order.verify(likeEdgeRepository).deleteAllOfUser(7L);
+        order.verify(likeIndex).evict(TargetType.POST, List.of(1L, 2L));
+        verify(commentRepository, never()).decrementLikeCountsLikedBy(7L);
+        verify(postSlugCache).evictCounters(List.of(1L, 2L));
+
+        // Like pada post/comment milik user ikut dibuang (target terhapus cascade)
+        verify(likeEdgeRepository).deleteByTargets(TargetType.POST, List.of(10L));
+        verify(likeEdgeRepository).deleteByTargets(TargetType.COMMENT, List.of(20L, 21L));
+        verify(likeIndex).evict(TargetType.COMMENT, List.of(20L, 21L));
+    }
+}
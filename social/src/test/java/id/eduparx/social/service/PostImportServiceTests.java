@@ -0,0 +1,153 @@
+package id.eduparx.social.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.eduparx.social.dto.PostImportError;
+import id.eduparx.social.dto.PostImportResult;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.repository.PostRepository;
+import id.eduparx.social.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class PostImportServiceTests {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TimelineService timelineService = mock(TimelineService.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final List<Post> saved = new ArrayList<>();
+
+    private final PostImportService service = new PostImportService(postRepository, userRepository,
+            mock(SearchIndexService.class), mock(TrendingService.class), timelineService, leaderboardService,
+            mock(EntityManager.class),
+            mock(PlatformTransactionManager.class), new ObjectMapper().findAndRegisterModules(),
+            Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry(),
+            2, 2, 100, 200);
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void importsValidRecordsAndReportsFailuresPerLine() throws Exception {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] {"budi", 7L}));
+        when(postRepository.findExistingSlugs(anyCollection())).thenReturn(List.of("sudah-ada-di-database"));
+        when(postRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<Post>>getArgument(0).forEach(saved::add);
+            return List.of();
+        });
+
+        String ndjson = String.join("\n",
+                "{\"title\":\"Post pertama\",\"content\":\"Isi post pertama\",\"status\":\"PUBLISHED\"}",
+                "",
+                "{\"title\":\"Post kedua\",\"content\":\"Isi post kedua\",\"authorUsername\":\"budi\"}",
+                "{bukan json",
+                "{\"title\":\"abc\",\"content\":\"Judul terlalu pendek\"}",
+                "{\"title\":\"Post ketiga\",\"content\":\"Author tidak ada\",\"authorUsername\":\"hantu\"}",
+                "{\"title\":\"Sudah ada di database\",\"content\":\"Slug dipakai\"}",
+                "{\"title\":\"Post keempat\",\"content\":\"Author budi lagi\",\"authorUsername\":\"budi\"}");
+
+        List<PostImportError> streamed = new ArrayList<>();
+        PostImportResult result = service.importPosts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 1L,
+                new PostImportService.Listener() {
+                    @Override
+                    public void onError(PostImportError error) {
+                        streamed.add(error);
+                    }
+                });
+
+        assertEquals(7, result.processed());
+        assertEquals(3, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(4, result.chunks());
+        assertEquals(result.errors(), streamed);
+        assertEquals(List.of(4L, 5L, 6L, 7L), streamed.stream().map(PostImportError::line).toList());
+        assertTrue(streamed.get(1).message().startsWith("title:"));
+
+        assertEquals(List.of("post-pertama", "post-kedua", "post-keempat"),
+                saved.stream().map(Post::getSlug).toList());
+        Post first = saved.get(0);
+        assertNotNull(first.getPublishedAt());
+        assertEquals("Isi post pertama", first.getExcerpt());
+        // "budi" dan "hantu" masing-masing cukup di-resolve sekali
+        verify(userRepository, times(2)).findIdsByUsernameIn(anyCollection());
+        // Hanya post PUBLISHED yang masuk timeline follower, atas nama author-nya
+        verify(timelineService).onPostPublished(first.getId(), 1L, first.getPublishedAt());
+        verify(timelineService, times(1)).onPostPublished(any(), any(), any());
+        verify(leaderboardService).onPostsPublished(Map.of(1L, 1));
+    }
+
+    @Test
+    void overlongLineIsReportedAsRecordError() throws Exception {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(postRepository.findExistingSlugs(anyCollection())).thenReturn(List.of());
+        when(postRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<Post>>getArgument(0).forEach(saved::add);
+            return List.of();
+        });
+
+        // Baris kedua jauh melebihi batas 200 karakter dan tidak ditampung utuh; \r\n tetap dikenali
+        String ndjson = "{\"title\":\"Sebelum baris panjang\",\"content\":\"Tersimpan\"}\r\n"
+                + "{\"title\":\"Baris panjang\",\"content\":\"" + "x".repeat(100_000) + "\"}\r\n"
+                + "{\"title\":\"Sesudah baris panjang\",\"content\":\"Tersimpan\"}";
+        PostImportResult result = service.importPosts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 1L,
+                new PostImportService.Listener() {
+                });
+
+        assertEquals(3, result.processed());
+        assertEquals(2, result.imported());
+        assertEquals(2L, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().contains("200"));
+        assertEquals(Set.of("sebelum-baris-panjang", "sesudah-baris-panjang"),
+                Set.copyOf(saved.stream().map(Post::getSlug).toList()));
+    }
+
+    @Test
+    void failedChunkIsRetriedPerRecord() throws Exception {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(postRepository.findExistingSlugs(anyCollection())).thenReturn(List.of());
+        when(postRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (Post post : invocation.<Iterable<Post>>getArgument(0)) {
+                if (post.getSlug().equals("slug-bentrok")) {
+                    throw new DataIntegrityViolationException("duplicate key posts_slug");
+                }
+                saved.add(post);
+            }
+            return List.of();
+        });
+
+        String ndjson = "{\"title\":\"Slug bentrok\",\"content\":\"Dibuat request lain\"}\n"
+                + "{\"title\":\"Post aman\",\"content\":\"Tetap tersimpan\"}\n";
+        PostImportResult result = service.importPosts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), 1L,
+                new PostImportService.Listener() {
+                });
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(1L, result.errors().get(0).line());
+        assertEquals(Set.of("post-aman"), Set.copyOf(saved.stream().map(Post::getSlug).toList()));
+    }
+}
@@ -0,0 +1,137 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.CommentDto;
+import id.eduparx.social.dto.PostCounters;
+import id.eduparx.social.dto.PostDetailDto;
+import id.eduparx.social.dto.PostSummaryDto;
+import id.eduparx.social.dto.PostWithCommentsDto;
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.model.User;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class PostServiceTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final PostService postService = new PostService();
+
+    PostServiceTests() {
+        ReflectionTestUtils.setField(postService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(postService, "commentRepository", commentRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamsPublishedPostsWithTopCommentsPerChunk() {
+        when(postRepository.streamPublishedSummaries())
+                .thenReturn(LongStream.rangeClosed(1, 5).mapToObj(PostServiceTests::summary));
+        // Comment id = postId * 10, satu per post
+        when(commentRepository.findTopApprovedIdsPerPost(any(), anyInt())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().map(id -> id * 10).toList());
+        when(commentRepository.findDtosByIdIn(any())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().map(PostServiceTests::comment).toList());
+
+        List<PostWithCommentsDto> exported = new ArrayList<>();
+        long processed = postService.forEachPublishedPostWithTopComments(2, 2, exported::add);
+
+        assertEquals(5, processed);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), exported.stream().map(dto -> dto.post().id()).toList());
+        assertEquals(List.of(30L), exported.get(2).topComments().stream().map(CommentDto::id).toList());
+        // Chunk 2 + 2 + 1: satu query comment ID per chunk
+        verify(commentRepository, times(3)).findTopApprovedIdsPerPost(any(), anyInt());
+    }
+
+    @Test
+    void slugCacheHitMakesNoRepositoryCalls() {
+        PostSlugCache slugCache = new PostSlugCache(mock(RedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(), "post-cache", 100,
+                Duration.ofMinutes(5), Duration.ofSeconds(30));
+        ViewCountService viewCountService = mock(ViewCountService.class);
+        ReflectionTestUtils.setField(postService, "postSlugCache", slugCache);
+        ReflectionTestUtils.setField(postService, "viewCountService", viewCountService);
+        ReflectionTestUtils.setField(postService, "trendingService", mock(TrendingService.class));
+        when(postRepository.findBySlug("kopi")).thenReturn(Optional.of(post(1L, "kopi", 10, 1, 0)));
+        when(viewCountService.getPendingViews(1L)).thenReturn(3L);
+
+        // Miss: satu query (detail membawa counter), tidak ada lookup counter terpisah
+        assertEquals(13, postService.getPostBySlug("kopi").viewCount());
+        verify(postRepository).findBySlug("kopi");
+        verify(postRepository, never()).findCountersById(any());
+
+        // Hit: detail dan counter dari memory, view pending tetap ikut
+        clearInvocations(postRepository);
+        PostDetailDto hit = postService.getPostBySlug("kopi");
+        verifyNoInteractions(postRepository);
+        assertEquals(13, hit.viewCount());
+        assertEquals(1, hit.likeCount());
+
+        // Like/comment/flush membuang entry counter: hanya counter yang di-load ulang
+        slugCache.evictCounters(List.of(1L));
+        when(postRepository.findCountersById(1L)).thenReturn(Optional.of(new PostCounters(50, 4, 2)));
+        PostDetailDto refreshed = postService.getPostBySlug("kopi");
+        verify(postRepository, never()).findBySlug(any());
+        assertEquals(53, refreshed.viewCount());
+        assertEquals(4, refreshed.likeCount());
+        assertEquals(2, refreshed.commentCount());
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.forEachPublishedPostWithTopComments(3, 0, dto -> { }));
+    }
+
+    private static Post post(Long id, String slug, int views, int likes, int comments) {
+        User author = new User("author", "author@example.com", "secret");
+        author.setId(9L);
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("Kopi pagi");
+        post.setSlug(slug);
+        post.setContent("isi");
+        post.setStatus(Post.PostStatus.PUBLISHED);
+        post.setViewCount(views);
+        post.setLikeCount(likes);
+        post.setCommentCount(comments);
+        post.setAuthor(author);
+        return post;
+    }
+
+    private static PostSummaryDto summary(long id) {
+        return new PostSummaryDto(id, "Post " + id, "post-" + id, null, null, Post.PostStatus.PUBLISHED,
+                0, 0, 0, false, T0, T0, 9L, "author", null, null);
+    }
+
+    private static CommentDto comment(Long id) {
+        return new CommentDto(id, "Comment " + id, Comment.CommentStatus.APPROVED, 0, false, null, T0,
+                id / 10, 7L, "commenter", null, null);
+    }
+}
@@ -0,0 +1,83 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.Post;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slug dan excerpt tanpa regex harus identik dengan implementasi regex sebelumnya
+ */
+public class PostTextTests {
+
+    private static final String ALPHABET = "abcXYZ019 \t\n\u000B\f\r<>/-!.éÉİ\u00A0";
+
+    @Test
+    void slugMatchesRegexImplementation() {
+        Random random = new Random(42);
+        assertEquals("halo-dunia-2025", slugOf("Halo, Dunia! 2025"));
+        assertEquals("-a-b-", slugOf("  a ! \t b  "));
+        for (int i = 0; i < 20_000; i++) {
+            String title = randomText(random, 1 + random.nextInt(80));
+            assertEquals(regexSlug(title), slugOf(title), () -> "title: " + escape(title));
+        }
+    }
+
+    @Test
+    void excerptMatchesRegexImplementation() {
+        Random random = new Random(7);
+        assertEquals("Halo dunia", PostService.generateExcerpt("<p>Halo <b>dunia</b></p>"));
+        assertEquals("a < b", PostService.generateExcerpt("a < b"));
+        for (int i = 0; i < 20_000; i++) {
+            String content = randomText(random, random.nextInt(i % 10 == 0 ? 5_000 : 400));
+            assertEquals(regexExcerpt(content), PostService.generateExcerpt(content),
+                    () -> "content: " + escape(content));
+        }
+    }
+
+    private static String slugOf(String title) {
+        Post post = new Post();
+        post.setTitle(title);
+        return post.getSlug();
+    }
+
+    private static String regexSlug(String title) {
+        return title.toLowerCase()
+                .replaceAll("[^a-z0-9\\s]", "")
+                .replaceAll("\\s+", "-")
+                .trim();
+    }
+
+    private static String regexExcerpt(String content) {
+        String cleanContent = content.replaceAll("<[^>]*>", "");
+        if (cleanContent.length() <= 200) {
+            return cleanContent;
+        }
+        String excerpt = cleanContent.substring(0, 200);
+        int lastSpace = excerpt.lastIndexOf(' ');
+        if (lastSpace > 150) {
+            excerpt = excerpt.substring(0, lastSpace);
+        }
+        return excerpt + "...";
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // Huruf/spasi lebih sering dari tag supaya ada excerpt > 200 karakter
+            text.append(random.nextInt(4) == 0
+                    ? ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                    : (char) ('a' + random.nextInt(26)));
+            if (random.nextInt(6) == 0) {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\n", "\\n").replace("\t", "\\t").replace("\r", "\\r");
+    }
+}
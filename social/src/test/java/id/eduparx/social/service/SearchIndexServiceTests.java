@@ -0,0 +1,76 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.model.Comment;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.repository.CommentRepository;
+import id.eduparx.social.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchIndexServiceTests {
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final SearchIndexService search = new SearchIndexService(postRepository, commentRepository, 16);
+
+    SearchIndexServiceTests() {
+        ReflectionTestUtils.setField(search, "maxHits", 100);
+        ReflectionTestUtils.setField(search, "rebuildChunkSize", 10);
+    }
+
+    @Test
+    void updateDuringRebuildIsReplayedBeforeSwap() {
+        Post stale = post(1L, Post.PostStatus.PUBLISHED);
+        // Snapshot chunk dibaca, lalu post di-unpublish dan hook-nya jalan sebelum scan selesai
+        when(postRepository.findPublishedAfterId(eq(0L), any())).thenAnswer(invocation -> {
+            search.indexPost(post(1L, Post.PostStatus.DRAFT));
+            return List.of(stale);
+        });
+        when(commentRepository.findApprovedAfterId(anyLong(), any())).thenReturn(List.of());
+
+        assertTrue(search.rebuild());
+        assertEquals(List.of(), search.searchPosts("kopi").orElseThrow());
+    }
+
+    @Test
+    void removePostAlsoRemovesItsComments() {
+        Post post = post(1L, Post.PostStatus.PUBLISHED);
+        when(postRepository.findPublishedAfterId(anyLong(), any())).thenReturn(List.of(post));
+        when(commentRepository.findApprovedAfterId(eq(0L), any())).thenReturn(List.of(comment(10L, post)));
+        when(commentRepository.findApprovedAfterId(eq(10L), any())).thenReturn(List.of());
+        when(commentRepository.findApprovedIdsByPostId(1L)).thenReturn(List.of(10L));
+        assertTrue(search.rebuild());
+        assertEquals(List.of(10L), search.searchComments("susu").orElseThrow());
+
+        search.removePost(1L);
+        assertEquals(List.of(), search.searchPosts("kopi").orElseThrow());
+        assertEquals(List.of(), search.searchComments("susu").orElseThrow());
+    }
+
+    private static Post post(Long id, Post.PostStatus status) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("Kopi pagi");
+        post.setContent("Kopi tubruk di teras");
+        post.setStatus(status);
+        return post;
+    }
+
+    private static Comment comment(Long id, Post post) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("Lebih enak pakai susu");
+        comment.setPost(post);
+        comment.setStatus(Comment.CommentStatus.APPROVED);
+        return comment;
+    }
+}
@@ -0,0 +1,117 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.dto.CursorPage;
+import id.eduparx.social.dto.PostSummaryDto;
+import id.eduparx.social.model.Post;
+import id.eduparx.social.repository.FollowRepository;
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TimelineServiceTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesPushedTimelineWithFollowedCelebrityPosts() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        SetOperations<String, String> set = mock(SetOperations.class);
+        FollowRepository followRepository = mock(FollowRepository.class);
+        PostRepository postRepository = mock(PostRepository.class);
+        when(redis.opsForZSet()).thenReturn(zSet);
+        when(redis.opsForSet()).thenReturn(set);
+        when(redis.hasKey("tl:1")).thenReturn(true);
+
+        // Timeline hasil push: post 40 dan 10; author celebrity 9 punya post 30 dan 20
+        Set<TypedTuple<String>> pushed = new LinkedHashSet<>();
+        pushed.add(TypedTuple.of("40", (double) TimelineService.score(T0.plusMinutes(4))));
+        pushed.add(TypedTuple.of("10", (double) TimelineService.score(T0.plusMinutes(1))));
+        when(zSet.reverseRangeByScoreWithScores(eq("tl:1"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                .thenReturn(pushed);
+        when(set.members("tl:celebrities")).thenReturn(Set.of("9"));
+        when(followRepository.findFolloweeIdsIn(eq(1L), any())).thenReturn(List.of(9L));
+        when(postRepository.findPublishedByAuthorsBefore(eq(List.of(9L)), any(), any(), any()))
+                .thenReturn(List.of(new Object[] {30L, T0.plusMinutes(3)}, new Object[] {20L, T0.plusMinutes(2)}));
+        when(postRepository.findPublishedSummariesByIdIn(any())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .filter(id -> id != 30L) // 30 sudah dihapus
+                        .map(TimelineServiceTests::summary)
+                        .toList());
+
+        TimelineService timeline = new TimelineService(redis, followRepository, postRepository,
+                new SimpleMeterRegistry(), "tl:", 800, 10_000, 500, Duration.ofDays(14), 1, 10);
+        try {
+            CursorPage<PostSummaryDto> first = timeline.getTimeline(1L, null, 3);
+            assertEquals(List.of(40L, 20L), first.getContent().stream().map(PostSummaryDto::id).toList());
+            assertTrue(first.isHasNext());
+
+            // Halaman berikutnya mulai setelah entry terakhir (20), termasuk dari timeline hasil push
+            CursorPage<PostSummaryDto> second = timeline.getTimeline(1L, first.getNextCursor(), 3);
+            assertEquals(List.of(10L), second.getContent().stream().map(PostSummaryDto::id).toList());
+            assertFalse(second.isHasNext());
+        } finally {
+            timeline.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emptyRebuildIsCachedWithMarker() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        SetOperations<String, String> set = mock(SetOperations.class);
+        FollowRepository followRepository = mock(FollowRepository.class);
+        PostRepository postRepository = mock(PostRepository.class);
+        when(redis.opsForZSet()).thenReturn(zSet);
+        when(redis.opsForSet()).thenReturn(set);
+        when(redis.hasKey("tl:1")).thenReturn(false);
+        when(postRepository.findPublishedByAuthorsBefore(any(), any(), any(), any())).thenReturn(List.of());
+
+        TimelineService timeline = new TimelineService(redis, followRepository, postRepository,
+                new SimpleMeterRegistry(), "tl:", 800, 10_000, 500, Duration.ofDays(14), 1, 10);
+        try {
+            assertTrue(timeline.getTimeline(1L, null, 10).getContent().isEmpty());
+            // Key dibuat dengan TTL walaupun user belum punya post di timeline
+            verify(zSet).add("tl:1", Set.of(TypedTuple.of(TimelineService.EMPTY_MARKER, 0.0)));
+            verify(redis).expire("tl:1", Duration.ofDays(14));
+
+            // Read berikutnya lewat jalur cache: marker tidak dianggap post
+            when(redis.hasKey("tl:1")).thenReturn(true);
+            when(zSet.reverseRangeByScoreWithScores(eq("tl:1"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                    .thenReturn(Set.of(TypedTuple.of(TimelineService.EMPTY_MARKER, 0.0)));
+            CursorPage<PostSummaryDto> page = timeline.getTimeline(1L, null, 10);
+            assertTrue(page.getContent().isEmpty());
+            assertFalse(page.isHasNext());
+            verify(followRepository, times(1)).findFolloweeIds(1L);
+            verify(postRepository, never()).findPublishedSummariesByIdIn(any());
+        } finally {
+            timeline.shutdown();
+        }
+    }
+
+    private static PostSummaryDto summary(Long id) {
+        return new PostSummaryDto(id, "Post " + id, "post-" + id, null, null, Post.PostStatus.PUBLISHED,
+                0, 0, 0, false, T0, T0, 9L, "author", null, null);
+    }
+}
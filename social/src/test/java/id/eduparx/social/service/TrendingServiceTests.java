@@ -0,0 +1,116 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrendingServiceTests {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-10-01T12:00:00Z"));
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final TrendingService trending = new TrendingService(postRepository, clock,
+            Duration.ofDays(7), Duration.ofHours(1), Duration.ofHours(24), 10, 1.0, 1.0, 0.05);
+
+    @BeforeEach
+    void setUp() {
+        when(postRepository.findTrendingSeedSince(any())).thenReturn(List.of());
+        trending.rebuild();
+    }
+
+    @Test
+    void olderEngagementDecays() {
+        trending.onPostPublished(1L, now());
+        trending.onPostPublished(2L, now());
+        trending.recordLike(1L, 1);
+        trending.recordLike(1L, 1);
+        trending.refresh();
+        assertEquals(List.of(1L), trending.getTrendingPostIds(10).orElseThrow());
+
+        // Dua half-life kemudian: 2 like lama (skor 0.5) kalah dari 1 like baru
+        clock.advance(Duration.ofHours(48));
+        trending.recordLike(2L, 1);
+        trending.refresh();
+        assertEquals(List.of(2L, 1L), trending.getTrendingPostIds(10).orElseThrow());
+    }
+
+    @Test
+    void postsLeaveTheWindow() {
+        trending.onPostPublished(1L, now());
+        trending.recordLike(1L, 1);
+        clock.advance(Duration.ofDays(6));
+        trending.onPostPublished(2L, now());
+        trending.recordLike(2L, 1);
+        trending.refresh();
+        assertEquals(List.of(2L, 1L), trending.getTrendingPostIds(10).orElseThrow());
+
+        clock.advance(Duration.ofDays(2));
+        trending.refresh();
+        assertEquals(List.of(2L), trending.getTrendingPostIds(10).orElseThrow());
+        // Post di luar window tidak di-track lagi, event berikutnya diabaikan
+        trending.recordLike(1L, 1);
+        trending.refresh();
+        assertEquals(List.of(2L), trending.getTrendingPostIds(10).orElseThrow());
+    }
+
+    @Test
+    void unlikeNeverMakesScoreNegative() {
+        trending.onPostPublished(1L, now());
+        trending.onPostPublished(2L, now());
+        trending.recordLike(1L, 1);
+
+        // Unlike beberapa jam setelah like: dikurangi dari bucket like-nya, bukan jadi -1 di bucket sekarang
+        clock.advance(Duration.ofHours(5));
+        trending.recordLike(1L, -1);
+        // Unlike tanpa like (misal like-nya dari seed) tidak membuat skor negatif
+        trending.recordLike(2L, -1);
+        trending.recordLike(2L, -1);
+        trending.recordView(2L);
+        trending.refresh();
+        assertEquals(List.of(2L), trending.getTrendingPostIds(10).orElseThrow());
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
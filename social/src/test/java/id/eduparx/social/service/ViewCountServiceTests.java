@@ -0,0 +1,113 @@
+package id.eduparx.social.service;
+
+import id.eduparx.social.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ViewCountServiceTests {
+
+    private static final int THREADS = 8;
+    private static final int VIEWS_PER_THREAD = 50_000;
+    private static final long POSTS = 1000;
+
+    @Test
+    void concurrentViewsAreNeitherLostNorDoubleCounted() throws Exception {
+        // Stub repository + transaction: UPDATE ditampung dan baru diterapkan saat commit, dibuang saat rollback
+        PostRepository postRepository = mock(PostRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        ConcurrentHashMap<Long, AtomicLong> flushed = new ConcurrentHashMap<>();
+        Map<Long, Long> uncommitted = new HashMap<>();
+        AtomicInteger transactions = new AtomicInteger();
+        AtomicInteger statements = new AtomicInteger();
+        when(postRepository.incrementViewCountBy(any(), anyInt())).thenAnswer(invocation -> {
+            // Setiap transaction ke-5 gagal setelah statement pertama: delta harus dikembalikan ke pending
+            if (transactions.get() % 5 == 0 && statements.incrementAndGet() > 1) {
+                throw new QueryTimeoutException("timeout");
+            }
+            List<Long> postIds = invocation.getArgument(0);
+            int delta = invocation.getArgument(1);
+            postIds.forEach(id -> uncommitted.merge(id, (long) delta, Long::sum));
+            return postIds.size();
+        });
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            transactions.incrementAndGet();
+            statements.set(0);
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            uncommitted.forEach((id, delta) -> flushed.computeIfAbsent(id, key -> new AtomicLong()).addAndGet(delta));
+            uncommitted.clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            uncommitted.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+        ViewCountService viewCounts = new ViewCountService(postRepository, mock(PostSlugCache.class),
+                transactionManager, new SimpleMeterRegistry());
+
+        ConcurrentHashMap<Long, AtomicLong> recorded = new ConcurrentHashMap<>();
+        ExecutorService writers = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                done.add(writers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                        long postId = ThreadLocalRandom.current().nextLong(1, POSTS + 1);
+                        viewCounts.recordView(postId);
+                        recorded.computeIfAbsent(postId, key -> new AtomicLong()).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Flush terus-menerus selama view masuk: entry sering idle lalu dibuang drain()
+            while (!done.stream().allMatch(Future::isDone)) {
+                viewCounts.flush();
+                Thread.sleep(1);
+            }
+            for (Future<?> future : done) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        for (long postId = 1; postId <= POSTS; postId++) {
+            long recordedViews = recorded.getOrDefault(postId, new AtomicLong()).get();
+            long flushedViews = flushed.getOrDefault(postId, new AtomicLong()).get();
+            assertEquals(recordedViews, flushedViews + viewCounts.getPendingViews(postId), "post " + postId);
+        }
+        while (viewCounts.getTotalPendingViews() > 0) {
+            viewCounts.flush();
+        }
+        long total = flushed.values().stream().mapToLong(AtomicLong::get).sum();
+        assertEquals((long) THREADS * VIEWS_PER_THREAD, total);
+    }
+}